@@ -0,0 +1,83 @@
+package org.example.benchmarks;
+
+import java.util.Random;
+
+/**
+ * Generated inputs shared by the benchmarks. Generation is seeded, so every run measures the same text.
+ */
+public final class BenchmarkInputs {
+
+    private static final int DOCUMENT_SIZE = 4 * 1024 * 1024;
+    private static final int NESTING_DEPTH = 64;
+    private static final int CHAIN_LENGTH = 256;
+    private static final int DEEP_NESTING_DEPTH = 2_000;
+    private static final int OPERATOR_RUN_LENGTH = 2_000;
+
+    private BenchmarkInputs() {
+    }
+
+    /**
+     * Expressions as passed to the core classes (without surrounding text).
+     */
+    public static String expression(String shape) {
+        return switch (shape) {
+            case "short" -> "2 + 3 * 4";
+            case "nested" -> "(".repeat(NESTING_DEPTH) + "1.5 + 2" + " * 3)".repeat(NESTING_DEPTH);
+            case "chain" -> chain(new Random(1), CHAIN_LENGTH);
+            case "integerChain" -> chain(new Random(1), CHAIN_LENGTH, "+-*");
+            default -> throw new IllegalArgumentException("Unknown expression shape: " + shape);
+        };
+    }
+
+    /**
+     * Texts as passed to the processors.
+     */
+    public static String text(String shape) {
+        return switch (shape) {
+            case "short" -> "The result is 2 + 2, and the price is (3.5 * 2).";
+            case "nested" -> "Nested: " + expression("nested") + " done.";
+            case "chain" -> "Chain: " + expression("chain") + " done.";
+            case "sparseDocument" -> document(0.02);
+            case "denseDocument" -> document(0.5);
+            case "deepNesting" -> "Deep: " + "(".repeat(DEEP_NESTING_DEPTH) + "1 + 1" + ")".repeat(DEEP_NESTING_DEPTH) + " done.";
+            case "operatorRuns" -> "Dashes: " + "- ".repeat(OPERATOR_RUN_LENGTH) + "and digits " + "1 2 ".repeat(OPERATOR_RUN_LENGTH) + "+ end.";
+            default -> throw new IllegalArgumentException("Unknown text shape: " + shape);
+        };
+    }
+
+    /**
+     * Builds a multi-megabyte document in which roughly the given fraction of sentences holds an expression.
+     */
+    private static String document(double expressionRatio) {
+        Random random = new Random(7);
+        StringBuilder sb = new StringBuilder(DOCUMENT_SIZE + 256);
+        while (sb.length() < DOCUMENT_SIZE) {
+            if (random.nextDouble() < expressionRatio) {
+                switch (random.nextInt(3)) {
+                    case 0 -> sb.append("Total is ").append(chain(random, 3)).append(". ");
+                    case 1 -> sb.append("Nested value ((").append(random.nextInt(100)).append(" + 2) * (")
+                            .append(random.nextInt(100)).append(" - 1.5)). ");
+                    default -> sb.append("Ratio (").append(random.nextInt(1000)).append(" / ")
+                            .append(1 + random.nextInt(9)).append("), ");
+                }
+            } else {
+                sb.append("Plain words of an ordinary report sentence without numbers");
+                sb.append(random.nextBoolean() ? ". " : ",\n");
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String chain(Random random, int operands) {
+        return chain(random, operands, "+-*/");
+    }
+
+    private static String chain(Random random, int operands, String operators) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(1 + random.nextInt(99));
+        for (int i = 1; i < operands; i++) {
+            sb.append(' ').append(operators.charAt(random.nextInt(operators.length()))).append(' ').append(1 + random.nextInt(99));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,87 @@
+package org.example.benchmarks;
+
+import org.example.expressions.core.BulkEvaluator;
+import org.example.expressions.core.EvaluationException;
+import org.example.expressions.core.ExpressionTemplate;
+import org.example.expressions.core.FusedExpressionEvaluator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares ways of evaluating one expression shape over many rows of values: formatting each
+ * expression with the fused evaluator, evaluating the expression strings in bulk into a {@code double[]},
+ * and evaluating a compiled template row by row and over value columns. Scores are per row.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@OperationsPerInvocation(BulkEvaluationBenchmark.ROWS)
+public class BulkEvaluationBenchmark {
+
+    static final int ROWS = 100_000;
+    private static final String TEMPLATE = "(? + 1.5) * ? - ? / (? + 2)";
+
+    private final FusedExpressionEvaluator evaluator = new FusedExpressionEvaluator();
+    private final List<String> expressions = new ArrayList<>();
+    private final double[][] columns = new double[4][ROWS];
+    private final double[] results = new double[ROWS];
+    private final BitSet errors = new BitSet(ROWS);
+    private final StringBuilder out = new StringBuilder();
+    private ExpressionTemplate template;
+
+    @Setup
+    public void setUp() throws EvaluationException {
+        Random random = new Random(1);
+        for (int r = 0; r < ROWS; r++) {
+            String expression = TEMPLATE;
+            for (double[] column : columns) {
+                column[r] = random.nextInt(10_000) / 100.0;
+                expression = expression.replaceFirst("\\?", Double.toString(column[r]));
+            }
+            expressions.add(expression);
+        }
+        template = ExpressionTemplate.compile(TEMPLATE);
+    }
+
+    @Benchmark
+    public StringBuilder perString() {
+        for (String expression : expressions) {
+            out.setLength(0);
+            evaluator.evalExpression(expression, 0, expression.length(), out);
+        }
+        return out;
+    }
+
+    @Benchmark
+    public double[] bulkStrings() {
+        BulkEvaluator.evaluate(expressions, results, errors);
+        return results;
+    }
+
+    @Benchmark
+    public double[] templatePerRow() throws EvaluationException {
+        double[] row = new double[columns.length];
+        double[] stack = new double[template.stackSize()];
+        for (int r = 0; r < ROWS; r++) {
+            for (int slot = 0; slot < row.length; slot++) {
+                row[slot] = columns[slot][r];
+            }
+            results[r] = template.evaluate(row, stack);
+        }
+        return results;
+    }
+
+    @Benchmark
+    public double[] template() {
+        template.evaluate(columns, results, errors);
+        return results;
+    }
+}
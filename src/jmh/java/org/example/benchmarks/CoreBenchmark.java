@@ -0,0 +1,86 @@
+package org.example.benchmarks;
+
+import org.example.expressions.core.EvaluationException;
+import org.example.expressions.core.ExpressionConverter;
+import org.example.expressions.core.ExpressionEvaluator;
+import org.example.expressions.core.ExpressionParser;
+import org.example.expressions.core.ExpressionValidator;
+import org.example.expressions.core.FusedExpressionEvaluator;
+import org.example.expressions.core.TokenStream;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the stages of expression evaluation: tokenizing (to a list and to a reusable token stream),
+ * infix-to-postfix conversion and full evaluation through the pipeline and the fused evaluator.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CoreBenchmark {
+
+    @Param({"short", "nested", "chain"})
+    private String shape;
+
+    private String expression;
+    private List<String> tokens;
+    private ExpressionParser parser;
+    private ExpressionConverter converter;
+    private ExpressionEvaluator pipelineEvaluator;
+    private ExpressionEvaluator fusedEvaluator;
+    private ExpressionValidator validator;
+    private TokenStream stream;
+    private StringBuilder out;
+
+    @Setup
+    public void setUp() throws EvaluationException {
+        expression = BenchmarkInputs.expression(shape);
+        parser = new ExpressionParser();
+        converter = new ExpressionConverter();
+        tokens = parser.tokenize(expression);
+        pipelineEvaluator = new ExpressionEvaluator(parser, converter);
+        fusedEvaluator = new FusedExpressionEvaluator();
+        validator = new ExpressionValidator(parser);
+        stream = new TokenStream();
+        out = new StringBuilder();
+    }
+
+    @Benchmark
+    public List<String> tokenize() throws EvaluationException {
+        return parser.tokenize(expression);
+    }
+
+    @Benchmark
+    public TokenStream tokenizeStream() {
+        return parser.tokenize(expression, 0, expression.length(), stream);
+    }
+
+    @Benchmark
+    public List<String> infixToPostfix() throws EvaluationException {
+        return converter.infixToPostfix(tokens);
+    }
+
+    @Benchmark
+    public String evalExpressionPipeline() {
+        return pipelineEvaluator.evalExpression(expression);
+    }
+
+    @Benchmark
+    public String evalExpressionFused() {
+        return fusedEvaluator.evalExpression(expression);
+    }
+
+    @Benchmark
+    public StringBuilder validateAndEvalTokens() {
+        out.setLength(0);
+        if (validator.isPotentialExpression(expression, 0, expression.length(), stream)) {
+            fusedEvaluator.evalExpression(stream, out);
+        }
+        return out;
+    }
+}
@@ -0,0 +1,92 @@
+package org.example.benchmarks;
+
+import org.example.io.Compression;
+import org.example.io.FileEncryption;
+import org.example.io.SimpleFileReader;
+import org.example.io.SimpleFileWriter;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of AES-GCM file encryption: writing and reading a 1 MB text file through
+ * {@link SimpleFileWriter} and {@link SimpleFileReader}, plain and encrypted. Scores are per MB, so the
+ * difference between the plain and encrypted scores is the added cost per MB.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EncryptionBenchmark {
+
+    private static final int SIZE = 1024 * 1024;
+
+    private final FileEncryption encryption = FileEncryption.withKey(new byte[32]);
+    private final char[] buffer = new char[8192];
+    private String text;
+    private Path plainFile;
+    private Path encryptedFile;
+    private Path outputFile;
+
+    @Setup
+    public void setUp() throws IOException {
+        text = BenchmarkInputs.text("sparseDocument").substring(0, SIZE);
+        plainFile = Files.createTempFile("benchmark", ".txt");
+        encryptedFile = Files.createTempFile("benchmark", ".txt.enc");
+        outputFile = Files.createTempFile("benchmark-out", ".txt");
+        write(plainFile, null);
+        write(encryptedFile, encryption);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(plainFile);
+        Files.deleteIfExists(encryptedFile);
+        Files.deleteIfExists(outputFile);
+    }
+
+    @Benchmark
+    public long writePlain() throws IOException {
+        return write(outputFile, null);
+    }
+
+    @Benchmark
+    public long writeEncrypted() throws IOException {
+        return write(outputFile, encryption);
+    }
+
+    @Benchmark
+    public long readPlain() throws IOException {
+        return read(plainFile, null);
+    }
+
+    @Benchmark
+    public long readEncrypted() throws IOException {
+        return read(encryptedFile, encryption);
+    }
+
+    private long write(Path path, FileEncryption encryption) throws IOException {
+        try (Writer writer = SimpleFileWriter.openWriter(path.toString(), Compression.NONE, encryption)) {
+            writer.write(text);
+        }
+        return text.length();
+    }
+
+    private long read(Path path, FileEncryption encryption) throws IOException {
+        long count = 0;
+        try (Reader reader = SimpleFileReader.openReader(path.toString(), Compression.NONE, encryption)) {
+            int n;
+            while ((n = reader.read(buffer)) >= 0) {
+                count += n;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,44 @@
+package org.example.benchmarks;
+
+import org.example.expressions.core.FusedExpressionEvaluator;
+import org.example.expressions.core.NumericBackend;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the fused evaluator with each numeric backend on the same expressions. The integer chain
+ * stays on the long fast path; the other shapes make the long backend fall back to doubles.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NumericBackendBenchmark {
+
+    @Param({"short", "nested", "chain", "integerChain"})
+    private String shape;
+
+    @Param({"double", "long", "decimal"})
+    private String backend;
+
+    private String expression;
+    private FusedExpressionEvaluator evaluator;
+    private StringBuilder out;
+
+    @Setup
+    public void setUp() {
+        expression = BenchmarkInputs.expression(shape);
+        evaluator = new FusedExpressionEvaluator(NumericBackend.parse(backend));
+        out = new StringBuilder();
+    }
+
+    @Benchmark
+    public StringBuilder evaluate() {
+        out.setLength(0);
+        evaluator.evalExpression(expression, 0, expression.length(), out);
+        return out;
+    }
+}
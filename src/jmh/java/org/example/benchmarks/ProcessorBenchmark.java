@@ -0,0 +1,54 @@
+package org.example.benchmarks;
+
+import org.example.expressions.factory.AdaptiveExpressionProcessorFactory;
+import org.example.expressions.factory.ManualExpressionProcessorFactory;
+import org.example.expressions.factory.RegexExpressionProcessorFactory;
+import org.example.expressions.processors.ExpressionProcessor;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the manual, the regex and the adaptive processor on the same texts, from a single sentence
+ * to multi-megabyte documents with sparse or dense expressions, plus the shapes on which the manual
+ * engine turns quadratic. The adaptive processor should stay close to the better fixed engine on each.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProcessorBenchmark {
+
+    @Param({"short", "nested", "chain", "sparseDocument", "denseDocument", "deepNesting", "operatorRuns"})
+    private String shape;
+
+    private String text;
+    private ExpressionProcessor manual;
+    private ExpressionProcessor regex;
+    private ExpressionProcessor auto;
+
+    @Setup
+    public void setUp() {
+        text = BenchmarkInputs.text(shape);
+        manual = new ManualExpressionProcessorFactory().createProcessor();
+        regex = new RegexExpressionProcessorFactory().createProcessor();
+        auto = new AdaptiveExpressionProcessorFactory().createProcessor();
+    }
+
+    @Benchmark
+    public String manualProcess() {
+        return manual.process(text);
+    }
+
+    @Benchmark
+    public String regexProcess() {
+        return regex.process(text);
+    }
+
+    @Benchmark
+    public String autoProcess() {
+        return auto.process(text);
+    }
+}
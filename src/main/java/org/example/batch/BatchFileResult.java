@@ -0,0 +1,27 @@
+package org.example.batch;
+
+import java.nio.file.Path;
+
+/**
+ * Outcome of processing one file in a batch.
+ *
+ * @param input  the input file
+ * @param output the output file
+ * @param bytes  size of the input file in bytes
+ * @param nanos  time spent on the file
+ * @param error  the failure, or {@code null} if the file was processed successfully
+ */
+public record BatchFileResult(Path input, Path output, long bytes, long nanos, Exception error) {
+
+    public boolean succeeded() {
+        return error == null;
+    }
+
+    @Override
+    public String toString() {
+        if (succeeded()) {
+            return String.format("OK      %s -> %s (%d bytes, %.1f ms)", input, output, bytes, nanos / 1e6);
+        }
+        return String.format("FAILED  %s: %s: %s", input, error.getClass().getSimpleName(), error.getMessage());
+    }
+}
@@ -0,0 +1,181 @@
+package org.example.batch;
+
+import org.example.expressions.processors.ExpressionProcessor;
+import org.example.formats.StructuredTextProcessor;
+import org.example.formats.TextFormat;
+import org.example.io.SimpleFileReader;
+import org.example.io.SimpleFileWriter;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Stream;
+
+/**
+ * Processes many files in one JVM, one virtual thread per file.
+ * <p>
+ * Inputs are given as a directory (all regular files below it), a glob such as {@code data/*.txt},
+ * or a manifest file prefixed with {@code @} that lists one input path per line. Output files keep
+ * their path relative to the input root and are written under the output directory.
+ * At most {@code maxInFlight} files are open at once; all of them share the same processor,
+ * which therefore has to be thread-safe. Each file is processed according to the {@link TextFormat}
+ * of its extension.
+ * </p>
+ */
+public class BatchProcessor {
+
+    public static final int DEFAULT_MAX_IN_FLIGHT = 64;
+
+    private final ExpressionProcessor processor;
+    private final int maxInFlight;
+
+    public BatchProcessor(ExpressionProcessor processor, int maxInFlight) {
+        if (maxInFlight <= 0) {
+            throw new IllegalArgumentException("Max files in flight must be positive: " + maxInFlight);
+        }
+        this.processor = processor;
+        this.maxInFlight = maxInFlight;
+    }
+
+    /**
+     * Resolves the input specification and processes every file it names.
+     *
+     * @param inputSpec  a directory, a glob, or {@code @manifest}
+     * @param outputDir  the directory receiving the processed files
+     * @return the per-file results in input order and the total elapsed time
+     * @throws IOException if the inputs cannot be listed, or two inputs would be written to the same output file
+     */
+    public BatchReport process(String inputSpec, Path outputDir) throws IOException {
+        List<Path[]> jobs = resolve(inputSpec, outputDir);
+        long start = System.nanoTime();
+        List<BatchFileResult> results = new ArrayList<>(jobs.size());
+
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<BatchFileResult>> futures = new ArrayList<>(jobs.size());
+            for (Path[] job : jobs) {
+                inFlight.acquireUninterruptibly();
+                futures.add(executor.submit(() -> {
+                    try {
+                        return processFile(job[0], job[1]);
+                    } finally {
+                        inFlight.release();
+                    }
+                }));
+            }
+            for (Future<BatchFileResult> future : futures) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Batch interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Batch task failed", e.getCause());
+        }
+        return new BatchReport(results, System.nanoTime() - start);
+    }
+
+    private BatchFileResult processFile(Path input, Path output) {
+        long start = System.nanoTime();
+        try {
+            long bytes = Files.size(input);
+            Path parent = output.getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            try (Reader reader = SimpleFileReader.openReader(input.toString());
+                 Writer writer = SimpleFileWriter.openWriter(output.toString())) {
+                new StructuredTextProcessor(processor, TextFormat.forPath(input.toString())).process(reader, writer);
+            }
+            return new BatchFileResult(input, output, bytes, System.nanoTime() - start, null);
+        } catch (IOException | RuntimeException e) {
+            return new BatchFileResult(input, output, 0, System.nanoTime() - start, e);
+        }
+    }
+
+    /**
+     * Turns the input specification into (input, output) path pairs.
+     * Files from a manifest are written directly into the output directory under their file name.
+     *
+     * @throws IOException if the inputs cannot be listed, or two inputs have the same output path
+     */
+    static List<Path[]> resolve(String inputSpec, Path outputDir) throws IOException {
+        List<Path[]> jobs = listJobs(inputSpec, outputDir);
+        Map<Path, Path> inputsByOutput = new HashMap<>();
+        for (Path[] job : jobs) {
+            Path previous = inputsByOutput.putIfAbsent(job[1].toAbsolutePath().normalize(), job[0]);
+            if (previous != null) {
+                throw new IOException("Inputs " + previous + " and " + job[0] + " would both be written to " + job[1]);
+            }
+        }
+        return jobs;
+    }
+
+    private static List<Path[]> listJobs(String inputSpec, Path outputDir) throws IOException {
+        List<Path[]> jobs = new ArrayList<>();
+
+        if (inputSpec.startsWith("@")) {
+            for (String line : Files.readAllLines(Path.of(inputSpec.substring(1)))) {
+                String trimmed = line.strip();
+                if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                    continue;
+                }
+                Path input = Path.of(trimmed);
+                jobs.add(new Path[]{input, outputDir.resolve(input.getFileName())});
+            }
+            return jobs;
+        }
+
+        Path root;
+        PathMatcher matcher;
+        Path spec = Path.of(inputSpec);
+        if (Files.isDirectory(spec)) {
+            root = spec;
+            matcher = path -> true;
+        } else if (isGlob(inputSpec)) {
+            root = globRoot(spec);
+            matcher = root.getFileSystem().getPathMatcher("glob:" + root.relativize(spec));
+        } else {
+            jobs.add(new Path[]{spec, outputDir.resolve(spec.getFileName())});
+            return jobs;
+        }
+
+        try (Stream<Path> files = Files.walk(root)) {
+            files.filter(Files::isRegularFile)
+                    .filter(path -> matcher.matches(root.relativize(path)))
+                    .sorted()
+                    .forEach(path -> jobs.add(new Path[]{path, outputDir.resolve(root.relativize(path).toString())}));
+        }
+        return jobs;
+    }
+
+    private static boolean isGlob(String spec) {
+        return spec.chars().anyMatch(c -> c == '*' || c == '?' || c == '[' || c == '{');
+    }
+
+    /**
+     * Returns the longest leading part of the glob that contains no wildcard.
+     */
+    private static Path globRoot(Path glob) {
+        Path root = glob.isAbsolute() ? glob.getRoot() : Path.of("");
+        for (Path part : glob) {
+            if (isGlob(part.toString())) {
+                break;
+            }
+            root = root.resolve(part);
+        }
+        return root;
+    }
+}
@@ -0,0 +1,28 @@
+package org.example.batch;
+
+import java.util.List;
+
+/**
+ * Per-file results of a batch run plus overall throughput.
+ */
+public record BatchReport(List<BatchFileResult> results, long nanos) {
+
+    public long failures() {
+        return results.stream().filter(r -> !r.succeeded()).count();
+    }
+
+    public long totalBytes() {
+        return results.stream().filter(BatchFileResult::succeeded).mapToLong(BatchFileResult::bytes).sum();
+    }
+
+    /**
+     * @return the summary line: file counts, elapsed time and throughput
+     */
+    public String summary() {
+        double seconds = nanos / 1e9;
+        double megabytes = totalBytes() / (1024.0 * 1024.0);
+        return String.format("%d files, %d failed, %.1f MB in %.2f s (%.1f MB/s, %.1f files/s)",
+                results.size(), failures(), megabytes, seconds,
+                seconds > 0 ? megabytes / seconds : 0, seconds > 0 ? results.size() / seconds : 0);
+    }
+}
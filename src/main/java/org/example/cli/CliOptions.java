@@ -0,0 +1,69 @@
+package org.example.cli;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Command line arguments split into positional arguments and {@code --name[=value]} options.
+ */
+public class CliOptions {
+
+    private final List<String> positional = new ArrayList<>();
+    private final Map<String, String> options = new HashMap<>();
+
+    private CliOptions() {
+    }
+
+    public static CliOptions parse(String[] args) {
+        CliOptions result = new CliOptions();
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.length() > 2) {
+                int eq = arg.indexOf('=');
+                if (eq < 0) {
+                    result.options.put(arg.substring(2), "");
+                } else {
+                    result.options.put(arg.substring(2, eq), arg.substring(eq + 1));
+                }
+            } else {
+                result.positional.add(arg);
+            }
+        }
+        return result;
+    }
+
+    public List<String> positional() {
+        return positional;
+    }
+
+    public boolean has(String name) {
+        return options.containsKey(name);
+    }
+
+    public String get(String name, String defaultValue) {
+        String value = options.get(name);
+        return value == null || value.isEmpty() ? defaultValue : value;
+    }
+
+    /**
+     * Returns a positive integer option.
+     *
+     * @throws IllegalArgumentException if the value is not a positive integer
+     */
+    public int getInt(String name, int defaultValue) {
+        String value = options.get(name);
+        if (value == null || value.isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            int parsed = Integer.parseInt(value);
+            if (parsed > 0) {
+                return parsed;
+            }
+        } catch (NumberFormatException ignored) {
+            // reported below
+        }
+        throw new IllegalArgumentException("Option --" + name + " expects a positive integer, got '" + value + "'");
+    }
+}
@@ -1,52 +1,329 @@
 package org.example.cli;
 
+import org.example.batch.BatchFileResult;
+import org.example.batch.BatchProcessor;
+import org.example.batch.BatchReport;
+import org.example.expressions.cache.EvictionPolicy;
+import org.example.expressions.cache.ExpressionCache;
+import org.example.expressions.core.NumericBackend;
+import org.example.expressions.factory.AdaptiveExpressionProcessorFactory;
 import org.example.expressions.factory.ExpressionProcessorFactory;
 import org.example.expressions.factory.ManualExpressionProcessorFactory;
 import org.example.expressions.factory.RegexExpressionProcessorFactory;
+import org.example.expressions.metrics.ExpressionMetrics;
+import org.example.expressions.metrics.InstrumentedExpressionProcessor;
+import org.example.expressions.metrics.MetricsReporter;
+import org.example.formats.StructuredTextProcessor;
+import org.example.formats.TextFormat;
+import org.example.io.ChannelFileWriter;
+import org.example.io.Compression;
+import org.example.io.FileEncryption;
+import org.example.io.MappedFileReader;
 import org.example.io.SimpleFileReader;
 import org.example.io.SimpleFileWriter;
+import org.example.expressions.processors.EvaluationPlan;
 import org.example.expressions.processors.ExpressionProcessor;
+import org.example.expressions.processors.ParallelExpressionProcessor;
+import org.example.expressions.processors.StreamingExpressionProcessor;
+import org.example.server.ExpressionClient;
+import org.example.server.ExpressionServer;
+import org.example.server.ServerProtocol;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.util.Map;
 
 public class Main {
 
     private static final int EXPECTED_ARGUMENT_COUNT = 3;
+    private static final int DEFAULT_WARMUP_ITERATIONS = 5_000;
+    private static final int DEFAULT_METRICS_PERIOD_SECONDS = 10;
 
     public static void main(String[] args) {
-        if (args.length != EXPECTED_ARGUMENT_COUNT) {
+        CliOptions options = CliOptions.parse(args);
+        if (options.has("serve") && options.positional().isEmpty()) {
+            try {
+                runServer(options);
+            } catch (Exception e) {
+                System.err.println("Error: " + e.getMessage());
+                e.printStackTrace();
+            }
+            return;
+        }
+        if (options.positional().size() != EXPECTED_ARGUMENT_COUNT) {
             System.out.println("""
-                Usage: java -jar procedural.jar <inputFile> <outputFile> <mode>
+                Usage: java -jar procedural.jar <inputFile> <outputFile> <mode> [options]
+                       java -jar procedural.jar <inputs> <outputDir> <mode> --batch [options]
+                       java -jar procedural.jar --serve=<address> [options]
                 Modes:
                   manual  - implementation without RegEx
                   regex   - implementation with RegEx
+                  auto    - picks manual or regex for every chunk from a quick profile of its text
+                Options:
+                  --cache=<size>             cache up to <size> evaluated expressions
+                  --cache-policy=<lru|lfu>   cache eviction policy (default: lru)
+                  --parallel[=<threads>]     process segments of the file on a fork-join pool
+                                             (default: number of available processors)
+                  --batch                    process many files: <inputs> is a directory, a glob
+                                             or @manifest listing one input file per line
+                  --max-in-flight=<n>        files processed at once in batch mode (default: 64)
+                  --mmap                     memory-map the input file and write through a file channel
+                  --serve=<address>          run as a server answering requests for all modes on
+                                             <port>, <host>:<port> or unix:<socket-path>
+                  --warmup=<n>               runs per mode over a sample text before serving (default: 5000)
+                  --server=<address>         send the file to a running server instead of processing it here
+                  --metrics[=<seconds>]      record latency, error and size metrics, publish them through JMX
+                                             and print a snapshot to stderr periodically (default: 10)
+                  --numeric=<backend>        compute with double (default), long (exact integers,
+                                             double otherwise), decimal (34 digits) or decimal:<digits>
+                  --share-subexpressions     evaluate identical sub-expressions of a document once
+                                             (manual and auto modes) and report the evaluations saved;
+                                             currently slower than evaluating every occurrence
+                  --compress=<codec>         compress the output file with none, gzip or pgzip (gzip
+                                             compressed on all cores); default: gzip for *.gz outputs.
+                                             *.gz inputs are always decompressed on the fly
+                  --format=<format>          process only the text of a plain, json, xml, html or yaml
+                                             document (default: chosen from the input file extension)
+                  --decrypt, --encrypt       decrypt the input or encrypt the output file with AES-GCM
+                                             (default: for *.enc files, e.g. data.txt.gz.enc)
+                  --key-env=<variable>       environment variable with the Base64 AES key
+                                             (default: EXPRESSION_KEY)
+                  --keystore=<file>          take the key from a PKCS12 or JKS keystore instead; its
+                                             password is read from EXPRESSION_KEYSTORE_PASSWORD
+                  --key-alias=<alias>        alias of the key in the keystore (default: expressions)
                 """);
             return;
         }
 
-        String inputPath = args[0];
-        String outputPath = args[1];
-        String mode = args[2];
+        String inputPath = options.positional().get(0);
+        String outputPath = options.positional().get(1);
+        String mode = options.positional().get(2);
 
         ExpressionProcessorFactory factory;
 
         switch (mode.toLowerCase()) {
             case "manual" -> factory = new ManualExpressionProcessorFactory();
             case "regex"  -> factory = new RegexExpressionProcessorFactory();
+            case "auto"   -> factory = new AdaptiveExpressionProcessorFactory();
             default -> {
                 System.err.println("Unknown mode: " + mode);
                 return;
             }
         }
 
-        ExpressionProcessor processor = factory.createProcessor();
-
         try {
-            String content = SimpleFileReader.read(inputPath);
-            String result = processor.process(content);
-            SimpleFileWriter.write(outputPath, result);
-            System.out.println("File processed using mode '" + mode + "'");
+            if (options.has("server")) {
+                long elapsed = processRemote(options.get("server", ""), inputPath, outputPath, mode);
+                System.out.println("File processed using mode '" + mode + "' by server in " + elapsed + " ms");
+                return;
+            }
+
+            ExpressionCache cache = createCache(options);
+            ExpressionMetrics metrics = createMetrics(options, cache);
+            EvaluationPlan.Savings planSavings = options.has("share-subexpressions") ? new EvaluationPlan.Savings() : null;
+            factory.withCache(cache).withMetrics(metrics).withNumericBackend(numericBackend(options))
+                    .withEvaluationPlan(planSavings);
+
+            MetricsReporter reporter = startReporter(options, metrics);
+            try {
+                if (options.has("batch")) {
+                    processBatch(factory, inputPath, outputPath, options, metrics);
+                } else {
+                    processFile(factory, inputPath, outputPath, options, metrics);
+                    System.out.println("File processed using mode '" + mode + "'");
+                }
+            } finally {
+                if (reporter != null) {
+                    reporter.close();
+                }
+            }
+            if (planSavings != null) {
+                System.out.println("Shared sub-expressions: " + planSavings);
+            }
+            if (factory instanceof AdaptiveExpressionProcessorFactory adaptive) {
+                System.out.println("Auto mode chose: " + adaptive.choices());
+            }
+            if (cache != null) {
+                System.out.println("Cache: " + cache);
+            }
         } catch (Exception e) {
             System.err.println("Error: " + e.getMessage());
             e.printStackTrace();
         }
     }
+
+    private static ExpressionCache createCache(CliOptions options) {
+        if (!options.has("cache")) {
+            return null;
+        }
+        EvictionPolicy policy = EvictionPolicy.valueOf(options.get("cache-policy", "lru").toUpperCase());
+        return ExpressionCache.create(options.getInt("cache", 10_000), policy);
+    }
+
+    private static NumericBackend numericBackend(CliOptions options) {
+        return NumericBackend.parse(options.get("numeric", "double"));
+    }
+
+    private static Compression outputCompression(CliOptions options, String outputPath) {
+        return options.has("compress") ? Compression.parse(options.get("compress", "gzip"))
+                : Compression.forPath(outputPath);
+    }
+
+    /**
+     * Loads the key if the input is decrypted or the output is encrypted.
+     *
+     * @return null if neither file is encrypted
+     */
+    private static FileEncryption fileEncryption(CliOptions options, boolean decryptInput, boolean encryptOutput)
+            throws IOException {
+        if (!decryptInput && !encryptOutput) {
+            return null;
+        }
+        if (options.has("keystore")) {
+            return FileEncryption.fromKeyStore(Path.of(options.get("keystore", "")),
+                    options.get("key-alias", FileEncryption.DEFAULT_KEY_ALIAS));
+        }
+        return FileEncryption.fromEnvironment(options.get("key-env", FileEncryption.DEFAULT_KEY_VARIABLE));
+    }
+
+    private static ExpressionMetrics createMetrics(CliOptions options, ExpressionCache cache) {
+        if (!options.has("metrics")) {
+            return null;
+        }
+        ExpressionMetrics metrics = new ExpressionMetrics().withCache(cache);
+        metrics.register();
+        return metrics;
+    }
+
+    private static MetricsReporter startReporter(CliOptions options, ExpressionMetrics metrics) {
+        return metrics == null ? null
+                : MetricsReporter.start(metrics, System.err, options.getInt("metrics", DEFAULT_METRICS_PERIOD_SECONDS));
+    }
+
+    private static ExpressionProcessor instrument(ExpressionProcessor processor, ExpressionMetrics metrics) {
+        return metrics == null ? processor : new InstrumentedExpressionProcessor(processor, metrics);
+    }
+
+    /**
+     * Starts the server with a concurrent processor per mode and blocks until the JVM is stopped.
+     */
+    private static void runServer(CliOptions options) throws IOException, InterruptedException {
+        ExpressionCache cache = createCache(options);
+        ExpressionMetrics metrics = createMetrics(options, cache);
+        NumericBackend backend = numericBackend(options);
+        Map<String, ExpressionProcessor> processors = Map.of(
+                "manual", instrument(new ManualExpressionProcessorFactory().withCache(cache).withMetrics(metrics)
+                        .withNumericBackend(backend).createConcurrentProcessor(), metrics),
+                "regex", instrument(new RegexExpressionProcessorFactory().withCache(cache).withMetrics(metrics)
+                        .withNumericBackend(backend).createConcurrentProcessor(), metrics),
+                "auto", instrument(new AdaptiveExpressionProcessorFactory().withCache(cache).withMetrics(metrics)
+                        .withNumericBackend(backend).createConcurrentProcessor(), metrics));
+        ExpressionServer.warmUp(processors, options.getInt("warmup", DEFAULT_WARMUP_ITERATIONS));
+        if (metrics != null) {
+            metrics.reset();
+        }
+        MetricsReporter reporter = startReporter(options, metrics);
+
+        ExpressionServer server = ExpressionServer.start(ServerProtocol.parseAddress(options.get("serve", "")), processors);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                server.close();
+            } catch (IOException e) {
+                System.err.println("Error: " + e.getMessage());
+            }
+            System.out.println("Server stopped after " + server.requestCount() + " requests");
+            if (reporter != null) {
+                reporter.close();
+            }
+            if (cache != null) {
+                System.out.println("Cache: " + cache);
+            }
+        }));
+        System.out.println("Server listening on " + server.localAddress()
+                + " (ready " + ManagementFactory.getRuntimeMXBean().getUptime() + " ms after JVM start)");
+        server.awaitClose();
+    }
+
+    /**
+     * Sends the file to a running server and writes the response.
+     *
+     * @return the round-trip time of the request in milliseconds
+     */
+    private static long processRemote(String address, String inputPath, String outputPath, String mode)
+            throws IOException {
+        String content = SimpleFileReader.read(inputPath);
+        try (ExpressionClient client = ExpressionClient.connect(ServerProtocol.parseAddress(address))) {
+            long start = System.nanoTime();
+            String result = client.process(mode, content);
+            long elapsed = (System.nanoTime() - start) / 1_000_000;
+            SimpleFileWriter.write(outputPath, result);
+            return elapsed;
+        }
+    }
+
+    private static void processFile(ExpressionProcessorFactory factory, String inputPath, String outputPath,
+                                    CliOptions options, ExpressionMetrics metrics) throws IOException {
+        ExpressionProcessor processor = instrument(factory.createProcessor(), metrics);
+        ParallelExpressionProcessor parallelProcessor = null;
+        int chunkSize = StreamingExpressionProcessor.DEFAULT_CHUNK_SIZE;
+        if (options.has("parallel")) {
+            int threads = options.getInt("parallel", Runtime.getRuntime().availableProcessors());
+            parallelProcessor = new ParallelExpressionProcessor(processor, threads);
+            processor = parallelProcessor;
+            chunkSize = Math.max(chunkSize, threads * ParallelExpressionProcessor.DEFAULT_SEGMENT_SIZE);
+        }
+        StreamingExpressionProcessor streamingProcessor = new StreamingExpressionProcessor(processor,
+                chunkSize, Math.max(chunkSize, StreamingExpressionProcessor.DEFAULT_MAX_CHUNK_SIZE));
+
+        try {
+            boolean decryptInput = options.has("decrypt") || FileEncryption.isEncrypted(inputPath);
+            boolean encryptOutput = options.has("encrypt") || FileEncryption.isEncrypted(outputPath);
+            FileEncryption encryption = fileEncryption(options, decryptInput, encryptOutput);
+            String inputName = FileEncryption.stripSuffix(inputPath);
+            Compression inputCompression = Compression.forPath(inputName);
+            Compression outputCompression = outputCompression(options, FileEncryption.stripSuffix(outputPath));
+            TextFormat format = options.has("format") ? TextFormat.parse(options.get("format", "plain"))
+                    : TextFormat.forPath(inputName);
+            if (format != TextFormat.PLAIN) {
+                try (Reader reader = SimpleFileReader.openReader(inputPath, inputCompression,
+                        decryptInput ? encryption : null);
+                     Writer writer = SimpleFileWriter.openWriter(outputPath, outputCompression,
+                             encryptOutput ? encryption : null)) {
+                    new StructuredTextProcessor(processor, format).process(reader, writer);
+                }
+            } else if (options.has("mmap") && encryption == null && inputCompression == Compression.NONE
+                    && outputCompression == Compression.NONE) {
+                CharSequence content = MappedFileReader.map(inputPath);
+                try (Writer writer = ChannelFileWriter.open(outputPath)) {
+                    streamingProcessor.process(content, writer);
+                }
+            } else {
+                try (Reader reader = SimpleFileReader.openReader(inputPath, inputCompression,
+                        decryptInput ? encryption : null);
+                     Writer writer = SimpleFileWriter.openWriter(outputPath, outputCompression,
+                             encryptOutput ? encryption : null)) {
+                    streamingProcessor.process(reader, writer);
+                }
+            }
+        } finally {
+            if (parallelProcessor != null) {
+                parallelProcessor.close();
+            }
+        }
+    }
+
+    private static void processBatch(ExpressionProcessorFactory factory, String inputs, String outputDir,
+                                     CliOptions options, ExpressionMetrics metrics) throws IOException {
+        int maxInFlight = options.getInt("max-in-flight", BatchProcessor.DEFAULT_MAX_IN_FLIGHT);
+        BatchProcessor batch = new BatchProcessor(instrument(factory.createProcessor(), metrics), maxInFlight);
+
+        BatchReport report = batch.process(inputs, Path.of(outputDir));
+        for (BatchFileResult result : report.results()) {
+            System.out.println(result);
+        }
+        System.out.println("Batch: " + report.summary());
+    }
 }
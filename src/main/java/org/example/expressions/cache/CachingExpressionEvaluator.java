@@ -0,0 +1,81 @@
+package org.example.expressions.cache;
+
+import org.example.expressions.core.CompiledExpression;
+import org.example.expressions.core.EvaluationException;
+import org.example.expressions.core.ExpressionEvaluator;
+import org.example.expressions.core.MathUtils;
+import org.example.expressions.core.TokenStream;
+
+/**
+ * Evaluator that answers repeated expressions from an {@link ExpressionCache}
+ * and delegates the rest to another evaluator.
+ */
+public class CachingExpressionEvaluator extends ExpressionEvaluator {
+
+    private final ExpressionEvaluator delegate;
+    private final ExpressionCache cache;
+
+    public CachingExpressionEvaluator(ExpressionEvaluator delegate, ExpressionCache cache) {
+        this.delegate = delegate;
+        this.cache = cache;
+    }
+
+    /**
+     * Returns the cached result for the expression, evaluating and caching it on a miss.
+     *
+     * @param expr The arithmetic expression to evaluate.
+     * @return The result of the evaluation as a string, or an error message if evaluation fails.
+     */
+    @Override
+    public String evalExpression(String expr) {
+        String key = ExpressionCache.normalize(expr);
+        String result = cache.get(key);
+        if (result == null) {
+            result = delegate.evalExpression(expr);
+            cache.put(key, result);
+        }
+        return result;
+    }
+
+    /**
+     * Appends the cached result for the expression in {@code text[start, end)},
+     * evaluating it in place and caching the appended text on a miss.
+     */
+    @Override
+    public void evalExpression(CharSequence text, int start, int end, StringBuilder out) {
+        String key = MathUtils.stripWhitespace(text, start, end);
+        String result = cache.get(key);
+        if (result != null) {
+            out.append(result);
+            return;
+        }
+        int mark = out.length();
+        delegate.evalExpression(text, start, end, out);
+        cache.put(key, out.substring(mark));
+    }
+
+    /**
+     * Appends the cached result for the tokenized expression, evaluating the tokens on a miss.
+     */
+    @Override
+    public void evalExpression(TokenStream tokens, StringBuilder out) {
+        String key = MathUtils.stripWhitespace(tokens.source(), tokens.sourceStart(), tokens.sourceEnd());
+        String result = cache.get(key);
+        if (result != null) {
+            out.append(result);
+            return;
+        }
+        int mark = out.length();
+        delegate.evalExpression(tokens, out);
+        cache.put(key, out.substring(mark));
+    }
+
+    @Override
+    public CompiledExpression compile(String expr) throws EvaluationException {
+        return delegate.compile(expr);
+    }
+
+    public ExpressionCache cache() {
+        return cache;
+    }
+}
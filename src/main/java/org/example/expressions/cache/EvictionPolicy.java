@@ -0,0 +1,11 @@
+package org.example.expressions.cache;
+
+/**
+ * Policy deciding which entry an {@link ExpressionCache} drops when it is full.
+ */
+public enum EvictionPolicy {
+    /** Drops the entry that was used least recently. */
+    LRU,
+    /** Drops the entry that was used least often; ties are broken by age. */
+    LFU
+}
@@ -0,0 +1,135 @@
+package org.example.expressions.cache;
+
+/**
+ * Size-bounded, thread-safe cache of evaluated expressions.
+ * <p>
+ * Keys are expression texts normalized by {@link #normalize(String)}, values are the formatted
+ * results (or error markers) returned by the evaluator. Subclasses implement the storage and the
+ * eviction policy; this class keeps the hit, miss and eviction counters and serializes access,
+ * so one instance can be shared by processors running on different threads.
+ * </p>
+ */
+public abstract class ExpressionCache {
+
+    private final int maxSize;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    protected ExpressionCache(int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Cache size must be positive: " + maxSize);
+        }
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Creates a cache with the given capacity and eviction policy.
+     *
+     * @param maxSize maximum number of cached expressions
+     * @param policy  which entry to drop when the cache is full
+     * @return a new empty cache
+     */
+    public static ExpressionCache create(int maxSize, EvictionPolicy policy) {
+        return switch (policy) {
+            case LRU -> new LruExpressionCache(maxSize);
+            case LFU -> new LfuExpressionCache(maxSize);
+        };
+    }
+
+    /**
+     * Normalizes an expression into a cache key by removing all whitespace.
+     * The tokenizer ignores whitespace entirely, so texts with the same key always evaluate the same.
+     *
+     * @param expr the expression text
+     * @return the expression without whitespace
+     */
+    public static String normalize(String expr) {
+        for (int i = 0; i < expr.length(); i++) {
+            if (Character.isWhitespace(expr.charAt(i))) {
+                StringBuilder sb = new StringBuilder(expr.length());
+                sb.append(expr, 0, i);
+                for (int j = i + 1; j < expr.length(); j++) {
+                    char c = expr.charAt(j);
+                    if (!Character.isWhitespace(c)) {
+                        sb.append(c);
+                    }
+                }
+                return sb.toString();
+            }
+        }
+        return expr;
+    }
+
+    /**
+     * Returns the cached result for a normalized key and records a hit or a miss.
+     *
+     * @param key normalized expression text
+     * @return the cached result, or {@code null} if the key is not cached
+     */
+    public synchronized String get(String key) {
+        String value = lookup(key);
+        if (value != null) {
+            hits++;
+        } else {
+            misses++;
+        }
+        return value;
+    }
+
+    /**
+     * Stores a result, evicting another entry if the cache is full.
+     *
+     * @param key   normalized expression text
+     * @param value the evaluation result
+     */
+    public synchronized void put(String key, String value) {
+        if (store(key, value, maxSize)) {
+            evictions++;
+        }
+    }
+
+    public synchronized long hits() {
+        return hits;
+    }
+
+    public synchronized long misses() {
+        return misses;
+    }
+
+    public synchronized long evictions() {
+        return evictions;
+    }
+
+    public synchronized int size() {
+        return entryCount();
+    }
+
+    public int maxSize() {
+        return maxSize;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "hits=" + hits + ", misses=" + misses + ", evictions=" + evictions
+                + ", size=" + entryCount() + "/" + maxSize;
+    }
+
+    /**
+     * Looks up a key and updates its recency or frequency. Called with the cache lock held.
+     */
+    protected abstract String lookup(String key);
+
+    /**
+     * Stores a key, evicting an entry if the size would exceed {@code maxSize}.
+     * Called with the cache lock held.
+     *
+     * @return {@code true} if an entry was evicted
+     */
+    protected abstract boolean store(String key, String value, int maxSize);
+
+    /**
+     * @return the number of stored entries. Called with the cache lock held.
+     */
+    protected abstract int entryCount();
+}
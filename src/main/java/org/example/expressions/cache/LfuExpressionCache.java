@@ -0,0 +1,88 @@
+package org.example.expressions.cache;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+
+/**
+ * Expression cache that evicts the least frequently used entry, oldest first among equals.
+ * <p>
+ * Keys are grouped into insertion-ordered buckets by use count, and the lowest non-empty
+ * count is tracked, so lookups, stores and evictions all take constant time.
+ * </p>
+ */
+public class LfuExpressionCache extends ExpressionCache {
+
+    private final Map<String, Entry> entries = new HashMap<>();
+    private final Map<Integer, LinkedHashSet<String>> buckets = new HashMap<>();
+    private int minFrequency;
+
+    public LfuExpressionCache(int maxSize) {
+        super(maxSize);
+    }
+
+    @Override
+    protected String lookup(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        touch(key, entry);
+        return entry.value;
+    }
+
+    @Override
+    protected boolean store(String key, String value, int maxSize) {
+        Entry existing = entries.get(key);
+        if (existing != null) {
+            existing.value = value;
+            touch(key, existing);
+            return false;
+        }
+
+        boolean evicted = false;
+        if (entries.size() >= maxSize) {
+            LinkedHashSet<String> bucket = buckets.get(minFrequency);
+            Iterator<String> oldest = bucket.iterator();
+            String victim = oldest.next();
+            oldest.remove();
+            if (bucket.isEmpty()) {
+                buckets.remove(minFrequency);
+            }
+            entries.remove(victim);
+            evicted = true;
+        }
+        entries.put(key, new Entry(value));
+        buckets.computeIfAbsent(1, f -> new LinkedHashSet<>()).add(key);
+        minFrequency = 1;
+        return evicted;
+    }
+
+    @Override
+    protected int entryCount() {
+        return entries.size();
+    }
+
+    private void touch(String key, Entry entry) {
+        LinkedHashSet<String> bucket = buckets.get(entry.frequency);
+        bucket.remove(key);
+        if (bucket.isEmpty()) {
+            buckets.remove(entry.frequency);
+            if (entry.frequency == minFrequency) {
+                minFrequency++;
+            }
+        }
+        entry.frequency++;
+        buckets.computeIfAbsent(entry.frequency, f -> new LinkedHashSet<>()).add(key);
+    }
+
+    private static final class Entry {
+        private String value;
+        private int frequency = 1;
+
+        private Entry(String value) {
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package org.example.expressions.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Expression cache that evicts the least recently used entry.
+ */
+public class LruExpressionCache extends ExpressionCache {
+
+    private final LinkedHashMap<String, String> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    public LruExpressionCache(int maxSize) {
+        super(maxSize);
+    }
+
+    @Override
+    protected String lookup(String key) {
+        return entries.get(key);
+    }
+
+    @Override
+    protected boolean store(String key, String value, int maxSize) {
+        entries.put(key, value);
+        if (entries.size() <= maxSize) {
+            return false;
+        }
+        Iterator<Map.Entry<String, String>> eldest = entries.entrySet().iterator();
+        eldest.next();
+        eldest.remove();
+        return true;
+    }
+
+    @Override
+    protected int entryCount() {
+        return entries.size();
+    }
+}
@@ -0,0 +1,66 @@
+package org.example.expressions.core;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Evaluates many expressions in one call into a {@code double[]}, for callers that need the values
+ * rather than formatted strings.
+ * <p>
+ * Each expression is scanned and reduced by the same code as {@link FusedExpressionEvaluator} on one
+ * reused stack, so a batch allocates nothing beyond what the caller passes in. Instead of an
+ * {@code [ERROR: ...]} string per failed expression, failures are reported in an error bitmap parallel
+ * to the results. For one expression shape evaluated over many values, compile an
+ * {@link ExpressionTemplate} and evaluate it over columns instead.
+ * </p>
+ * <p>
+ * Values are computed with primitive doubles. The methods are thread-safe.
+ * </p>
+ */
+public final class BulkEvaluator {
+
+    private BulkEvaluator() {
+    }
+
+    /**
+     * Evaluates every expression of an array.
+     *
+     * @see #evaluate(List, double[], BitSet)
+     */
+    public static void evaluate(CharSequence[] expressions, double[] results, BitSet errors) {
+        evaluate(Arrays.asList(expressions), results, errors);
+    }
+
+    /**
+     * Evaluates every expression of a list.
+     * <p>
+     * The result of expression {@code i} is stored in {@code results[i]}. If the expression is invalid
+     * or divides by zero, bit {@code i} of {@code errors} is set and the result is {@code NaN}. Bits of
+     * the other expressions are cleared.
+     * </p>
+     *
+     * @param expressions the expressions
+     * @param results     receives one result per expression
+     * @param errors      receives the indexes of the expressions that failed
+     * @throws IllegalArgumentException if {@code results} is shorter than the list
+     */
+    public static void evaluate(List<? extends CharSequence> expressions, double[] results, BitSet errors) {
+        int count = expressions.size();
+        if (results.length < count) {
+            throw new IllegalArgumentException("Results array of " + results.length + " for " + count + " expressions");
+        }
+        errors.clear(0, count);
+        DoubleReductionStack stack = new DoubleReductionStack();
+        for (int i = 0; i < count; i++) {
+            CharSequence expression = expressions.get(i);
+            stack.reset();
+            if (FusedExpressionEvaluator.scan(expression, 0, expression.length(), stack) < 0 && stack.complete()) {
+                results[i] = stack.result();
+            } else {
+                results[i] = Double.NaN;
+                errors.set(i);
+            }
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package org.example.expressions.core;
+
+import java.util.List;
+
+/**
+ * An arithmetic expression compiled once into a flat opcode array with primitive constants.
+ * <p>
+ * The program is a postfix sequence: {@code PUSH} loads the next constant, the arithmetic
+ * opcodes pop two operands and push the result. Evaluation runs on a {@code double[]} stack,
+ * so it neither boxes operands nor re-parses numbers, and {@link #evaluate()} allocates nothing
+ * unless it has to report an error.
+ * </p>
+ * <p>
+ * Errors are detected while evaluating, in the same order and with the same messages as
+ * the postfix evaluation they replace. Instances are not thread-safe because {@link #evaluate()}
+ * reuses an internal stack; use {@link #evaluate(double[])} to share one across threads.
+ * </p>
+ */
+public final class CompiledExpression {
+
+    static final byte PUSH = 0;
+    static final byte ADD = 1;
+    static final byte SUBTRACT = 2;
+    static final byte MULTIPLY = 3;
+    static final byte DIVIDE = 4;
+
+    private final byte[] code;
+    private final double[] constants;
+    private final double[] stack;
+
+    private CompiledExpression(byte[] code, double[] constants) {
+        this.code = code;
+        this.constants = constants;
+        this.stack = new double[constants.length];
+    }
+
+    /**
+     * Compiles a postfix (RPN) token list into opcodes.
+     *
+     * @param postfix the RPN tokens produced by {@link ExpressionConverter}
+     * @return the compiled expression
+     * @throws EvaluationException if a token is neither a number nor an operator
+     */
+    static CompiledExpression fromPostfix(List<String> postfix) throws EvaluationException {
+        byte[] code = new byte[postfix.size()];
+        double[] constants = new double[postfix.size()];
+        int constantCount = 0;
+
+        for (int i = 0; i < code.length; i++) {
+            String token = postfix.get(i);
+            if (MathUtils.isNumber(token)) {
+                code[i] = PUSH;
+                constants[constantCount++] = Double.parseDouble(token);
+            } else {
+                code[i] = switch (token) {
+                    case "+" -> ADD;
+                    case "-" -> SUBTRACT;
+                    case "*" -> MULTIPLY;
+                    case "/" -> DIVIDE;
+                    default -> throw new EvaluationException("Unknown operator");
+                };
+            }
+        }
+        double[] trimmed = new double[constantCount];
+        System.arraycopy(constants, 0, trimmed, 0, constantCount);
+        return new CompiledExpression(code, trimmed);
+    }
+
+    /**
+     * Evaluates the expression using the internal stack.
+     *
+     * @return the evaluated result
+     * @throws EvaluationException if the expression is invalid or divides by zero
+     */
+    public double evaluate() throws EvaluationException {
+        return evaluate(stack);
+    }
+
+    /**
+     * Evaluates the expression using a caller-supplied stack.
+     *
+     * @param stack scratch stack of at least {@link #stackSize()} elements
+     * @return the evaluated result
+     * @throws EvaluationException if the expression is invalid or divides by zero
+     */
+    public double evaluate(double[] stack) throws EvaluationException {
+        int sp = 0;
+        int constant = 0;
+        for (byte op : code) {
+            if (op == PUSH) {
+                stack[sp++] = constants[constant++];
+                continue;
+            }
+            if (sp < 2) {
+                throw new EvaluationException("Invalid expression");
+            }
+            double b = stack[--sp];
+            double a = stack[--sp];
+            stack[sp++] = switch (op) {
+                case ADD -> a + b;
+                case SUBTRACT -> a - b;
+                case MULTIPLY -> a * b;
+                case DIVIDE -> {
+                    if (b == 0) {
+                        throw new EvaluationException("Division by zero");
+                    }
+                    yield a / b;
+                }
+                default -> throw new EvaluationException("Unknown operator");
+            };
+        }
+        if (sp != 1) {
+            throw new EvaluationException("Invalid expression");
+        }
+        return stack[0];
+    }
+
+    /**
+     * @return the number of stack slots {@link #evaluate(double[])} needs
+     */
+    public int stackSize() {
+        return constants.length;
+    }
+}
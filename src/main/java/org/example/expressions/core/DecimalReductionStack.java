@@ -0,0 +1,88 @@
+package org.example.expressions.core;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.Arrays;
+
+/**
+ * Reduction stack computing with {@link BigDecimal}s rounded to a {@link MathContext}.
+ * <p>
+ * Numbers are taken exactly as written; every operation rounds its result to the context.
+ * With {@link MathContext#UNLIMITED} a division without a terminating decimal expansion is
+ * reported as an error. Results are formatted without exponent and without trailing zeros.
+ * </p>
+ */
+final class DecimalReductionStack extends NumericReductionStack {
+
+    private final MathContext context;
+    private BigDecimal[] operands = new BigDecimal[8];
+    private int operandCount;
+    private BigDecimal parsed;
+
+    DecimalReductionStack(MathContext context) {
+        this.context = context;
+    }
+
+    @Override
+    void clearOperands() {
+        Arrays.fill(operands, 0, operandCount, null);
+        operandCount = 0;
+    }
+
+    @Override
+    boolean parseNumber(CharSequence text, int start, int end) {
+        double value = MathUtils.parseNumber(text, start, end);
+        if (Double.isNaN(value)) {
+            return false;
+        }
+        try {
+            parsed = new BigDecimal(MathUtils.stripWhitespace(text, start, end));
+        } catch (NumberFormatException e) {
+            // accepted by the tokenizer but not by BigDecimal (e.g. non-ASCII digits)
+            parsed = new BigDecimal(value, context);
+        }
+        return true;
+    }
+
+    @Override
+    void pushParsed() {
+        if (operandCount == operands.length) {
+            operands = Arrays.copyOf(operands, operandCount * 2);
+        }
+        operands[operandCount++] = parsed;
+    }
+
+    @Override
+    int operandCount() {
+        return operandCount;
+    }
+
+    @Override
+    String combine(byte operator) {
+        BigDecimal b = operands[--operandCount];
+        BigDecimal a = operands[--operandCount];
+        BigDecimal result;
+        switch (operator) {
+            case CompiledExpression.ADD -> result = a.add(b, context);
+            case CompiledExpression.SUBTRACT -> result = a.subtract(b, context);
+            case CompiledExpression.MULTIPLY -> result = a.multiply(b, context);
+            default -> {
+                if (b.signum() == 0) {
+                    return "Division by zero";
+                }
+                try {
+                    result = a.divide(b, context);
+                } catch (ArithmeticException e) {
+                    return e.getMessage();
+                }
+            }
+        }
+        operands[operandCount++] = result;
+        return null;
+    }
+
+    @Override
+    void appendResult(StringBuilder out) {
+        out.append(operands[0].stripTrailingZeros().toPlainString());
+    }
+}
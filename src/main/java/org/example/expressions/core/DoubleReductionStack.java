@@ -0,0 +1,75 @@
+package org.example.expressions.core;
+
+import java.util.Arrays;
+
+/**
+ * Reduction stack computing with primitive {@code double}s, the default {@link NumericBackend}.
+ */
+final class DoubleReductionStack extends NumericReductionStack {
+
+    private double[] operands = new double[8];
+    private int operandCount;
+    private double parsed;
+
+    @Override
+    void clearOperands() {
+        operandCount = 0;
+    }
+
+    @Override
+    boolean parseNumber(CharSequence text, int start, int end) {
+        parsed = MathUtils.parseNumber(text, start, end);
+        return !Double.isNaN(parsed);
+    }
+
+    @Override
+    boolean parseNumber(TokenStream tokens, int i) {
+        parsed = tokens.value(i);
+        return !Double.isNaN(parsed);
+    }
+
+    @Override
+    void pushParsed() {
+        if (operandCount == operands.length) {
+            operands = Arrays.copyOf(operands, operandCount * 2);
+        }
+        operands[operandCount++] = parsed;
+    }
+
+    @Override
+    int operandCount() {
+        return operandCount;
+    }
+
+    @Override
+    String combine(byte operator) {
+        double b = operands[--operandCount];
+        double a = operands[--operandCount];
+        double result;
+        switch (operator) {
+            case CompiledExpression.ADD -> result = a + b;
+            case CompiledExpression.SUBTRACT -> result = a - b;
+            case CompiledExpression.MULTIPLY -> result = a * b;
+            default -> {
+                if (b == 0) {
+                    return "Division by zero";
+                }
+                result = a / b;
+            }
+        }
+        operands[operandCount++] = result;
+        return null;
+    }
+
+    /**
+     * @return the single remaining operand
+     */
+    double result() {
+        return operands[0];
+    }
+
+    @Override
+    void appendResult(StringBuilder out) {
+        MathUtils.appendDouble(out, operands[0]);
+    }
+}
@@ -1,9 +1,15 @@
 package org.example.expressions.core;
 
-import java.util.ArrayDeque;
-import java.util.Deque;
 import java.util.List;
 
+/**
+ * Evaluates arithmetic expressions by tokenizing them, converting them to postfix notation
+ * and evaluating the compiled postfix form.
+ * <p>
+ * Evaluators are thread-safe: they hold only their (stateless) parser and converter,
+ * so one instance may be shared by several threads.
+ * </p>
+ */
 public class ExpressionEvaluator {
     private final ExpressionParser parser;
     private final ExpressionConverter converter;
@@ -13,11 +19,19 @@ public class ExpressionEvaluator {
         this.converter = converter;
     }
 
+    /**
+     * Creates an evaluator without a parser and converter, for subclasses that wrap another evaluator
+     * and override every {@code evalExpression} method and {@link #compile(String)}.
+     */
+    protected ExpressionEvaluator() {
+        this(null, null);
+    }
+
     /**
      * Safely evaluates an arithmetic expression and returns the formatted result.
      * <p>
      * This method first tokenizes the expression, converts it to postfix notation,
-     * and then evaluates the postfix expression. The result is formatted into a string.
+     * compiles it and then evaluates the compiled form. The result is formatted into a string.
      * If an error occurs during tokenization, conversion, or evaluation
      * (e.g., invalid syntax or division by zero), an error message is returned instead of throwing an exception.
      * </p>
@@ -27,9 +41,7 @@ public class ExpressionEvaluator {
      */
     public String evalExpression(String expr) {
         try {
-            List<String> tokens = parser.tokenize(expr);
-            List<String> postfix = converter.infixToPostfix(tokens);
-            double value = evaluatePostfix(postfix);
+            double value = compile(expr).evaluate();
             return MathUtils.formatDouble(value);
         } catch (EvaluationException | ArithmeticException ex) {
             return "[ERROR: " + ex.getMessage() + "]";
@@ -37,43 +49,51 @@ public class ExpressionEvaluator {
     }
 
     /**
-     * Evaluates an expression in Reverse Polish Notation (RPN) form.
+     * Evaluates the expression held in {@code text[start, end)} and appends the formatted result,
+     * or an error message, to {@code out}.
+     * <p>
+     * This implementation copies the range and delegates to {@link #evalExpression(String)};
+     * subclasses that can scan the characters in place override it to avoid the intermediate strings.
+     * </p>
      *
-     * @param tokens the RPN tokens
-     * @return the evaluated result as a double
-     * @throws EvaluationException if the expression is invalid or contains errors
+     * @param text  the text holding the expression
+     * @param start first index of the expression (inclusive)
+     * @param end   last index of the expression (exclusive)
+     * @param out   the builder the result is appended to
      */
-    private double evaluatePostfix(List<String> tokens) throws EvaluationException {
-        Deque<Double> stack = new ArrayDeque<>();
-        for (String token : tokens) {
-            if (MathUtils.isNumber(token)) {
-                stack.push(Double.parseDouble(token));
-            } else if (MathUtils.isOperator(token)) {
-                if (stack.size() < 2) {
-                    throw new EvaluationException("Invalid expression");
-                }
-                double b = stack.pop();
-                double a = stack.pop();
-                double res = switch (token) {
-                    case "+" -> a + b;
-                    case "-" -> a - b;
-                    case "*" -> a * b;
-                    case "/" -> {
-                        if (b == 0) {
-                            throw new EvaluationException("Division by zero");
-                        }
-                        yield a / b;
-                    }
-                    default -> throw new EvaluationException("Unknown operator");
-                };
-                stack.push(res);
-            } else {
-                throw new EvaluationException("Unknown operator");
-            }
-        }
-        if (stack.size() != 1) {
-            throw new EvaluationException("Invalid expression");
-        }
-        return stack.pop();
+    public void evalExpression(CharSequence text, int start, int end, StringBuilder out) {
+        out.append(evalExpression(text.subSequence(start, end).toString()));
+    }
+
+    /**
+     * Evaluates an expression that has already been tokenized and appends the formatted result,
+     * or an error message, to {@code out}.
+     * <p>
+     * This implementation evaluates the source range of the stream; subclasses that can work on the
+     * tokens directly override it.
+     * </p>
+     *
+     * @param tokens the tokens of the expression, e.g. filled by {@link ExpressionValidator}
+     * @param out    the builder the result is appended to
+     */
+    public void evalExpression(TokenStream tokens, StringBuilder out) {
+        evalExpression(tokens.source(), tokens.sourceStart(), tokens.sourceEnd(), out);
+    }
+
+    /**
+     * Compiles an arithmetic expression once into a reusable {@link CompiledExpression}.
+     * <p>
+     * The expression is tokenized and converted to postfix notation a single time;
+     * the compiled form can then be evaluated any number of times without re-parsing.
+     * </p>
+     *
+     * @param expr The arithmetic expression to compile.
+     * @return the compiled expression
+     * @throws EvaluationException if the expression cannot be tokenized or converted
+     */
+    public CompiledExpression compile(String expr) throws EvaluationException {
+        List<String> tokens = parser.tokenize(expr);
+        List<String> postfix = converter.infixToPostfix(tokens);
+        return CompiledExpression.fromPostfix(postfix);
     }
 }
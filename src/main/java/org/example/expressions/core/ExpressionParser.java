@@ -3,6 +3,10 @@ package org.example.expressions.core;
 import java.util.ArrayList;
 import java.util.List;
 
+/**
+ * Splits arithmetic expressions into tokens. The parser is stateless and thread-safe;
+ * a {@link TokenStream} it fills is not, and belongs to the calling thread.
+ */
 public class ExpressionParser {
 
     /**
@@ -13,41 +17,79 @@ public class ExpressionParser {
      * @return list of tokens like ["2", "+", "3", "*", "(", "4", "-", "1.5", ")"]
      */
     public List<String> tokenize(String expr) throws EvaluationException {
-        List<String> tokens = new ArrayList<>();
-        StringBuilder number = new StringBuilder();
+        TokenStream stream = tokenize(expr, 0, expr.length(), new TokenStream());
+        if (!stream.isTokenized()) {
+            throw new EvaluationException("Unknown operator or symbol: '" + stream.unknownSymbol() + "'");
+        }
+        List<String> tokens = new ArrayList<>(stream.size());
+        for (int i = 0; i < stream.size(); i++) {
+            tokens.add(stream.text(i));
+        }
+        return tokens;
+    }
+
+    /**
+     * Tokenizes {@code text[start, end)} into a reusable primitive token stream.
+     * <p>
+     * The tokens are the same as those of {@link #tokenize(String)}: whitespace inside a number
+     * is skipped, and a unary minus that is not followed by a number is an operator.
+     * Numbers are parsed on the way. Instead of throwing, tokenizing stops at the first
+     * unknown character, which the stream then reports.
+     * </p>
+     *
+     * @param text   the text holding the expression
+     * @param start  first index of the expression (inclusive)
+     * @param end    last index of the expression (exclusive)
+     * @param tokens the stream to fill; its previous content is discarded
+     * @return {@code tokens}
+     */
+    public TokenStream tokenize(CharSequence text, int start, int end, TokenStream tokens) {
+        tokens.reset(text, start, end);
+        int numberStart = -1;
+        int numberEnd = -1;
         boolean expectUnary = true; // at start or after operator/open parenthesis we can have unary minus
 
-        for (char ch : expr.toCharArray()) {
+        for (int i = start; i < end; i++) {
+            char ch = text.charAt(i);
             if (Character.isWhitespace(ch)) {
                 continue;
             }
 
-            if (Character.isDigit(ch) || ch == '.') {
-                number.append(ch);
-                expectUnary = false;
-            } else if (ch == '-' && expectUnary) {
-                number.append(ch);
+            if (Character.isDigit(ch) || ch == '.' || (ch == '-' && expectUnary)) {
+                if (numberStart < 0) {
+                    numberStart = i;
+                }
+                numberEnd = i + 1;
                 expectUnary = false;
             } else {
-                if (!number.isEmpty()) {
-                    tokens.add(number.toString());
-                    number.setLength(0);
+                if (numberStart >= 0) {
+                    addNumber(text, numberStart, numberEnd, tokens);
+                    numberStart = -1;
                 }
 
                 if (MathUtils.isOperator(ch)) {
-                    tokens.add(String.valueOf(ch));
+                    tokens.add(TokenStream.OPERATOR, i, i + 1, Double.NaN);
                     expectUnary = true;
                 } else if (ch == '(' || ch == ')') {
-                    tokens.add(String.valueOf(ch));
+                    tokens.add(ch == '(' ? TokenStream.OPEN_PAREN : TokenStream.CLOSE_PAREN, i, i + 1, Double.NaN);
                     expectUnary = ch == '(';
                 } else {
-                    throw new EvaluationException("Unknown operator or symbol: '" + ch + "'");
+                    tokens.fail(i);
+                    return tokens;
                 }
             }
         }
-        if (!number.isEmpty()) {
-            tokens.add(number.toString());
+        if (numberStart >= 0) {
+            addNumber(text, numberStart, numberEnd, tokens);
         }
         return tokens;
     }
+
+    private static void addNumber(CharSequence text, int start, int end, TokenStream tokens) {
+        if (end - start == 1 && text.charAt(start) == '-') {
+            tokens.add(TokenStream.OPERATOR, start, end, Double.NaN);
+        } else {
+            tokens.add(TokenStream.NUMBER, start, end, MathUtils.parseNumber(text, start, end));
+        }
+    }
 }
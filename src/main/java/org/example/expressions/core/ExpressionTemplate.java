@@ -0,0 +1,364 @@
+package org.example.expressions.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An arithmetic expression with variable slots, compiled once and evaluated for many rows of values.
+ * <p>
+ * Variables are named like {@code price} or {@code tax_rate} (a letter or underscore followed by
+ * letters, digits and underscores); every {@code ?} is an anonymous variable of its own. Each distinct
+ * variable gets a slot, numbered from zero in order of first appearance, e.g.
+ * {@code "price * (1 + tax) - price / ?"} has the slots {@code price}, {@code tax} and {@code ?}.
+ * The template is parsed with the same scanner and precedence rules as {@link FusedExpressionEvaluator},
+ * so a template gives the same result as the expression with the values written in place of the variables.
+ * </p>
+ * <p>
+ * Values are bound when evaluating, either per slot ({@link #evaluate(double...)}), by name
+ * ({@link #evaluate(Map)}), or as one column per slot for many rows at once.
+ * </p>
+ * <p>
+ * {@link #evaluate(double[][], double[], BitSet)} runs the postfix program column by column: each
+ * opcode is applied to a block of rows at once in a tight loop over {@code double[]} temporaries,
+ * which the JIT compiles to SIMD instructions. Rows that divide by zero are reported in an error
+ * bitmap instead of stopping the evaluation. Structural errors (mismatched parentheses, missing
+ * operands) do not depend on the values and are reported by {@link #compile(String)}.
+ * </p>
+ * <p>
+ * Templates are immutable and thread-safe.
+ * </p>
+ */
+public final class ExpressionTemplate {
+
+    /** Rows evaluated per block; the temporaries of a block stay in the L1/L2 cache. */
+    static final int BLOCK_SIZE = 1024;
+
+    private static final byte LOAD = 5;
+
+    private final String template;
+    private final byte[] code;
+    private final double[] constants;
+    private final int[] slots;
+    private final String[] variables;
+    private final int stackSize;
+
+    private ExpressionTemplate(String template, Program program) {
+        this.template = template;
+        this.code = Arrays.copyOf(program.code, program.length);
+        this.constants = Arrays.copyOf(program.constants, program.constantCount);
+        this.slots = Arrays.copyOf(program.slots, program.loadCount);
+        this.variables = program.variables.toArray(new String[0]);
+        this.stackSize = program.maxDepth;
+    }
+
+    /**
+     * Compiles a template.
+     *
+     * @param template the expression, with names or {@code ?} for the variables
+     * @return the compiled template
+     * @throws EvaluationException if the template is not a valid expression
+     */
+    public static ExpressionTemplate compile(String template) throws EvaluationException {
+        Program program = new Program();
+        int unknown = FusedExpressionEvaluator.scan(template, 0, template.length(), program);
+        if (unknown >= 0) {
+            throw new EvaluationException("Unknown operator or symbol: '" + template.charAt(unknown) + "'");
+        }
+        if (!program.complete()) {
+            throw new EvaluationException(program.error());
+        }
+        return new ExpressionTemplate(template, program);
+    }
+
+    /**
+     * @return the number of variable slots, i.e. the number of values or columns {@link #evaluate} expects
+     */
+    public int slotCount() {
+        return variables.length;
+    }
+
+    /**
+     * @return the variable name of each slot in slot order; anonymous slots are named {@code ?}
+     */
+    public List<String> variables() {
+        return List.of(variables);
+    }
+
+    /**
+     * @return the slot of the named variable, or {@code -1} if the template does not use it
+     */
+    public int slotOf(String variable) {
+        for (int slot = 0; slot < variables.length; slot++) {
+            if (variables[slot].equals(variable) && !variable.equals("?")) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Looks up the value of every slot in a binding map, for passing to {@link #evaluate(double...)}
+     * repeatedly. Entries for variables the template does not use are ignored.
+     *
+     * @param bindings values by variable name
+     * @return one value per slot
+     * @throws EvaluationException if a variable has no value; anonymous slots never have one
+     */
+    public double[] bind(Map<String, ? extends Number> bindings) throws EvaluationException {
+        double[] values = new double[variables.length];
+        for (int slot = 0; slot < values.length; slot++) {
+            Number value = variables[slot].equals("?") ? null : bindings.get(variables[slot]);
+            if (value == null) {
+                throw new EvaluationException("Unbound variable: '" + variables[slot] + "'");
+            }
+            values[slot] = value.doubleValue();
+        }
+        return values;
+    }
+
+    /**
+     * Evaluates the template with the values of a binding map.
+     *
+     * @param bindings values by variable name
+     * @return the result
+     * @throws EvaluationException if a variable has no value or the values divide by zero
+     */
+    public double evaluate(Map<String, ? extends Number> bindings) throws EvaluationException {
+        return evaluate(bind(bindings));
+    }
+
+    /**
+     * Evaluates the template for one row of values.
+     *
+     * @param values one value per slot
+     * @return the result
+     * @throws EvaluationException if the row divides by zero
+     */
+    public double evaluate(double... values) throws EvaluationException {
+        return evaluate(values, new double[stackSize]);
+    }
+
+    /**
+     * Evaluates the template for one row of values using a caller-supplied stack, so that evaluating
+     * a row allocates nothing.
+     *
+     * @param values one value per slot
+     * @param stack  scratch stack of at least {@link #stackSize()} elements
+     * @return the result
+     * @throws EvaluationException if the row divides by zero
+     */
+    public double evaluate(double[] values, double[] stack) throws EvaluationException {
+        checkSlots(values.length);
+        int sp = 0;
+        int constant = 0;
+        int load = 0;
+        for (byte op : code) {
+            switch (op) {
+                case CompiledExpression.PUSH -> stack[sp++] = constants[constant++];
+                case LOAD -> stack[sp++] = values[slots[load++]];
+                default -> {
+                    double b = stack[--sp];
+                    double a = stack[sp - 1];
+                    stack[sp - 1] = switch (op) {
+                        case CompiledExpression.ADD -> a + b;
+                        case CompiledExpression.SUBTRACT -> a - b;
+                        case CompiledExpression.MULTIPLY -> a * b;
+                        default -> {
+                            if (b == 0) {
+                                throw new EvaluationException("Division by zero");
+                            }
+                            yield a / b;
+                        }
+                    };
+                }
+            }
+        }
+        return stack[0];
+    }
+
+    /**
+     * @return the number of stack slots {@link #evaluate(double[], double[])} needs
+     */
+    public int stackSize() {
+        return stackSize;
+    }
+
+    /**
+     * Evaluates the template for every row of a set of columns.
+     * <p>
+     * Row {@code r} takes {@code columns[s][r]} for slot {@code s}. Its result is stored in
+     * {@code results[r]}; if it divides by zero, bit {@code r} of {@code errors} is set and the result is
+     * {@code NaN}. Bits of the other rows are cleared.
+     * </p>
+     *
+     * @param columns one column per slot, each at least as long as {@code results}
+     * @param results receives one result per row; its length is the number of rows
+     * @param errors  receives the rows that failed
+     * @throws IllegalArgumentException if the number of columns does not match the slots or a column is too short
+     */
+    public void evaluate(double[][] columns, double[] results, BitSet errors) {
+        checkSlots(columns.length);
+        int rows = results.length;
+        for (double[] column : columns) {
+            if (column.length < rows) {
+                throw new IllegalArgumentException("Column of " + column.length + " values for " + rows + " rows");
+            }
+        }
+        errors.clear(0, rows);
+        double[][] stack = new double[stackSize][Math.min(BLOCK_SIZE, rows)];
+
+        for (int base = 0; base < rows; base += BLOCK_SIZE) {
+            int n = Math.min(BLOCK_SIZE, rows - base);
+            int sp = 0;
+            int constant = 0;
+            int load = 0;
+            for (byte op : code) {
+                switch (op) {
+                    case CompiledExpression.PUSH -> Arrays.fill(stack[sp++], 0, n, constants[constant++]);
+                    case LOAD -> System.arraycopy(columns[slots[load++]], base, stack[sp++], 0, n);
+                    default -> {
+                        double[] b = stack[--sp];
+                        double[] a = stack[sp - 1];
+                        apply(op, a, b, n);
+                        if (op == CompiledExpression.DIVIDE) {
+                            markZeroDivisors(b, n, base, errors);
+                        }
+                    }
+                }
+            }
+            System.arraycopy(stack[0], 0, results, base, n);
+        }
+        for (int row = errors.nextSetBit(0); row >= 0 && row < rows; row = errors.nextSetBit(row + 1)) {
+            results[row] = Double.NaN;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return template;
+    }
+
+    /**
+     * Stores {@code a[i] op b[i]} in {@code a[i]}. Each case is a plain counted loop the JIT vectorizes.
+     */
+    private static void apply(byte op, double[] a, double[] b, int n) {
+        switch (op) {
+            case CompiledExpression.ADD -> {
+                for (int i = 0; i < n; i++) {
+                    a[i] += b[i];
+                }
+            }
+            case CompiledExpression.SUBTRACT -> {
+                for (int i = 0; i < n; i++) {
+                    a[i] -= b[i];
+                }
+            }
+            case CompiledExpression.MULTIPLY -> {
+                for (int i = 0; i < n; i++) {
+                    a[i] *= b[i];
+                }
+            }
+            default -> {
+                for (int i = 0; i < n; i++) {
+                    a[i] /= b[i];
+                }
+            }
+        }
+    }
+
+    private static void markZeroDivisors(double[] divisors, int n, int base, BitSet errors) {
+        for (int i = 0; i < n; i++) {
+            if (divisors[i] == 0) {
+                errors.set(base + i);
+            }
+        }
+    }
+
+    private void checkSlots(int count) {
+        if (count != variables.length) {
+            throw new IllegalArgumentException("Template '" + template + "' has " + variables.length + " slots, got " + count);
+        }
+    }
+
+    /**
+     * Reduction stack that emits the postfix program instead of computing. Operands are only counted,
+     * so the base class still detects mismatched parentheses and missing operands; division by zero
+     * depends on the values and is left to evaluation.
+     */
+    private static final class Program extends ReductionStack {
+        private byte[] code = new byte[16];
+        private int length;
+        private double[] constants = new double[8];
+        private int constantCount;
+        private int[] slots = new int[8];
+        private int loadCount;
+        private final List<String> variables = new ArrayList<>();
+        private int depth;
+        private int maxDepth;
+        private double parsed;
+        private int parsedSlot = -1;
+
+        @Override
+        void clearOperands() {
+            depth = 0;
+        }
+
+        @Override
+        boolean parseNumber(CharSequence text, int start, int end) {
+            parsed = MathUtils.parseNumber(text, start, end);
+            parsedSlot = -1;
+            return !Double.isNaN(parsed);
+        }
+
+        @Override
+        boolean parseVariable(CharSequence text, int start, int end) {
+            String name = text.subSequence(start, end).toString();
+            parsedSlot = name.equals("?") ? -1 : variables.indexOf(name);
+            if (parsedSlot < 0) {
+                parsedSlot = variables.size();
+                variables.add(name);
+            }
+            return true;
+        }
+
+        @Override
+        void pushParsed() {
+            if (parsedSlot >= 0) {
+                if (loadCount == slots.length) {
+                    slots = Arrays.copyOf(slots, loadCount * 2);
+                }
+                slots[loadCount++] = parsedSlot;
+                emit(LOAD);
+            } else {
+                if (constantCount == constants.length) {
+                    constants = Arrays.copyOf(constants, constantCount * 2);
+                }
+                constants[constantCount++] = parsed;
+                emit(CompiledExpression.PUSH);
+            }
+            maxDepth = Math.max(maxDepth, ++depth);
+        }
+
+        @Override
+        int operandCount() {
+            return depth;
+        }
+
+        @Override
+        String combine(byte operator) {
+            emit(operator);
+            depth--;
+            return null;
+        }
+
+        private void emit(byte op) {
+            if (length == code.length) {
+                code = Arrays.copyOf(code, length * 2);
+            }
+            code[length++] = op;
+        }
+    }
+}
@@ -1,8 +1,10 @@
 package org.example.expressions.core;
 
-import java.util.List;
 import java.util.regex.Pattern;
 
+/**
+ * Decides which parts of a text are worth evaluating. The validator is thread-safe.
+ */
 public class ExpressionValidator {
 
     private final ExpressionParser parser;
@@ -24,15 +26,46 @@ public class ExpressionValidator {
      * @return {@code true} if the string looks like a valid arithmetic expression, {@code false} otherwise.
      */
     public boolean isPotentialExpression(String expr) {
-        try {
-            List<String> tokens = parser.tokenize(expr);
-            if (tokens.size() < 3) return false;
-            boolean hasNumber = tokens.stream().anyMatch(MathUtils::isNumber);
-            boolean hasOperator = tokens.stream().anyMatch(MathUtils::isOperator);
-            return hasNumber && hasOperator;
-        } catch (EvaluationException e) {
+        return isPotentialExpression(expr, 0, expr.length(), new TokenStream());
+    }
+
+    /**
+     * Tokenizes {@code text[start, end)} into {@code tokens} and checks if it is a potential expression.
+     * The filled stream can then be handed to {@link ExpressionEvaluator#evalExpression(TokenStream, StringBuilder)}
+     * without tokenizing the text again.
+     *
+     * @param text   the text holding the expression
+     * @param start  first index of the expression (inclusive)
+     * @param end    last index of the expression (exclusive)
+     * @param tokens the stream to fill
+     * @return {@code true} if the range looks like a valid arithmetic expression, {@code false} otherwise.
+     */
+    public boolean isPotentialExpression(CharSequence text, int start, int end, TokenStream tokens) {
+        return isPotentialExpression(parser.tokenize(text, start, end, tokens));
+    }
+
+    /**
+     * Checks if an already tokenized expression is a potential arithmetic expression,
+     * by the same rules as {@link #isPotentialExpression(String)}.
+     *
+     * @param tokens the tokens of the expression
+     * @return {@code true} if the tokens look like a valid arithmetic expression, {@code false} otherwise.
+     */
+    public boolean isPotentialExpression(TokenStream tokens) {
+        if (!tokens.isTokenized() || tokens.size() < 3) {
             return false;
         }
+        boolean hasNumber = false;
+        boolean hasOperator = false;
+        for (int i = 0; i < tokens.size(); i++) {
+            byte kind = tokens.kind(i);
+            if (kind == TokenStream.NUMBER && !Double.isNaN(tokens.value(i))) {
+                hasNumber = true;
+            } else if (kind == TokenStream.OPERATOR) {
+                hasOperator = true;
+            }
+        }
+        return hasNumber && hasOperator;
     }
 
     /**
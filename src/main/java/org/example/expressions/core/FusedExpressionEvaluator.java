@@ -0,0 +1,191 @@
+package org.example.expressions.core;
+
+/**
+ * Evaluator that tokenizes, converts and evaluates an expression in a single scan.
+ * <p>
+ * Instead of passing {@code String} lists between {@link ExpressionParser}, {@link ExpressionConverter}
+ * and the postfix evaluation, the raw characters are scanned once. Numbers are parsed straight from
+ * the character range and operators are reduced on the fly on two primitive stacks
+ * (see {@link ReductionStack}). Results and error messages are the same as those of
+ * {@link ExpressionEvaluator#evalExpression}.
+ * </p>
+ * <p>
+ * Numbers are computed with the given {@link NumericBackend}, by default primitive doubles.
+ * </p>
+ * <p>
+ * The evaluator is thread-safe. Each thread reuses its own reduction stack, so with the double and
+ * long backends evaluating does not allocate beyond the result string.
+ * </p>
+ */
+public class FusedExpressionEvaluator extends ExpressionEvaluator {
+
+    private final ThreadLocal<NumericReductionStack> stacks;
+
+    public FusedExpressionEvaluator() {
+        this(NumericBackend.DOUBLE);
+    }
+
+    public FusedExpressionEvaluator(NumericBackend backend) {
+        super(new ExpressionParser(), new ExpressionConverter());
+        this.stacks = ThreadLocal.withInitial(backend::newStack);
+    }
+
+    /**
+     * Safely evaluates an arithmetic expression in a single pass and returns the formatted result.
+     *
+     * @param expr The arithmetic expression to evaluate.
+     * @return The result of the evaluation as a string, or an error message if evaluation fails.
+     */
+    @Override
+    public String evalExpression(String expr) {
+        StringBuilder out = new StringBuilder(24);
+        evalExpression(expr, 0, expr.length(), out);
+        return out.toString();
+    }
+
+    /**
+     * Evaluates the expression held in {@code text[start, end)} without copying it
+     * and appends the formatted result, or an error message, to {@code out}.
+     *
+     * @param text  the text holding the expression
+     * @param start first index of the expression (inclusive)
+     * @param end   last index of the expression (exclusive)
+     * @param out   the builder the result is appended to
+     */
+    @Override
+    public void evalExpression(CharSequence text, int start, int end, StringBuilder out) {
+        NumericReductionStack stack = stacks.get();
+        stack.reset();
+        int unknown = scan(text, start, end, stack);
+        if (unknown >= 0) {
+            out.append("[ERROR: Unknown operator or symbol: '").append(text.charAt(unknown)).append("']");
+            return;
+        }
+        stack.finish(out);
+    }
+
+    /**
+     * Evaluates already tokenized input on the same reduction stack, using the values parsed by the tokenizer.
+     *
+     * @param tokens the tokens of the expression
+     * @param out    the builder the result is appended to
+     */
+    @Override
+    public void evalExpression(TokenStream tokens, StringBuilder out) {
+        if (!tokens.isTokenized()) {
+            out.append("[ERROR: Unknown operator or symbol: '").append(tokens.unknownSymbol()).append("']");
+            return;
+        }
+        NumericReductionStack stack = stacks.get();
+        stack.reset();
+        for (int i = 0; i < tokens.size(); i++) {
+            switch (tokens.kind(i)) {
+                case TokenStream.NUMBER -> {
+                    if (!stack.pushNumber(tokens, i)) {
+                        stack.conversionError("Unknown operator or symbol: '" + tokens.text(i) + "'");
+                    }
+                }
+                case TokenStream.OPERATOR -> stack.pushOperator(ReductionStack.operatorCode(tokens.operator(i)));
+                case TokenStream.OPEN_PAREN -> stack.openParen();
+                default -> stack.closeParen();
+            }
+        }
+        stack.finish(out);
+    }
+
+    /**
+     * Scans {@code text[start, end)} and feeds its numbers, operators and parentheses to the stack.
+     * A {@code ?} and a name such as {@code price} are offered to the stack as variables; stacks that
+     * take no variables reject them, which makes their first character an unknown symbol. A unary minus
+     * before a variable negates it, as it does a number.
+     *
+     * @return the index of the first character that is neither part of an expression nor accepted
+     *         by the stack, or {@code -1} if the whole range was fed
+     */
+    static int scan(CharSequence text, int start, int end, ReductionStack stack) {
+        int numberStart = -1;
+        boolean expectUnary = true; // at start or after operator/open parenthesis we can have unary minus
+
+        for (int i = start; i < end; i++) {
+            char ch = text.charAt(i);
+            if (Character.isWhitespace(ch)) {
+                continue;
+            }
+
+            if (Character.isDigit(ch) || ch == '.') {
+                if (numberStart < 0) {
+                    numberStart = i;
+                }
+                expectUnary = false;
+            } else if (ch == '-' && expectUnary) {
+                numberStart = i;
+                expectUnary = false;
+            } else {
+                boolean negated = false;
+                if (numberStart >= 0) {
+                    if ((ch == '?' || MathUtils.isIdentifierStart(ch)) && isLoneMinus(text, numberStart, i)) {
+                        negated = true;
+                    } else {
+                        reduceNumber(text, numberStart, i, stack);
+                    }
+                    numberStart = -1;
+                }
+
+                if (MathUtils.isOperator(ch)) {
+                    stack.pushOperator(ReductionStack.operatorCode(ch));
+                    expectUnary = true;
+                } else if (ch == '(') {
+                    stack.openParen();
+                    expectUnary = true;
+                } else if (ch == ')') {
+                    stack.closeParen();
+                    expectUnary = false;
+                } else if (ch == '?' && stack.pushVariable(text, i, i + 1, negated)) {
+                    expectUnary = false;
+                } else if (MathUtils.isIdentifierStart(ch)) {
+                    int nameEnd = i + 1;
+                    while (nameEnd < end && MathUtils.isIdentifierPart(text.charAt(nameEnd))) {
+                        nameEnd++;
+                    }
+                    if (!stack.pushVariable(text, i, nameEnd, negated)) {
+                        return i;
+                    }
+                    i = nameEnd - 1;
+                    expectUnary = false;
+                } else {
+                    return i;
+                }
+            }
+        }
+        if (numberStart >= 0) {
+            reduceNumber(text, numberStart, end, stack);
+        }
+        return -1;
+    }
+
+    /**
+     * Feeds a number token to the stack. A lone unary minus is not a number,
+     * and the converter treats it as a binary minus, so it is pushed as an operator.
+     */
+    private static void reduceNumber(CharSequence text, int start, int end, ReductionStack stack) {
+        if (stack.pushNumber(text, start, end)) {
+            return;
+        }
+        if (isLoneMinus(text, start, end)) {
+            stack.pushOperator(CompiledExpression.SUBTRACT);
+        } else {
+            stack.conversionError("Unknown operator or symbol: '" + MathUtils.stripWhitespace(text, start, end) + "'");
+        }
+    }
+
+    private static boolean isLoneMinus(CharSequence text, int start, int end) {
+        int count = 0;
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (!Character.isWhitespace(c) && (c != '-' || ++count > 1)) {
+                return false;
+            }
+        }
+        return count == 1;
+    }
+}
@@ -0,0 +1,159 @@
+package org.example.expressions.core;
+
+import java.util.Arrays;
+
+/**
+ * Reduction stack computing with {@code long}s while every operand and intermediate result is an
+ * exact integer, and with {@code double}s from the first decimal number, overflow or inexact division on.
+ * <p>
+ * Switching converts the operands already on the stack, so an expression is never computed
+ * partly in both representations. Integer results are exact over the whole {@code long} range,
+ * where doubles would round above 2<sup>53</sup>.
+ * </p>
+ */
+final class LongReductionStack extends NumericReductionStack {
+
+    private long[] longs = new long[8];
+    private double[] doubles = new double[8];
+    private int operandCount;
+    private boolean inDoubles;
+    private long parsedLong;
+    private double parsedDouble;
+    private boolean parsedIsLong;
+
+    @Override
+    void clearOperands() {
+        operandCount = 0;
+        inDoubles = false;
+    }
+
+    @Override
+    boolean parseNumber(CharSequence text, int start, int end) {
+        if (parseLong(text, start, end)) {
+            parsedIsLong = true;
+            return true;
+        }
+        parsedIsLong = false;
+        parsedDouble = MathUtils.parseNumber(text, start, end);
+        return !Double.isNaN(parsedDouble);
+    }
+
+    /**
+     * Parses an optionally negative run of ASCII digits, ignoring whitespace, into {@link #parsedLong}.
+     *
+     * @return false if the range holds anything else or does not fit a {@code long}
+     */
+    private boolean parseLong(CharSequence text, int start, int end) {
+        boolean negative = false;
+        boolean seenDigit = false;
+        long value = 0;
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c >= '0' && c <= '9') {
+                int digit = c - '0';
+                if (value > (Long.MAX_VALUE - digit) / 10) {
+                    return false;
+                }
+                value = value * 10 + digit;
+                seenDigit = true;
+            } else if (c == '-' && !negative && !seenDigit) {
+                negative = true;
+            } else if (!Character.isWhitespace(c)) {
+                return false;
+            }
+        }
+        parsedLong = negative ? -value : value;
+        return seenDigit;
+    }
+
+    @Override
+    void pushParsed() {
+        if (operandCount == longs.length) {
+            longs = Arrays.copyOf(longs, operandCount * 2);
+            doubles = Arrays.copyOf(doubles, operandCount * 2);
+        }
+        if (!parsedIsLong && !inDoubles) {
+            switchToDoubles();
+        }
+        if (inDoubles) {
+            doubles[operandCount++] = parsedIsLong ? parsedLong : parsedDouble;
+        } else {
+            longs[operandCount++] = parsedLong;
+        }
+    }
+
+    @Override
+    int operandCount() {
+        return operandCount;
+    }
+
+    @Override
+    String combine(byte operator) {
+        if (!inDoubles) {
+            long b = longs[operandCount - 1];
+            long a = longs[operandCount - 2];
+            long result;
+            boolean exact;
+            switch (operator) {
+                case CompiledExpression.ADD -> {
+                    result = a + b;
+                    exact = ((a ^ result) & (b ^ result)) >= 0;
+                }
+                case CompiledExpression.SUBTRACT -> {
+                    result = a - b;
+                    exact = ((a ^ b) & (a ^ result)) >= 0;
+                }
+                case CompiledExpression.MULTIPLY -> {
+                    result = a * b;
+                    exact = Math.multiplyHigh(a, b) == (result >> 63);
+                }
+                default -> {
+                    if (b == 0) {
+                        operandCount -= 2;
+                        return "Division by zero";
+                    }
+                    result = a / b;
+                    exact = a % b == 0 && !(a == Long.MIN_VALUE && b == -1);
+                }
+            }
+            if (exact) {
+                longs[operandCount - 2] = result;
+                operandCount--;
+                return null;
+            }
+            switchToDoubles();
+        }
+        double b = doubles[--operandCount];
+        double a = doubles[--operandCount];
+        double result;
+        switch (operator) {
+            case CompiledExpression.ADD -> result = a + b;
+            case CompiledExpression.SUBTRACT -> result = a - b;
+            case CompiledExpression.MULTIPLY -> result = a * b;
+            default -> {
+                if (b == 0) {
+                    return "Division by zero";
+                }
+                result = a / b;
+            }
+        }
+        doubles[operandCount++] = result;
+        return null;
+    }
+
+    @Override
+    void appendResult(StringBuilder out) {
+        if (inDoubles) {
+            MathUtils.appendDouble(out, doubles[0]);
+        } else {
+            out.append(longs[0]);
+        }
+    }
+
+    private void switchToDoubles() {
+        for (int i = 0; i < operandCount; i++) {
+            doubles[i] = longs[i];
+        }
+        inDoubles = true;
+    }
+}
@@ -2,13 +2,37 @@ package org.example.expressions.core;
 
 public class MathUtils {
 
+    /** Largest mantissa that a double represents exactly (2^53). */
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+    /** Powers of ten that a double represents exactly. */
+    private static final double[] EXACT_POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    /** Powers of ten as longs, for splitting scaled decimals into integer and fraction digits. */
+    private static final long[] LONG_POWERS_OF_TEN = {
+            1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L,
+            1_000_000_000L, 10_000_000_000L, 100_000_000_000L, 1_000_000_000_000L, 10_000_000_000_000L,
+            100_000_000_000_000L, 1_000_000_000_000_000L, 10_000_000_000_000_000L, 100_000_000_000_000_000L
+    };
+
     /**
      * Returns true if the string is a valid number (including negative and decimal) without regex.
+     * <p>
+     * Tokens made of digits, a leading minus and decimal points are classified directly;
+     * only other forms (exponents, signs elsewhere, ...) are checked by {@link Double#parseDouble}.
+     * </p>
      */
     public static boolean isNumber(String token) {
         if (token == null || token.isEmpty()) {
             return false;
         }
+        int plain = classifyPlainNumber(token);
+        if (plain >= 0) {
+            return plain == 1;
+        }
         try {
             Double.parseDouble(token);
             return true;
@@ -18,6 +42,107 @@ public class MathUtils {
         }
     }
 
+    /**
+     * Classifies a token made only of ASCII digits, '-' and '.' the way {@link Double#parseDouble} would.
+     *
+     * @return 1 if it is a valid number, 0 if it is not, -1 if it contains other characters
+     */
+    private static int classifyPlainNumber(String token) {
+        boolean seenDigit = false;
+        boolean seenPoint = false;
+        for (int i = 0; i < token.length(); i++) {
+            char c = token.charAt(i);
+            if (c >= '0' && c <= '9') {
+                seenDigit = true;
+            } else if (c == '.') {
+                if (seenPoint) {
+                    return 0;
+                }
+                seenPoint = true;
+            } else if (c == '-') {
+                if (i > 0) {
+                    return 0;
+                }
+            } else {
+                return -1;
+            }
+        }
+        return seenDigit ? 1 : 0;
+    }
+
+    /**
+     * Parses a number token directly from a character range, without creating a substring.
+     * <p>
+     * Whitespace inside the range is skipped, the same way {@link ExpressionParser#tokenize}
+     * skips it while building a number. Plain decimal literals with up to 15 significant digits
+     * and 22 fractional digits are converted exactly on a fast path; anything else falls back
+     * to {@link Double#parseDouble}, so the result always equals parsing the token text.
+     * </p>
+     *
+     * @param text  the text holding the token
+     * @param start first index of the token (inclusive)
+     * @param end   last index of the token (exclusive)
+     * @return the parsed value, or {@link Double#NaN} if the range is not a valid number
+     */
+    public static double parseNumber(CharSequence text, int start, int end) {
+        boolean negative = false;
+        boolean seenDigit = false;
+        boolean seenPoint = false;
+        boolean seenSign = false;
+        long mantissa = 0;
+        int fractionDigits = 0;
+
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c)) {
+                continue;
+            }
+            if (c >= '0' && c <= '9') {
+                if (mantissa >= MAX_EXACT_MANTISSA / 10 || fractionDigits >= EXACT_POWERS_OF_TEN.length - 1) {
+                    return parseNumberSlow(text, start, end);
+                }
+                mantissa = mantissa * 10 + (c - '0');
+                if (seenPoint) {
+                    fractionDigits++;
+                }
+                seenDigit = true;
+            } else if (c == '.' && !seenPoint) {
+                seenPoint = true;
+            } else if (c == '-' && !seenSign && !seenDigit && !seenPoint) {
+                negative = true;
+                seenSign = true;
+            } else {
+                return parseNumberSlow(text, start, end);
+            }
+        }
+        if (!seenDigit) {
+            return Double.NaN;
+        }
+        double value = mantissa / EXACT_POWERS_OF_TEN[fractionDigits];
+        return negative ? -value : value;
+    }
+
+    private static double parseNumberSlow(CharSequence text, int start, int end) {
+        String token = stripWhitespace(text, start, end);
+        return isNumber(token) ? Double.parseDouble(token) : Double.NaN;
+    }
+
+    /**
+     * Copies a character range, leaving out whitespace.
+     *
+     * @return the non-whitespace characters of {@code text[start, end)}
+     */
+    public static String stripWhitespace(CharSequence text, int start, int end) {
+        StringBuilder sb = new StringBuilder(end - start);
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (!Character.isWhitespace(c)) {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
     public static boolean isOperator(String s) {
         return "+".equals(s) || "-".equals(s) || "*".equals(s) || "/".equals(s);
     }
@@ -26,6 +151,45 @@ public class MathUtils {
         return c == '+' || c == '-' || c == '*' || c == '/';
     }
 
+    /**
+     * Returns true if the character can start a variable name: a letter or an underscore.
+     */
+    public static boolean isIdentifierStart(char c) {
+        return Character.isLetter(c) || c == '_';
+    }
+
+    /**
+     * Returns true if the character can continue a variable name: a letter, a digit or an underscore.
+     */
+    public static boolean isIdentifierPart(char c) {
+        return Character.isLetterOrDigit(c) || c == '_';
+    }
+
+    /**
+     * Returns true if the string is a variable name, e.g. {@code price} or {@code tax_rate2}.
+     */
+    public static boolean isIdentifier(String s) {
+        if (s == null || s.isEmpty() || !isIdentifierStart(s.charAt(0))) {
+            return false;
+        }
+        for (int i = 1; i < s.length(); i++) {
+            if (!isIdentifierPart(s.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns true if the tokenizer accepts the character: a digit, a decimal point,
+     * an operator, a parenthesis or whitespace. A text containing any other character
+     * can never be tokenized, and therefore never be an expression.
+     */
+    public static boolean isExpressionCharacter(char c) {
+        return Character.isDigit(c) || Character.isWhitespace(c) || isOperator(c)
+                || c == '.' || c == '(' || c == ')';
+    }
+
     public static int precedence(String op) {
         return switch (op) {
             case "+", "-" -> 1;
@@ -34,7 +198,7 @@ public class MathUtils {
         };
     }
 
-    public static boolean isDecimalPoint(String text, int index) {
+    public static boolean isDecimalPoint(CharSequence text, int index) {
         return index > 0 && index < text.length() - 1
                 && Character.isDigit(text.charAt(index - 1))
                 && Character.isDigit(text.charAt(index + 1));
@@ -47,10 +211,66 @@ public class MathUtils {
      * @return string representation, e.g. "4" instead of "4.0"
      */
     public static String formatDouble(double value) {
+        StringBuilder sb = new StringBuilder(24);
+        appendDouble(sb, value);
+        return sb.toString();
+    }
+
+    /**
+     * Appends a double to the builder exactly as {@link #formatDouble} formats it, without intermediate strings.
+     * <p>
+     * Integral values are appended as longs. Other values between 10<sup>-3</sup> and 10<sup>7</sup> with at most
+     * 15 significant digits take a fast path that finds the shortest decimal which parses back to the same
+     * double; this is the decimal {@link Double#toString} produces in that range. Values outside the
+     * fast path are appended by {@link StringBuilder#append(double)}.
+     * </p>
+     *
+     * @param out   the builder to append to
+     * @param value value to format
+     */
+    public static void appendDouble(StringBuilder out, double value) {
         if (value == (long) value) {
-            return String.valueOf((long) value);
-        } else {
-            return String.valueOf(value);
+            out.append((long) value);
+        } else if (!appendShortPlainDecimal(out, value)) {
+            out.append(value);
+        }
+    }
+
+    /**
+     * Appends {@code value} in plain notation with the fewest fraction digits that round-trip.
+     * Gives up (returns false without appending) whenever the shortest decimal is not unique
+     * or cannot be found exactly with long arithmetic.
+     */
+    private static boolean appendShortPlainDecimal(StringBuilder out, double value) {
+        double abs = Math.abs(value);
+        if (!(abs >= 1e-3 && abs < 1e7)) {
+            return false;
+        }
+        for (int k = 1; k < LONG_POWERS_OF_TEN.length; k++) {
+            double scaled = abs * EXACT_POWERS_OF_TEN[k];
+            if (scaled >= MAX_EXACT_MANTISSA / 2) {
+                return false;
+            }
+            long m = Math.round(scaled);
+            boolean exact = m / EXACT_POWERS_OF_TEN[k] == abs;
+            boolean neighbour = (m - 1) / EXACT_POWERS_OF_TEN[k] == abs || (m + 1) / EXACT_POWERS_OF_TEN[k] == abs;
+            if (neighbour || (exact && m % 10 == 0)) {
+                return false;
+            }
+            if (exact) {
+                long integerPart = m / LONG_POWERS_OF_TEN[k];
+                long fraction = m % LONG_POWERS_OF_TEN[k];
+                if (value < 0) {
+                    out.append('-');
+                }
+                out.append(integerPart).append('.');
+                for (int zeros = k - 1; zeros > 0 && fraction < LONG_POWERS_OF_TEN[zeros]; zeros--) {
+                    out.append('0');
+                }
+                out.append(fraction);
+                return true;
+            }
         }
+        return false;
     }
 }
@@ -0,0 +1,77 @@
+package org.example.expressions.core;
+
+import java.math.MathContext;
+import java.util.function.Supplier;
+
+/**
+ * Number representation a {@link FusedExpressionEvaluator} computes with.
+ * <ul>
+ *   <li>{@link #DOUBLE}: primitive doubles, the default.</li>
+ *   <li>{@link #LONG}: exact {@code long} arithmetic while all numbers and intermediate results are
+ *       integers, falling back to doubles on the first decimal number, overflow or inexact division.</li>
+ *   <li>{@link #decimal(MathContext)}: {@link java.math.BigDecimal} with every operation rounded to the
+ *       given context, for exact decimal results.</li>
+ * </ul>
+ * The double and long backends evaluate without allocating; the decimal backend allocates per number
+ * and per operation.
+ */
+public final class NumericBackend {
+
+    public static final NumericBackend DOUBLE = new NumericBackend("double", DoubleReductionStack::new);
+    public static final NumericBackend LONG = new NumericBackend("long", LongReductionStack::new);
+
+    private final String name;
+    private final Supplier<NumericReductionStack> stacks;
+
+    private NumericBackend(String name, Supplier<NumericReductionStack> stacks) {
+        this.name = name;
+        this.stacks = stacks;
+    }
+
+    /**
+     * @param context the precision and rounding of every operation
+     * @return a backend computing with {@link java.math.BigDecimal}
+     */
+    public static NumericBackend decimal(MathContext context) {
+        String precision = context.getPrecision() == 0 ? "unlimited" : String.valueOf(context.getPrecision());
+        return new NumericBackend("decimal:" + precision, () -> new DecimalReductionStack(context));
+    }
+
+    /**
+     * Parses a backend name: {@code double}, {@code long}, {@code decimal} (34 digits, like IEEE decimal128)
+     * or {@code decimal:<digits>}, where 0 digits means unlimited precision. Rounding is half-even.
+     *
+     * @param spec the backend name
+     * @return the backend
+     * @throws IllegalArgumentException if the name or the precision is invalid
+     */
+    public static NumericBackend parse(String spec) {
+        String lower = spec.toLowerCase();
+        if (lower.equals("double")) {
+            return DOUBLE;
+        }
+        if (lower.equals("long")) {
+            return LONG;
+        }
+        if (lower.equals("decimal")) {
+            return decimal(MathContext.DECIMAL128);
+        }
+        if (lower.startsWith("decimal:")) {
+            try {
+                return decimal(new MathContext(Integer.parseInt(lower.substring("decimal:".length()))));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Invalid decimal precision: " + spec, e);
+            }
+        }
+        throw new IllegalArgumentException("Unknown numeric backend: " + spec);
+    }
+
+    NumericReductionStack newStack() {
+        return stacks.get();
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,27 @@
+package org.example.expressions.core;
+
+/**
+ * Reduction stack that computes with the operands of a {@link NumericBackend} and formats the result.
+ * <p>
+ * Each subclass holds the operands in its backend's representation and implements the number
+ * parsing, the arithmetic and the formatting of the single remaining operand.
+ * </p>
+ */
+abstract class NumericReductionStack extends ReductionStack {
+
+    /**
+     * Reduces the remaining operators and formats the outcome like {@link ExpressionEvaluator#evalExpression}.
+     *
+     * @param out the builder the formatted result or an {@code [ERROR: ...]} marker is appended to
+     */
+    void finish(StringBuilder out) {
+        if (complete()) {
+            appendResult(out);
+        } else {
+            out.append("[ERROR: ").append(error()).append(']');
+        }
+    }
+
+    /** Appends the single remaining operand. */
+    abstract void appendResult(StringBuilder out);
+}
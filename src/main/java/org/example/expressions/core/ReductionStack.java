@@ -0,0 +1,237 @@
+package org.example.expressions.core;
+
+import java.util.Arrays;
+
+/**
+ * Shunting-yard state that reduces operators as soon as they would be emitted to postfix output.
+ * <p>
+ * Operands and operator codes are kept on two primitive stacks. Applying each operator the moment
+ * the converter would append it to the postfix list evaluates in exactly the order the postfix
+ * evaluator would, so results and error messages match the three-stage pipeline.
+ * </p>
+ * <p>
+ * Conversion errors take priority over evaluation errors, because the pipeline converts the whole
+ * expression before evaluating it. After the first conversion error all further input is ignored;
+ * after the first evaluation error operators are still matched against parentheses, but no more
+ * arithmetic is done.
+ * </p>
+ * <p>
+ * Subclasses decide what an operand is: they parse numbers and combine the top two operands. The
+ * operator stack and the error rules live here. {@link NumericReductionStack}s compute in the
+ * representation of a {@link NumericBackend} and format the result; the compiler of
+ * {@link ExpressionTemplate} emits code instead.
+ * </p>
+ */
+abstract class ReductionStack {
+
+    private static final byte OPEN_PAREN = -1;
+
+    private byte[] operators = new byte[8];
+    private int operatorCount;
+    private String conversionError;
+    private String evaluationError;
+
+    void reset() {
+        clearOperands();
+        operatorCount = 0;
+        conversionError = null;
+        evaluationError = null;
+    }
+
+    /**
+     * Parses {@code text[start, end)} and pushes it as an operand.
+     *
+     * @return false if the range is not a number; nothing is pushed then
+     */
+    boolean pushNumber(CharSequence text, int start, int end) {
+        if (!parseNumber(text, start, end)) {
+            return false;
+        }
+        if (conversionError == null) {
+            pushParsed();
+        }
+        return true;
+    }
+
+    /**
+     * Pushes the number token {@code i} of a token stream.
+     *
+     * @return false if the token is not a valid number; nothing is pushed then
+     */
+    boolean pushNumber(TokenStream tokens, int i) {
+        if (!parseNumber(tokens, i)) {
+            return false;
+        }
+        if (conversionError == null) {
+            pushParsed();
+        }
+        return true;
+    }
+
+    /**
+     * Pushes the variable named by {@code text[start, end)} as an operand.
+     *
+     * @param negated whether a unary minus precedes the variable; the operand is then {@code (variable * -1)},
+     *                just as a minus written before a number makes the number negative
+     * @return false if the stack takes no such variable; nothing is pushed then
+     */
+    boolean pushVariable(CharSequence text, int start, int end, boolean negated) {
+        if (!parseVariable(text, start, end)) {
+            return false;
+        }
+        if (conversionError != null) {
+            return true;
+        }
+        if (!negated) {
+            pushParsed();
+            return true;
+        }
+        openParen();
+        pushParsed();
+        pushOperator(CompiledExpression.MULTIPLY);
+        pushNumber("-1", 0, 2);
+        closeParen();
+        return true;
+    }
+
+    void pushOperator(byte operator) {
+        if (conversionError != null) {
+            return;
+        }
+        int precedence = precedence(operator);
+        while (operatorCount > 0 && precedence(operators[operatorCount - 1]) >= precedence) {
+            apply(operators[--operatorCount]);
+        }
+        push(operator);
+    }
+
+    void openParen() {
+        if (conversionError != null) {
+            return;
+        }
+        push(OPEN_PAREN);
+    }
+
+    void closeParen() {
+        if (conversionError != null) {
+            return;
+        }
+        while (operatorCount > 0) {
+            byte top = operators[--operatorCount];
+            if (top == OPEN_PAREN) {
+                return;
+            }
+            apply(top);
+        }
+        conversionError = "Mismatched parentheses";
+    }
+
+    void conversionError(String message) {
+        if (conversionError == null) {
+            conversionError = message;
+        }
+    }
+
+    /**
+     * Reduces the remaining operators.
+     *
+     * @return true if the expression evaluated to a single operand; otherwise {@link #error()} tells why not
+     */
+    boolean complete() {
+        while (conversionError == null && operatorCount > 0) {
+            byte top = operators[--operatorCount];
+            if (top == OPEN_PAREN) {
+                conversionError = "Mismatched parentheses";
+            } else {
+                apply(top);
+            }
+        }
+        return conversionError == null && evaluationError == null && operandCount() == 1;
+    }
+
+    /**
+     * @return the message of the error that stopped {@link #complete()}
+     */
+    String error() {
+        if (conversionError != null) {
+            return conversionError;
+        }
+        return evaluationError != null ? evaluationError : "Invalid expression";
+    }
+
+    /** Drops all operands. */
+    abstract void clearOperands();
+
+    /**
+     * Parses a number into a holding slot, to be pushed by {@link #pushParsed()}.
+     *
+     * @return false if the range is not a number
+     */
+    abstract boolean parseNumber(CharSequence text, int start, int end);
+
+    /**
+     * Parses number token {@code i} into the holding slot. This implementation parses the token's
+     * characters again; backends that compute with the tokenizer's {@code double} value use it directly.
+     *
+     * @return false if the token is not a number
+     */
+    boolean parseNumber(TokenStream tokens, int i) {
+        return !Double.isNaN(tokens.value(i)) && parseNumber(tokens.source(), tokens.start(i), tokens.end(i));
+    }
+
+    /**
+     * Resolves a variable into the holding slot. This implementation takes no variables.
+     *
+     * @return false if the range does not name a variable
+     */
+    boolean parseVariable(CharSequence text, int start, int end) {
+        return false;
+    }
+
+    /** Pushes the operand last parsed by {@link #parseNumber} or {@link #parseVariable}. */
+    abstract void pushParsed();
+
+    abstract int operandCount();
+
+    /**
+     * Replaces the top two operands {@code a, b} with {@code a op b}.
+     *
+     * @return an error message, or {@code null} on success
+     */
+    abstract String combine(byte operator);
+
+    static byte operatorCode(char operator) {
+        return switch (operator) {
+            case '+' -> CompiledExpression.ADD;
+            case '-' -> CompiledExpression.SUBTRACT;
+            case '*' -> CompiledExpression.MULTIPLY;
+            default -> CompiledExpression.DIVIDE;
+        };
+    }
+
+    private void apply(byte operator) {
+        if (evaluationError != null) {
+            return;
+        }
+        if (operandCount() < 2) {
+            evaluationError = "Invalid expression";
+            return;
+        }
+        evaluationError = combine(operator);
+    }
+
+    private void push(byte operator) {
+        if (operatorCount == operators.length) {
+            operators = Arrays.copyOf(operators, operatorCount * 2);
+        }
+        operators[operatorCount++] = operator;
+    }
+
+    private static int precedence(byte operator) {
+        return switch (operator) {
+            case CompiledExpression.ADD, CompiledExpression.SUBTRACT -> 1;
+            case CompiledExpression.MULTIPLY, CompiledExpression.DIVIDE -> 2;
+            default -> 0;
+        };
+    }
+}
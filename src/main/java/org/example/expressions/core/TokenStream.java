@@ -0,0 +1,133 @@
+package org.example.expressions.core;
+
+import java.util.Arrays;
+
+/**
+ * Tokens of an arithmetic expression kept in parallel primitive arrays.
+ * <p>
+ * Each token has a kind, a {@code [start, end)} range in the source text and, for numbers,
+ * the value parsed while tokenizing ({@code NaN} if the token is malformed). A stream is filled by
+ * {@link ExpressionParser#tokenize(CharSequence, int, int, TokenStream)} and can be passed to both
+ * {@link ExpressionValidator#isPotentialExpression(TokenStream)} and
+ * {@link ExpressionEvaluator#evalExpression(TokenStream, StringBuilder)}, so a candidate is tokenized once.
+ * </p>
+ * <p>
+ * The stream only refers to its source text, which must not change while the tokens are in use.
+ * It can be refilled any number of times; the arrays grow as needed and are never shrunk, so a stream
+ * reused across calls stops allocating once it has seen its longest expression. Streams are not thread-safe.
+ * </p>
+ */
+public final class TokenStream {
+
+    public static final byte NUMBER = 0;
+    public static final byte OPERATOR = 1;
+    public static final byte OPEN_PAREN = 2;
+    public static final byte CLOSE_PAREN = 3;
+
+    private byte[] kinds = new byte[16];
+    private int[] starts = new int[16];
+    private int[] ends = new int[16];
+    private double[] values = new double[16];
+    private int count;
+
+    private CharSequence source = "";
+    private int sourceStart;
+    private int sourceEnd;
+    private int unknownIndex = -1;
+
+    void reset(CharSequence source, int start, int end) {
+        this.source = source;
+        this.sourceStart = start;
+        this.sourceEnd = end;
+        this.count = 0;
+        this.unknownIndex = -1;
+    }
+
+    void add(byte kind, int start, int end, double value) {
+        if (count == kinds.length) {
+            int capacity = count * 2;
+            kinds = Arrays.copyOf(kinds, capacity);
+            starts = Arrays.copyOf(starts, capacity);
+            ends = Arrays.copyOf(ends, capacity);
+            values = Arrays.copyOf(values, capacity);
+        }
+        kinds[count] = kind;
+        starts[count] = start;
+        ends[count] = end;
+        values[count] = value;
+        count++;
+    }
+
+    void fail(int index) {
+        unknownIndex = index;
+    }
+
+    /**
+     * @return the number of tokens read before tokenizing stopped
+     */
+    public int size() {
+        return count;
+    }
+
+    public byte kind(int i) {
+        return kinds[i];
+    }
+
+    public int start(int i) {
+        return starts[i];
+    }
+
+    public int end(int i) {
+        return ends[i];
+    }
+
+    /**
+     * @return the parsed value of a number token, or {@code NaN} if it is malformed
+     */
+    public double value(int i) {
+        return values[i];
+    }
+
+    /**
+     * @return the operator character of an {@link #OPERATOR} token
+     */
+    public char operator(int i) {
+        return source.charAt(starts[i]);
+    }
+
+    /**
+     * Returns the token as {@link ExpressionParser#tokenize(String)} would list it.
+     * This is the only accessor that allocates.
+     */
+    public String text(int i) {
+        return kinds[i] == NUMBER
+                ? MathUtils.stripWhitespace(source, starts[i], ends[i])
+                : String.valueOf(source.charAt(starts[i]));
+    }
+
+    /**
+     * @return true if every character of the source was accepted by the tokenizer
+     */
+    public boolean isTokenized() {
+        return unknownIndex < 0;
+    }
+
+    /**
+     * @return the first character the tokenizer rejected; only meaningful if {@link #isTokenized()} is false
+     */
+    public char unknownSymbol() {
+        return source.charAt(unknownIndex);
+    }
+
+    public CharSequence source() {
+        return source;
+    }
+
+    public int sourceStart() {
+        return sourceStart;
+    }
+
+    public int sourceEnd() {
+        return sourceEnd;
+    }
+}
@@ -0,0 +1,37 @@
+package org.example.expressions.factory;
+
+import org.example.expressions.processors.AdaptiveExpressionProcessor;
+import org.example.expressions.processors.AdaptiveExpressionProcessor.EngineChoices;
+import org.example.expressions.processors.ConcurrentExpressionProcessor;
+import org.example.expressions.processors.ExpressionProcessor;
+import org.example.expressions.processors.ManualExpressionProcessor;
+import org.example.expressions.processors.RegexExpressionProcessor;
+
+/**
+ * Creates processors that choose between the manual and the regex engine for every chunk.
+ * All processors created by one factory count their choices in the same {@link EngineChoices}.
+ */
+public class AdaptiveExpressionProcessorFactory extends ExpressionProcessorFactory {
+
+    private final EngineChoices choices = new EngineChoices();
+
+    @Override
+    public ExpressionProcessor createProcessor() {
+        return new AdaptiveExpressionProcessor(
+                new ManualExpressionProcessor(createEvaluator(), createValidator(), planSavings()),
+                new RegexExpressionProcessor(createEvaluator(), createValidator()),
+                choices);
+    }
+
+    @Override
+    public ExpressionProcessor createConcurrentProcessor() {
+        return new AdaptiveExpressionProcessor(
+                new ConcurrentExpressionProcessor(new ManualExpressionProcessor(createEvaluator(), createValidator(), planSavings())),
+                new ConcurrentExpressionProcessor(new RegexExpressionProcessor(createEvaluator(), createValidator())),
+                choices);
+    }
+
+    public EngineChoices choices() {
+        return choices;
+    }
+}
@@ -1,20 +1,100 @@
 package org.example.expressions.factory;
 
-import org.example.expressions.core.ExpressionConverter;
+import org.example.expressions.cache.CachingExpressionEvaluator;
+import org.example.expressions.cache.ExpressionCache;
 import org.example.expressions.core.ExpressionEvaluator;
 import org.example.expressions.core.ExpressionParser;
 import org.example.expressions.core.ExpressionValidator;
+import org.example.expressions.core.FusedExpressionEvaluator;
+import org.example.expressions.core.NumericBackend;
+import org.example.expressions.metrics.ExpressionMetrics;
+import org.example.expressions.metrics.InstrumentedExpressionEvaluator;
+import org.example.expressions.processors.ConcurrentExpressionProcessor;
+import org.example.expressions.processors.EvaluationPlan;
 import org.example.expressions.processors.ExpressionProcessor;
 
 public abstract class ExpressionProcessorFactory {
+    private ExpressionCache cache;
+    private ExpressionMetrics metrics;
+    private NumericBackend numericBackend = NumericBackend.DOUBLE;
+    private EvaluationPlan.Savings planSavings;
+
     public abstract ExpressionProcessor createProcessor();
 
+    /**
+     * Creates a processor meant to be shared by many threads, which reuses its working buffers per thread.
+     *
+     * @return a {@link ConcurrentExpressionProcessor} around a new processor of this factory
+     */
+    public ExpressionProcessor createConcurrentProcessor() {
+        return new ConcurrentExpressionProcessor(createProcessor());
+    }
+
+    /**
+     * Puts the given cache in front of the evaluator of every processor created afterwards.
+     * The cache is thread-safe, so processors created by this factory may share it.
+     *
+     * @param cache the cache to use, or {@code null} to evaluate every expression from scratch
+     * @return this factory
+     */
+    public ExpressionProcessorFactory withCache(ExpressionCache cache) {
+        this.cache = cache;
+        return this;
+    }
+
+    /**
+     * Records evaluation latency and errors of every processor created afterwards in the given metrics.
+     * Cache hits are timed as well. Wrap the created processors in an
+     * {@link org.example.expressions.metrics.InstrumentedExpressionProcessor} to get per-document figures.
+     *
+     * @param metrics the metrics to record into, or {@code null} for no instrumentation
+     * @return this factory
+     */
+    public ExpressionProcessorFactory withMetrics(ExpressionMetrics metrics) {
+        this.metrics = metrics;
+        return this;
+    }
+
+    /**
+     * Computes with the given backend in every processor created afterwards.
+     * A cache holds formatted results, so it must not be shared with a factory using another backend.
+     *
+     * @param backend the number representation to compute with
+     * @return this factory
+     */
+    public ExpressionProcessorFactory withNumericBackend(NumericBackend backend) {
+        this.numericBackend = backend;
+        return this;
+    }
+
+    /**
+     * Makes processors created afterwards evaluate identical sub-expressions of a document once
+     * (see {@link EvaluationPlan}). Only processors using the manual engine plan their evaluations.
+     *
+     * @param savings totals of candidate expressions and saved evaluations, or {@code null} to turn planning off
+     * @return this factory
+     */
+    public ExpressionProcessorFactory withEvaluationPlan(EvaluationPlan.Savings savings) {
+        this.planSavings = savings;
+        return this;
+    }
+
+    protected EvaluationPlan.Savings planSavings() {
+        return planSavings;
+    }
+
     protected ExpressionEvaluator createEvaluator() {
-        return new ExpressionEvaluator(new ExpressionParser(), new ExpressionConverter());
+        ExpressionEvaluator evaluator = new FusedExpressionEvaluator(numericBackend);
+        if (cache != null) {
+            evaluator = new CachingExpressionEvaluator(evaluator, cache);
+        }
+        if (metrics != null) {
+            evaluator = new InstrumentedExpressionEvaluator(evaluator, metrics);
+        }
+        return evaluator;
     }
 
     protected ExpressionValidator createValidator() {
         return new ExpressionValidator(new ExpressionParser());
     }
 }
-
@@ -6,6 +6,6 @@ import org.example.expressions.processors.ManualExpressionProcessor;
 public class ManualExpressionProcessorFactory extends ExpressionProcessorFactory {
     @Override
     public ExpressionProcessor createProcessor() {
-        return new ManualExpressionProcessor(createEvaluator(), createValidator());
+        return new ManualExpressionProcessor(createEvaluator(), createValidator(), planSavings());
     }
 }
@@ -0,0 +1,52 @@
+package org.example.expressions.metrics;
+
+/**
+ * Kinds of evaluation errors, derived from the {@code EvaluationException} message
+ * embedded in an {@code [ERROR: ...]} result.
+ */
+public enum ErrorCategory {
+    UNKNOWN_SYMBOL("Unknown operator or symbol"),
+    MISMATCHED_PARENTHESES("Mismatched parentheses"),
+    INVALID_EXPRESSION("Invalid expression"),
+    DIVISION_BY_ZERO("Division by zero"),
+    OTHER("");
+
+    private static final String ERROR_PREFIX = "[ERROR: ";
+    private static final ErrorCategory[] KNOWN = {UNKNOWN_SYMBOL, MISMATCHED_PARENTHESES, INVALID_EXPRESSION, DIVISION_BY_ZERO};
+
+    private final String messagePrefix;
+
+    ErrorCategory(String messagePrefix) {
+        this.messagePrefix = messagePrefix;
+    }
+
+    /**
+     * Classifies the evaluator result in {@code result[start, end)} without copying it.
+     *
+     * @return the error category, or {@code null} if the result is not an error marker
+     */
+    public static ErrorCategory classify(CharSequence result, int start, int end) {
+        if (!regionMatches(result, start, end, ERROR_PREFIX)) {
+            return null;
+        }
+        int messageStart = start + ERROR_PREFIX.length();
+        for (ErrorCategory category : KNOWN) {
+            if (regionMatches(result, messageStart, end, category.messagePrefix)) {
+                return category;
+            }
+        }
+        return OTHER;
+    }
+
+    private static boolean regionMatches(CharSequence text, int start, int end, String prefix) {
+        if (end - start < prefix.length()) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            if (text.charAt(start + i) != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,260 @@
+package org.example.expressions.metrics;
+
+import org.example.expressions.cache.ExpressionCache;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and histograms filled by {@link InstrumentedExpressionProcessor} and
+ * {@link InstrumentedExpressionEvaluator}.
+ * <p>
+ * A <em>document</em> is one call of an instrumented processor; expressions and errors are attributed to it
+ * when the instrumented evaluator runs on the same thread during that call. All updates are lock-free.
+ * When the metrics are disabled the instrumented wrappers only read one volatile flag and call straight
+ * through, without timing, allocating or locking.
+ * </p>
+ * <p>
+ * The metrics can be published through JMX with {@link #register()} and rendered as text with {@link #snapshot()}.
+ * </p>
+ */
+public class ExpressionMetrics implements ExpressionMetricsMXBean {
+
+    public static final String OBJECT_NAME = "org.example.expressions:type=ExpressionMetrics";
+
+    private static final int EXPRESSIONS = 0;
+    private static final int ERRORS = 1;
+
+    private volatile boolean enabled = true;
+    private volatile ExpressionCache cache;
+
+    private final LongAdder documents = new LongAdder();
+    private final LongAdder expressions = new LongAdder();
+    private final LongAdder charactersIn = new LongAdder();
+    private final LongAdder charactersOut = new LongAdder();
+    private final LongAdder[] errors = new LongAdder[ErrorCategory.values().length];
+    private final Histogram evaluationNanos = new Histogram();
+    private final Histogram documentNanos = new Histogram();
+    private final Histogram expressionsPerDocument = new Histogram();
+    private final Histogram errorsPerDocument = new Histogram();
+
+    /** Running expression and error counts of the current thread, used to attribute them to documents. */
+    private final ThreadLocal<long[]> threadCounts = ThreadLocal.withInitial(() -> new long[2]);
+
+    public ExpressionMetrics() {
+        for (int i = 0; i < errors.length; i++) {
+            errors[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Includes the hit and miss counters of the cache in the metrics.
+     *
+     * @param cache the cache used by the instrumented evaluators, or {@code null}
+     * @return this metrics instance
+     */
+    public ExpressionMetrics withCache(ExpressionCache cache) {
+        this.cache = cache;
+        return this;
+    }
+
+    /**
+     * Registers these metrics with the platform MBean server under {@link #OBJECT_NAME},
+     * replacing an instance registered earlier.
+     */
+    public void register() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+            server.registerMBean(this, name);
+        } catch (JMException e) {
+            throw new IllegalStateException("Cannot register metrics MBean", e);
+        }
+    }
+
+    void recordEvaluation(long nanos, ErrorCategory error) {
+        long[] counts = threadCounts.get();
+        counts[EXPRESSIONS]++;
+        expressions.increment();
+        evaluationNanos.record(nanos);
+        if (error != null) {
+            counts[ERRORS]++;
+            errors[error.ordinal()].increment();
+        }
+    }
+
+    /**
+     * @return the current thread's running counts, to be passed back to {@link #recordDocument}
+     */
+    long[] documentStart() {
+        long[] counts = threadCounts.get();
+        return new long[]{counts[EXPRESSIONS], counts[ERRORS]};
+    }
+
+    void recordDocument(long[] start, long nanos, int inputLength, int outputLength) {
+        long[] counts = threadCounts.get();
+        documents.increment();
+        charactersIn.add(inputLength);
+        charactersOut.add(outputLength);
+        documentNanos.record(nanos);
+        expressionsPerDocument.record(counts[EXPRESSIONS] - start[EXPRESSIONS]);
+        errorsPerDocument.record(counts[ERRORS] - start[ERRORS]);
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    @Override
+    public long getDocuments() {
+        return documents.sum();
+    }
+
+    @Override
+    public long getExpressions() {
+        return expressions.sum();
+    }
+
+    @Override
+    public long getErrors() {
+        long total = 0;
+        for (LongAdder error : errors) {
+            total += error.sum();
+        }
+        return total;
+    }
+
+    public long getErrors(ErrorCategory category) {
+        return errors[category.ordinal()].sum();
+    }
+
+    @Override
+    public Map<String, Long> getErrorsByCategory() {
+        Map<String, Long> result = new LinkedHashMap<>();
+        for (ErrorCategory category : ErrorCategory.values()) {
+            result.put(category.name(), getErrors(category));
+        }
+        return result;
+    }
+
+    @Override
+    public long getCharactersIn() {
+        return charactersIn.sum();
+    }
+
+    @Override
+    public long getCharactersOut() {
+        return charactersOut.sum();
+    }
+
+    @Override
+    public long getEvaluationLatencyP50Nanos() {
+        return evaluationNanos.percentile(50);
+    }
+
+    @Override
+    public long getEvaluationLatencyP99Nanos() {
+        return evaluationNanos.percentile(99);
+    }
+
+    @Override
+    public long getEvaluationLatencyMaxNanos() {
+        return evaluationNanos.max();
+    }
+
+    @Override
+    public long getDocumentLatencyP50Micros() {
+        return documentNanos.percentile(50) / 1_000;
+    }
+
+    @Override
+    public long getDocumentLatencyP99Micros() {
+        return documentNanos.percentile(99) / 1_000;
+    }
+
+    @Override
+    public long getDocumentLatencyMaxMicros() {
+        return documentNanos.max() / 1_000;
+    }
+
+    @Override
+    public long getMaxExpressionsPerDocument() {
+        return expressionsPerDocument.max();
+    }
+
+    @Override
+    public long getMaxErrorsPerDocument() {
+        return errorsPerDocument.max();
+    }
+
+    @Override
+    public long getCacheHits() {
+        ExpressionCache current = cache;
+        return current == null ? 0 : current.hits();
+    }
+
+    @Override
+    public long getCacheMisses() {
+        ExpressionCache current = cache;
+        return current == null ? 0 : current.misses();
+    }
+
+    @Override
+    public String getSnapshot() {
+        return snapshot();
+    }
+
+    /**
+     * Clears all counters and histograms. Updates running at the same time may be partly lost.
+     */
+    @Override
+    public void reset() {
+        documents.reset();
+        expressions.reset();
+        charactersIn.reset();
+        charactersOut.reset();
+        for (LongAdder error : errors) {
+            error.reset();
+        }
+        evaluationNanos.reset();
+        documentNanos.reset();
+        expressionsPerDocument.reset();
+        errorsPerDocument.reset();
+    }
+
+    /**
+     * @return a multi-line text rendering of all metrics
+     */
+    public String snapshot() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("documents=").append(getDocuments())
+                .append(" expressions=").append(getExpressions())
+                .append(" errors=").append(getErrors())
+                .append(" chars in=").append(getCharactersIn())
+                .append(" out=").append(getCharactersOut()).append('\n');
+        sb.append("  errors by category: ").append(getErrorsByCategory()).append('\n');
+        sb.append("  evaluation latency (ns): ").append(evaluationNanos.summary(1)).append('\n');
+        sb.append("  document latency (us): ").append(documentNanos.summary(1_000)).append('\n');
+        sb.append("  expressions per document: ").append(expressionsPerDocument.summary(1)).append('\n');
+        sb.append("  errors per document: ").append(errorsPerDocument.summary(1));
+        ExpressionCache current = cache;
+        if (current != null) {
+            sb.append('\n').append("  cache: ").append(current);
+        }
+        return sb.toString();
+    }
+}
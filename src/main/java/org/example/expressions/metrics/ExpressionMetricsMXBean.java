@@ -0,0 +1,50 @@
+package org.example.expressions.metrics;
+
+import java.util.Map;
+
+/**
+ * JMX view of {@link ExpressionMetrics}. Latencies are reported as upper estimates
+ * of power-of-two histogram buckets.
+ */
+public interface ExpressionMetricsMXBean {
+
+    boolean isEnabled();
+
+    void setEnabled(boolean enabled);
+
+    long getDocuments();
+
+    long getExpressions();
+
+    long getErrors();
+
+    Map<String, Long> getErrorsByCategory();
+
+    long getCharactersIn();
+
+    long getCharactersOut();
+
+    long getEvaluationLatencyP50Nanos();
+
+    long getEvaluationLatencyP99Nanos();
+
+    long getEvaluationLatencyMaxNanos();
+
+    long getDocumentLatencyP50Micros();
+
+    long getDocumentLatencyP99Micros();
+
+    long getDocumentLatencyMaxMicros();
+
+    long getMaxExpressionsPerDocument();
+
+    long getMaxErrorsPerDocument();
+
+    long getCacheHits();
+
+    long getCacheMisses();
+
+    String getSnapshot();
+
+    void reset();
+}
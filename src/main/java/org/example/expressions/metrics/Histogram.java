@@ -0,0 +1,89 @@
+package org.example.expressions.metrics;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free histogram of non-negative values with power-of-two buckets.
+ * <p>
+ * Bucket {@code i} counts values whose highest set bit is {@code i - 1}, i.e. values in
+ * {@code [2^(i-1), 2^i)}, and bucket 0 counts zeros. Percentiles are therefore reported as the
+ * upper bound of a bucket (capped at the maximum seen), which is within a factor of two of the
+ * true value and good enough to tell microseconds from milliseconds.
+ * </p>
+ */
+public class Histogram {
+
+    private static final int BUCKETS = 65;
+
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    public Histogram() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    public void record(long value) {
+        long v = Math.max(0, value);
+        buckets[64 - Long.numberOfLeadingZeros(v)].increment();
+        count.increment();
+        sum.add(v);
+        max.accumulate(v);
+    }
+
+    public long count() {
+        return count.sum();
+    }
+
+    public long max() {
+        return max.get();
+    }
+
+    public double mean() {
+        long n = count.sum();
+        return n == 0 ? 0 : (double) sum.sum() / n;
+    }
+
+    /**
+     * @param percentile the percentile in {@code (0, 100]}
+     * @return an upper estimate of the value below which the given share of recorded values fall
+     */
+    public long percentile(double percentile) {
+        long n = count.sum();
+        if (n == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(n * percentile / 100.0);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += buckets[i].sum();
+            if (seen >= rank) {
+                long upper = i == 0 ? 0 : i == 64 ? Long.MAX_VALUE : (1L << i) - 1;
+                return Math.min(upper, max());
+            }
+        }
+        return max();
+    }
+
+    public void reset() {
+        for (LongAdder bucket : buckets) {
+            bucket.reset();
+        }
+        count.reset();
+        sum.reset();
+        max.reset();
+    }
+
+    /**
+     * @return count, mean, p50/p90/p99 and max, with values divided by {@code scale}
+     */
+    public String summary(long scale) {
+        return String.format("n=%d mean=%.1f p50=%d p90=%d p99=%d max=%d",
+                count(), mean() / scale, percentile(50) / scale, percentile(90) / scale,
+                percentile(99) / scale, max() / scale);
+    }
+}
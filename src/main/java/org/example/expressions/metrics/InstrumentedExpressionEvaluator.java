@@ -0,0 +1,60 @@
+package org.example.expressions.metrics;
+
+import org.example.expressions.core.CompiledExpression;
+import org.example.expressions.core.EvaluationException;
+import org.example.expressions.core.ExpressionEvaluator;
+import org.example.expressions.core.TokenStream;
+
+/**
+ * Evaluator that times every evaluation of another evaluator and counts its errors by category.
+ */
+public class InstrumentedExpressionEvaluator extends ExpressionEvaluator {
+
+    private final ExpressionEvaluator delegate;
+    private final ExpressionMetrics metrics;
+
+    public InstrumentedExpressionEvaluator(ExpressionEvaluator delegate, ExpressionMetrics metrics) {
+        this.delegate = delegate;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public String evalExpression(String expr) {
+        if (!metrics.isEnabled()) {
+            return delegate.evalExpression(expr);
+        }
+        long start = System.nanoTime();
+        String result = delegate.evalExpression(expr);
+        metrics.recordEvaluation(System.nanoTime() - start, ErrorCategory.classify(result, 0, result.length()));
+        return result;
+    }
+
+    @Override
+    public void evalExpression(CharSequence text, int start, int end, StringBuilder out) {
+        if (!metrics.isEnabled()) {
+            delegate.evalExpression(text, start, end, out);
+            return;
+        }
+        int mark = out.length();
+        long begin = System.nanoTime();
+        delegate.evalExpression(text, start, end, out);
+        metrics.recordEvaluation(System.nanoTime() - begin, ErrorCategory.classify(out, mark, out.length()));
+    }
+
+    @Override
+    public void evalExpression(TokenStream tokens, StringBuilder out) {
+        if (!metrics.isEnabled()) {
+            delegate.evalExpression(tokens, out);
+            return;
+        }
+        int mark = out.length();
+        long begin = System.nanoTime();
+        delegate.evalExpression(tokens, out);
+        metrics.recordEvaluation(System.nanoTime() - begin, ErrorCategory.classify(out, mark, out.length()));
+    }
+
+    @Override
+    public CompiledExpression compile(String expr) throws EvaluationException {
+        return delegate.compile(expr);
+    }
+}
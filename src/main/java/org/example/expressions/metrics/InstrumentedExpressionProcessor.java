@@ -0,0 +1,35 @@
+package org.example.expressions.metrics;
+
+import org.example.expressions.processors.ExpressionProcessor;
+
+/**
+ * Processor that records the latency, size and expression counts of every call to another processor.
+ * <p>
+ * Expressions and errors are attributed to the call when the processor's evaluator is an
+ * {@link InstrumentedExpressionEvaluator} sharing the same metrics and running on the calling thread.
+ * Wrap the innermost processor (the one that evaluates) to get per-chunk or per-segment figures
+ * under streaming and parallel processing.
+ * </p>
+ */
+public class InstrumentedExpressionProcessor implements ExpressionProcessor {
+
+    private final ExpressionProcessor delegate;
+    private final ExpressionMetrics metrics;
+
+    public InstrumentedExpressionProcessor(ExpressionProcessor delegate, ExpressionMetrics metrics) {
+        this.delegate = delegate;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public String process(String input) {
+        if (!metrics.isEnabled() || input == null) {
+            return delegate.process(input);
+        }
+        long[] counts = metrics.documentStart();
+        long start = System.nanoTime();
+        String result = delegate.process(input);
+        metrics.recordDocument(counts, System.nanoTime() - start, input.length(), result.length());
+        return result;
+    }
+}
@@ -0,0 +1,48 @@
+package org.example.expressions.metrics;
+
+import java.io.PrintStream;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Prints a {@link ExpressionMetrics#snapshot()} at a fixed period on a daemon thread,
+ * and a final one when closed.
+ */
+public class MetricsReporter implements AutoCloseable {
+
+    private final ExpressionMetrics metrics;
+    private final PrintStream out;
+    private final ScheduledExecutorService scheduler;
+
+    private MetricsReporter(ExpressionMetrics metrics, PrintStream out) {
+        this.metrics = metrics;
+        this.out = out;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform()
+                .name("metrics-reporter").daemon().factory());
+    }
+
+    /**
+     * Creates a reporter and schedules its first report {@code periodSeconds} from now.
+     */
+    public static MetricsReporter start(ExpressionMetrics metrics, PrintStream out, long periodSeconds) {
+        if (periodSeconds <= 0) {
+            throw new IllegalArgumentException("Report period must be positive: " + periodSeconds);
+        }
+        MetricsReporter reporter = new MetricsReporter(metrics, out);
+        reporter.scheduler.scheduleAtFixedRate(reporter::report, periodSeconds, periodSeconds, TimeUnit.SECONDS);
+        return reporter;
+    }
+
+    public void report() {
+        out.println("[metrics " + LocalTime.now().truncatedTo(ChronoUnit.SECONDS) + "] " + metrics.snapshot());
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+        report();
+    }
+}
@@ -0,0 +1,233 @@
+package org.example.expressions.processors;
+
+import org.example.expressions.core.MathUtils;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Expression processor that picks the manual or the regex engine for each call (i.e. for each chunk
+ * or segment when wrapped by the streaming or parallel processor) from a cheap profile of the input.
+ * <p>
+ * The manual engine is about three times faster on ordinary text, but two input shapes make it
+ * quadratic: deeply nested groups whose content it re-tokenizes at every level, and long runs of
+ * operators that fail validation, which it retries from every start position. The regex engine
+ * stays linear on both. The profiler makes one pass over the input that estimates that extra work
+ * and compares the estimated cost of both engines:
+ * </p>
+ * <ul>
+ *   <li>manual: {@value #MANUAL_NANOS_PER_CHAR} ns per character plus {@value #MANUAL_NANOS_PER_RESCAN} ns
+ *       per character re-scanned,</li>
+ *   <li>regex: {@value #REGEX_NANOS_PER_CHAR} ns per character.</li>
+ * </ul>
+ * <p>
+ * The constants come from the processor benchmark; only their ratios matter. The two engines agree on
+ * ordinary input, but where their rules differ each chunk follows the rules of the engine chosen for it.
+ * Choices are counted in an {@link EngineChoices} instance that can be shared by several processors.
+ * The processor is thread-safe if both engines are.
+ * </p>
+ */
+public class AdaptiveExpressionProcessor implements ExpressionProcessor {
+
+    static final long MANUAL_NANOS_PER_CHAR = 12;
+    static final long MANUAL_NANOS_PER_RESCAN = 3;
+    static final long REGEX_NANOS_PER_CHAR = 37;
+
+    /** Runs of operators shorter than this are re-scanned too little to matter. */
+    private static final int SHORT_RUN = 64;
+
+    /** Expected length of a group's result, which is what its parent re-scans once it is evaluated. */
+    private static final int RESULT_LENGTH = 4;
+
+    private static final byte DIGIT = 0;
+    private static final byte OPERATOR = 1;
+    private static final byte DOT = 2;
+    private static final byte SPACE = 3;
+    private static final byte OPEN = 4;
+    private static final byte CLOSE = 5;
+    private static final byte OTHER = 6;
+    private static final byte[] CHARACTER_TYPES = new byte[128];
+
+    private static final byte HAS_NUMBER = 1;
+    private static final byte HAS_OPERATOR = 2;
+    private static final byte NOT_TOKENIZABLE = 4;
+
+    static {
+        for (char c = 0; c < 128; c++) {
+            CHARACTER_TYPES[c] = Character.isDigit(c) ? DIGIT
+                    : MathUtils.isOperator(c) ? OPERATOR
+                    : c == '.' ? DOT
+                    : Character.isWhitespace(c) ? SPACE
+                    : c == '(' ? OPEN
+                    : c == ')' ? CLOSE
+                    : OTHER;
+        }
+    }
+
+    private final ExpressionProcessor manual;
+    private final ExpressionProcessor regex;
+    private final EngineChoices choices;
+
+    public AdaptiveExpressionProcessor(ExpressionProcessor manual, ExpressionProcessor regex,
+                                       EngineChoices choices) {
+        this.manual = manual;
+        this.regex = regex;
+        this.choices = choices;
+    }
+
+    /**
+     * Processes the input with the engine that is estimated to be faster for it.
+     *
+     * @param input the input text containing potential mathematical expressions
+     * @return the processed text
+     */
+    @Override
+    public String process(String input) {
+        if (input == null || input.isEmpty()) {
+            return input;
+        }
+        if (prefersRegex(input)) {
+            choices.regex(input.length());
+            return regex.process(input);
+        }
+        choices.manual(input.length());
+        return manual.process(input);
+    }
+
+    /**
+     * Estimates both engines' cost for the text.
+     *
+     * @return true if the regex engine is expected to be faster
+     */
+    boolean prefersRegex(CharSequence text) {
+        long rescans = estimateManualRescans(text);
+        long manualCost = MANUAL_NANOS_PER_CHAR * text.length() + MANUAL_NANOS_PER_RESCAN * rescans;
+        return REGEX_NANOS_PER_CHAR * text.length() < manualCost;
+    }
+
+    /**
+     * Counts the characters the manual engine scans more than once: the content of every group it
+     * re-tokenizes, and half the square of every long run of operators without a number, which fails
+     * validation from every start position.
+     * <p>
+     * A group with an operator of its own is expected to be replaced by a short result, so its parent
+     * re-scans only that result; a group without one (such as {@code ((1 + 1))}) stays in the text,
+     * and every enclosing level re-scans it again.
+     * </p>
+     */
+    long estimateManualRescans(CharSequence text) {
+        long rescans = 0;
+        int[] length = new int[16];
+        byte[] flags = new byte[16];
+        int depth = 0;
+        int runStart = -1;
+        boolean runHasOperator = false;
+        boolean runHasDigit = false;
+
+        int n = text.length();
+        for (int i = 0; i <= n; i++) {
+            byte type = i < n ? classify(text.charAt(i)) : OTHER;
+            if (type == OTHER && depth == 0 && runStart < 0) {
+                continue;
+            }
+            if (depth > 0) {
+                switch (type) {
+                    case OPEN -> { }
+                    case CLOSE -> {
+                        depth--;
+                        int content = length[depth];
+                        byte group = flags[depth];
+                        boolean tokenizable = (group & NOT_TOKENIZABLE) == 0;
+                        if (tokenizable) {
+                            rescans += content;
+                        }
+                        if (depth > 0) {
+                            if (tokenizable && (group & HAS_OPERATOR) != 0 && (group & HAS_NUMBER) != 0) {
+                                length[depth - 1] += RESULT_LENGTH;
+                                flags[depth - 1] |= HAS_NUMBER;
+                            } else {
+                                length[depth - 1] += content + 2;
+                                flags[depth - 1] |= group;
+                            }
+                        }
+                    }
+                    default -> {
+                        length[depth - 1]++;
+                        flags[depth - 1] |= switch (type) {
+                            case DIGIT -> HAS_NUMBER;
+                            case OPERATOR -> HAS_OPERATOR;
+                            case DOT, SPACE -> (byte) 0;
+                            default -> NOT_TOKENIZABLE;
+                        };
+                    }
+                }
+            }
+            if (type == OPEN) {
+                if (depth == length.length) {
+                    length = Arrays.copyOf(length, depth * 2);
+                    flags = Arrays.copyOf(flags, depth * 2);
+                }
+                length[depth] = 0;
+                flags[depth++] = 0;
+            }
+
+            if (type <= SPACE) {
+                if (runStart < 0) {
+                    runStart = i;
+                    runHasOperator = false;
+                    runHasDigit = false;
+                }
+                runHasOperator |= type == OPERATOR;
+                runHasDigit |= type == DIGIT;
+            } else if (runStart >= 0) {
+                long run = i - runStart;
+                if (runHasOperator && !runHasDigit && run > SHORT_RUN) {
+                    rescans += run * run / 2;
+                }
+                runStart = -1;
+            }
+        }
+        return rescans;
+    }
+
+    private static byte classify(char c) {
+        if (c >= 128) {
+            return Character.isWhitespace(c) ? SPACE : Character.isDigit(c) ? DIGIT : OTHER;
+        }
+        return CHARACTER_TYPES[c];
+    }
+
+    /**
+     * Thread-safe counts of the chunks and characters given to each engine.
+     */
+    public static final class EngineChoices {
+        private final LongAdder manualChunks = new LongAdder();
+        private final LongAdder manualChars = new LongAdder();
+        private final LongAdder regexChunks = new LongAdder();
+        private final LongAdder regexChars = new LongAdder();
+
+        void manual(int length) {
+            manualChunks.increment();
+            manualChars.add(length);
+        }
+
+        void regex(int length) {
+            regexChunks.increment();
+            regexChars.add(length);
+        }
+
+        public long manualChunks() {
+            return manualChunks.sum();
+        }
+
+        public long regexChunks() {
+            return regexChunks.sum();
+        }
+
+        @Override
+        public String toString() {
+            return "manual=" + manualChunks.sum() + " chunks (" + manualChars.sum() + " chars), regex="
+                    + regexChunks.sum() + " chunks (" + regexChars.sum() + " chars)";
+        }
+    }
+}
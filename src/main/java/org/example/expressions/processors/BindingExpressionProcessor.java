@@ -0,0 +1,95 @@
+package org.example.expressions.processors;
+
+import org.example.expressions.core.MathUtils;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Processor that substitutes the values of bound variables into the text and then processes it with
+ * another processor, so that {@code "Total: price * qty."} with {@code price = 12.5} and {@code qty = 4}
+ * becomes {@code "Total: 50."}.
+ * <p>
+ * A variable is replaced wherever its name occurs as a whole word, i.e. not preceded or followed by a
+ * letter, digit or underscore, also outside expressions. Words that are not bound are left alone and,
+ * as before, end an expression. Values are written in plain decimal notation, so the result is the same
+ * as if the numbers had been written in the text. Values are converted to text once, when the processor
+ * is created; create a new processor (which is cheap) to process with other values. To evaluate one
+ * formula with many sets of values without any text processing, compile it as an
+ * {@link org.example.expressions.core.ExpressionTemplate}.
+ * </p>
+ * <p>
+ * Substitution needs to see whole words, so this processor must wrap the processing of a document
+ * rather than be applied to the chunks a document is split into: a chunk boundary may fall inside a word.
+ * The processor is thread-safe if the wrapped processor is.
+ * </p>
+ */
+public class BindingExpressionProcessor implements ExpressionProcessor {
+
+    private final ExpressionProcessor processor;
+    private final Map<String, String> values = new HashMap<>();
+
+    /**
+     * @param processor processes the text after substitution
+     * @param bindings  values by variable name
+     * @throws IllegalArgumentException if a name is not a valid variable name or a value is not finite
+     */
+    public BindingExpressionProcessor(ExpressionProcessor processor, Map<String, ? extends Number> bindings) {
+        this.processor = processor;
+        bindings.forEach((name, value) -> {
+            if (!MathUtils.isIdentifier(name)) {
+                throw new IllegalArgumentException("Not a variable name: '" + name + "'");
+            }
+            if (!Double.isFinite(value.doubleValue())) {
+                throw new IllegalArgumentException("Variable '" + name + "' is not a finite number: " + value);
+            }
+            values.put(name, new BigDecimal(value.toString()).toPlainString());
+        });
+    }
+
+    @Override
+    public String process(String input) {
+        if (input == null || input.isEmpty()) {
+            return input;
+        }
+        return processor.process(substitute(input));
+    }
+
+    /**
+     * @return the input with every bound variable replaced by its value
+     */
+    String substitute(String input) {
+        if (values.isEmpty()) {
+            return input;
+        }
+        StringBuilder sb = null;
+        int copied = 0;
+        int i = 0;
+        while (i < input.length()) {
+            if (!MathUtils.isIdentifierPart(input.charAt(i))) {
+                i++;
+                continue;
+            }
+            int wordStart = i;
+            while (i < input.length() && MathUtils.isIdentifierPart(input.charAt(i))) {
+                i++;
+            }
+            if (!MathUtils.isIdentifierStart(input.charAt(wordStart))) {
+                continue;
+            }
+            String value = values.get(input.substring(wordStart, i));
+            if (value != null) {
+                if (sb == null) {
+                    sb = new StringBuilder(input.length() + 16);
+                }
+                sb.append(input, copied, wordStart).append(value);
+                copied = i;
+            }
+        }
+        if (sb == null) {
+            return input;
+        }
+        return sb.append(input, copied, input.length()).toString();
+    }
+}
@@ -0,0 +1,118 @@
+package org.example.expressions.processors;
+
+import org.example.expressions.core.MathUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Incrementally scans text for positions where it can be cut into pieces
+ * that are processed independently.
+ * <p>
+ * A position is a <em>safe boundary</em> when it lies outside any parenthesis group
+ * and directly follows a character that can never be part of an arithmetic expression
+ * (a letter, a comma, a colon, ...). Neither processor lets an expression or a group
+ * span such a character, so processing the text on both sides of a safe boundary
+ * separately gives the same result as processing the whole text at once.
+ * </p>
+ * <p>
+ * Unmatched closing parentheses are ignored, mirroring the processors.
+ * The scanner also remembers the last break character regardless of nesting,
+ * which callers can use as a fallback cut when a group is never closed.
+ * </p>
+ */
+public class ChunkBoundaryScanner {
+
+    private int depth;
+    private int lastBoundary = -1;
+    private int lastBreak = -1;
+
+    /**
+     * Scans {@code text[from, to)} and updates the boundary state.
+     * Positions are absolute indexes into {@code text}; consecutive calls
+     * are expected to cover consecutive ranges of the same text.
+     *
+     * @param text the text being scanned
+     * @param from first index to scan (inclusive)
+     * @param to   last index to scan (exclusive)
+     */
+    public void scan(CharSequence text, int from, int to) {
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                if (depth > 0) {
+                    depth--;
+                }
+            } else if (isBreakCharacter(c)) {
+                lastBreak = i + 1;
+                if (depth == 0) {
+                    lastBoundary = i + 1;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the last safe boundary seen so far, or {@code -1} if there is none
+     */
+    public int lastBoundary() {
+        return lastBoundary;
+    }
+
+    /**
+     * @return the position after the last break character seen so far (ignoring
+     *         parenthesis nesting), or {@code -1} if there is none
+     */
+    public int lastBreak() {
+        return lastBreak;
+    }
+
+    /**
+     * Forgets all state, so the scanner can be reused from the start of a new text.
+     */
+    public void reset() {
+        depth = 0;
+        lastBoundary = -1;
+        lastBreak = -1;
+    }
+
+    /**
+     * Cuts a text into pieces of roughly {@code pieceSize} characters at safe boundaries.
+     * A piece grows past the target size until a safe boundary is found, and no piece is cut
+     * shorter than half the target size, except the last one.
+     *
+     * @param text      the text to cut
+     * @param pieceSize the target size of a piece
+     * @return the pieces in order; their concatenation is the text
+     */
+    public static List<String> split(CharSequence text, int pieceSize) {
+        List<String> pieces = new ArrayList<>();
+        ChunkBoundaryScanner scanner = new ChunkBoundaryScanner();
+        int pieceStart = 0;
+        int scanned = 0;
+
+        while (scanned < text.length()) {
+            int next = Math.min(text.length(), scanned + pieceSize);
+            scanner.scan(text, scanned, next);
+            scanned = next;
+
+            int cut = scanner.lastBoundary();
+            if (cut > pieceStart && cut - pieceStart >= pieceSize / 2 && cut < text.length()) {
+                pieces.add(text.subSequence(pieceStart, cut).toString());
+                pieceStart = cut;
+            }
+        }
+        pieces.add(text.subSequence(pieceStart, text.length()).toString());
+        return pieces;
+    }
+
+    /**
+     * Returns true if the character can never be part of an expression or a parenthesis group.
+     * High surrogates are excluded so that a cut never splits a surrogate pair.
+     */
+    public static boolean isBreakCharacter(char c) {
+        return !MathUtils.isExpressionCharacter(c) && !Character.isHighSurrogate(c);
+    }
+}
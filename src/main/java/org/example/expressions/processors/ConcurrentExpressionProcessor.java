@@ -0,0 +1,53 @@
+package org.example.expressions.processors;
+
+import java.util.function.BiFunction;
+
+/**
+ * Expression processor that one instance can serve from any number of threads,
+ * reusing per-thread working buffers between calls.
+ * <p>
+ * The manual and regex processors keep no state between calls, so they are already safe to share,
+ * but every call allocates its output builders, group stacks, token buffers and matchers anew.
+ * This wrapper keeps one set of those per thread (see {@link ProcessingScratch}) and hands it to the
+ * wrapped processor, so a thread that handles many requests only allocates the result strings.
+ * Buffers that grew past one million characters for a large document are released after the call.
+ * </p>
+ * <p>
+ * Other processors are called as they are and must be thread-safe themselves.
+ * With virtual threads each thread gets its own buffers, which are reused for the calls it makes.
+ * </p>
+ */
+public class ConcurrentExpressionProcessor implements ExpressionProcessor {
+
+    private final ExpressionProcessor delegate;
+    private final BiFunction<String, ProcessingScratch, String> withScratch;
+    private final ThreadLocal<ProcessingScratch> scratch = ThreadLocal.withInitial(ProcessingScratch::new);
+
+    public ConcurrentExpressionProcessor(ExpressionProcessor delegate) {
+        this.delegate = delegate;
+        this.withScratch = switch (delegate) {
+            case ManualExpressionProcessor manual -> manual::process;
+            case RegexExpressionProcessor regex -> regex::process;
+            default -> null;
+        };
+    }
+
+    /**
+     * Processes the input with the calling thread's buffers.
+     *
+     * @param input the input text containing potential mathematical expressions
+     * @return the processed text, identical to the output of the wrapped processor
+     */
+    @Override
+    public String process(String input) {
+        if (input == null || input.isEmpty() || withScratch == null) {
+            return delegate.process(input);
+        }
+        ProcessingScratch buffers = scratch.get();
+        try {
+            return withScratch.apply(input, buffers);
+        } finally {
+            buffers.trim();
+        }
+    }
+}
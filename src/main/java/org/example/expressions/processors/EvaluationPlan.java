@@ -0,0 +1,134 @@
+package org.example.expressions.processors;
+
+import org.example.expressions.core.ExpressionEvaluator;
+import org.example.expressions.core.TokenStream;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Document-level table of evaluated expressions, so that identical sub-expressions of one document
+ * are evaluated once and their result is spliced in everywhere they occur.
+ * <p>
+ * The manual engine resolves the innermost groups first and replaces each with its result before the
+ * enclosing group is validated. Interning every candidate at that point interns whole sub-trees: two
+ * outer groups whose children evaluated to the same values have the same tokens, whatever the children
+ * looked like. Candidates are keyed by their token sequence, which ignores whitespace, so
+ * {@code (2 * - 3)} and {@code (2*-3)} share one evaluation. The result of an expression depends only on
+ * its tokens, so sharing never changes the output.
+ * </p>
+ * <p>
+ * Building a key and looking it up costs about as much as evaluating the expression, so on every workload
+ * measured so far planning is slower than evaluating each occurrence; what it offers is the count of
+ * repeated evaluations in {@link Savings}.
+ * </p>
+ * <p>
+ * A plan belongs to one {@code process} call (one document, chunk or segment) and is not thread-safe.
+ * Its counts are added to a shared {@link Savings} when the call ends.
+ * </p>
+ */
+public final class EvaluationPlan {
+
+    /** Plans whose table grew past this many entries are dropped after the call instead of being reused. */
+    private static final int MAX_RETAINED_ENTRIES = 4096;
+
+    private final Map<String, String> results = new HashMap<>();
+    private final StringBuilder key = new StringBuilder();
+    private long candidates;
+
+    EvaluationPlan() {
+    }
+
+    /**
+     * Appends the result of the tokenized expression to {@code out}, evaluating it only if no identical
+     * expression was evaluated earlier in the document.
+     */
+    void evaluate(ExpressionEvaluator evaluator, TokenStream tokens, StringBuilder out) {
+        candidates++;
+        String expression = key(tokens);
+        String result = results.get(expression);
+        if (result != null) {
+            out.append(result);
+            return;
+        }
+        int mark = out.length();
+        evaluator.evalExpression(tokens, out);
+        results.put(expression, out.substring(mark));
+    }
+
+    /**
+     * Adds this document's counts to {@code savings} and clears the plan for the next document.
+     *
+     * @return false if the plan grew too large to keep
+     */
+    boolean finish(Savings savings) {
+        savings.record(candidates, results.size());
+        boolean retain = results.size() <= MAX_RETAINED_ENTRIES;
+        results.clear();
+        candidates = 0;
+        return retain;
+    }
+
+    private String key(TokenStream tokens) {
+        key.setLength(0);
+        CharSequence source = tokens.source();
+        for (int i = 0; i < tokens.size(); i++) {
+            if (tokens.kind(i) == TokenStream.NUMBER) {
+                for (int j = tokens.start(i); j < tokens.end(i); j++) {
+                    char c = source.charAt(j);
+                    if (!Character.isWhitespace(c)) {
+                        key.append(c);
+                    }
+                }
+            } else {
+                key.append(source.charAt(tokens.start(i)));
+            }
+            key.append(' ');
+        }
+        return key.toString();
+    }
+
+    /**
+     * Thread-safe totals of candidate expressions and actual evaluations over many documents.
+     */
+    public static final class Savings {
+        private final LongAdder documents = new LongAdder();
+        private final LongAdder candidates = new LongAdder();
+        private final LongAdder evaluations = new LongAdder();
+
+        void record(long documentCandidates, long documentEvaluations) {
+            documents.increment();
+            candidates.add(documentCandidates);
+            evaluations.add(documentEvaluations);
+        }
+
+        public long documents() {
+            return documents.sum();
+        }
+
+        public long candidates() {
+            return candidates.sum();
+        }
+
+        public long evaluations() {
+            return evaluations.sum();
+        }
+
+        /**
+         * @return the number of candidates answered from the plan instead of being evaluated
+         */
+        public long saved() {
+            return candidates() - evaluations();
+        }
+
+        @Override
+        public String toString() {
+            long candidates = candidates();
+            long saved = candidates - evaluations();
+            return "documents=" + documents() + " candidates=" + candidates + " evaluated=" + (candidates - saved)
+                    + " saved=" + saved + String.format(Locale.ROOT, " (%.1f%%)", candidates == 0 ? 0.0 : 100.0 * saved / candidates);
+        }
+    }
+}
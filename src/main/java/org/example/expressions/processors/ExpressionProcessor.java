@@ -1,5 +1,13 @@
 package org.example.expressions.processors;
 
+/**
+ * Replaces the arithmetic expressions found in a text by their results.
+ * <p>
+ * Implementations in this package are thread-safe unless stated otherwise: they keep no state
+ * between calls, so one instance may be shared by several threads. Each call allocates its own
+ * working buffers; {@link ConcurrentExpressionProcessor} reuses them per thread instead.
+ * </p>
+ */
 public interface ExpressionProcessor {
     String process(String input);
 }
@@ -0,0 +1,199 @@
+package org.example.expressions.processors;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.SubmissionPublisher;
+
+/**
+ * {@link Flow.Processor} that transforms a stream of text records with an {@link ExpressionProcessor},
+ * processing up to {@code parallelism} records at once and publishing the results in input order,
+ * or as they complete if ordering is not required.
+ * <p>
+ * Backpressure is end to end. Upstream is asked for {@code parallelism} records at first and for one
+ * more each time a result is handed to the subscribers. Publishing blocks while a subscriber's buffer
+ * is full, as with {@link SubmissionPublisher#submit}. At most {@code parallelism} records are
+ * being processed or waiting for their turn, and at most a buffer's worth of results per subscriber,
+ * however long the stream is. In ordered mode a slow record holds back the results completed after it,
+ * which is the throughput unordered mode wins back.
+ * </p>
+ * <p>
+ * Records are processed on the executor, so the processor must be thread-safe; a
+ * {@link ConcurrentExpressionProcessor} also reuses its buffers per worker thread. Results are delivered
+ * to subscribers on a separate delivery executor, so a publishing thread blocked on a full subscriber
+ * buffer never holds up the delivery that would free it, even on a single-thread executor. Anything
+ * thrown by the processor, errors included, cancels the upstream subscription and completes the
+ * subscribers exceptionally, as does an error from upstream. When upstream completes,
+ * subscribers complete after the last result.
+ * </p>
+ */
+public class FlowExpressionProcessor extends SubmissionPublisher<String> implements Flow.Processor<String, String> {
+
+    /** Delivers to each subscriber on its own virtual thread, which needs no shutdown. */
+    private static final Executor DELIVERY = task -> Thread.ofVirtual().name("flow-delivery").start(task);
+
+    private final ExpressionProcessor processor;
+    private final Executor executor;
+    private final int parallelism;
+    private final boolean ordered;
+
+    private final Object lock = new Object();
+    private final Map<Long, String> completedInOrder = new HashMap<>();
+    private final Queue<String> completed = new ArrayDeque<>();
+    private Flow.Subscription subscription;
+    private long received;
+    private long nextToPublish;
+    private int pending;
+    private boolean upstreamDone;
+    private boolean publishing;
+    private boolean finished;
+
+    /**
+     * Creates an ordered processor running on the common fork-join pool.
+     */
+    public FlowExpressionProcessor(ExpressionProcessor processor, int parallelism) {
+        this(processor, ForkJoinPool.commonPool(), parallelism, true);
+    }
+
+    /**
+     * Creates a processor that delivers results to subscribers on virtual threads.
+     *
+     * @param processor   the processor applied to every record
+     * @param executor    runs the processing
+     * @param parallelism the maximum number of records processed or awaiting publication at once
+     * @param ordered     whether results are published in input order
+     */
+    public FlowExpressionProcessor(ExpressionProcessor processor, Executor executor, int parallelism, boolean ordered) {
+        this(processor, executor, DELIVERY, parallelism, ordered);
+    }
+
+    /**
+     * @param processor        the processor applied to every record
+     * @param executor         runs the processing
+     * @param deliveryExecutor delivers results to subscribers; must not be {@code executor}, or publishing
+     *                         can block the only threads that could deliver
+     * @param parallelism      the maximum number of records processed or awaiting publication at once
+     * @param ordered          whether results are published in input order
+     */
+    public FlowExpressionProcessor(ExpressionProcessor processor, Executor executor, Executor deliveryExecutor,
+                                   int parallelism, boolean ordered) {
+        super(deliveryExecutor, Flow.defaultBufferSize());
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+        }
+        this.processor = processor;
+        this.executor = executor;
+        this.parallelism = parallelism;
+        this.ordered = ordered;
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        synchronized (lock) {
+            if (this.subscription != null) {
+                subscription.cancel();
+                return;
+            }
+            this.subscription = subscription;
+        }
+        subscription.request(parallelism);
+    }
+
+    @Override
+    public void onNext(String item) {
+        long sequence;
+        synchronized (lock) {
+            if (finished) {
+                return;
+            }
+            sequence = received++;
+            pending++;
+        }
+        executor.execute(() -> {
+            String result;
+            try {
+                result = processor.process(item);
+            } catch (Throwable e) {
+                // errors too, e.g. a StackOverflowError: the stream must still end
+                fail(e);
+                return;
+            }
+            synchronized (lock) {
+                if (ordered) {
+                    completedInOrder.put(sequence, result);
+                } else {
+                    completed.add(result);
+                }
+            }
+            publish();
+        });
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        fail(throwable);
+    }
+
+    @Override
+    public void onComplete() {
+        synchronized (lock) {
+            upstreamDone = true;
+        }
+        publish();
+    }
+
+    /**
+     * Publishes completed results, one thread at a time, and completes the subscribers after the last one.
+     */
+    private void publish() {
+        synchronized (lock) {
+            if (publishing) {
+                return;
+            }
+            publishing = true;
+        }
+        while (true) {
+            String next;
+            synchronized (lock) {
+                next = finished ? null : ordered ? completedInOrder.remove(nextToPublish) : completed.poll();
+                if (next == null) {
+                    publishing = false;
+                    if (upstreamDone && pending == 0 && !finished) {
+                        finished = true;
+                        close();
+                    }
+                    return;
+                }
+                nextToPublish++;
+                pending--;
+            }
+            try {
+                submit(next);
+            } catch (IllegalStateException e) {
+                return; // closed by a concurrent failure
+            }
+            subscription.request(1);
+        }
+    }
+
+    private void fail(Throwable throwable) {
+        Flow.Subscription upstream;
+        synchronized (lock) {
+            if (finished) {
+                return;
+            }
+            finished = true;
+            upstream = subscription;
+            completedInOrder.clear();
+            completed.clear();
+        }
+        if (upstream != null) {
+            upstream.cancel();
+        }
+        closeExceptionally(throwable);
+    }
+}
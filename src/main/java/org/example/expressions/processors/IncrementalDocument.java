@@ -0,0 +1,168 @@
+package org.example.expressions.processors;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A document whose processed output is kept up to date as the text is edited, re-processing
+ * only the regions an edit touches.
+ * <p>
+ * The text is kept as a list of regions cut at safe boundaries (see {@link ChunkBoundaryScanner}),
+ * each with its input and its processed output. Every expression and every parenthesis group lies
+ * inside one region, so the output of the document is the concatenation of the region outputs, exactly
+ * as for {@link ParallelExpressionProcessor}. An edit re-processes the regions it overlaps; if it breaks
+ * the boundary after them (e.g. it removes the last letter of a region or opens a group it does not
+ * close) the following regions are merged in until a safe boundary is reached again. The edited range
+ * is then cut into regions anew, so regions stay close to their target size.
+ * </p>
+ * <p>
+ * Regions of a few kilobytes are processed in tens of microseconds, which keeps the per-region state
+ * to the input and output strings rather than individual expression spans. {@link #output()} joins the
+ * region outputs once per edit and always equals the output of a full {@code process} call on {@link #text()}.
+ * </p>
+ * <p>
+ * Documents are not thread-safe. The processor is only called from the thread that edits the document.
+ * </p>
+ */
+public class IncrementalDocument {
+
+    public static final int DEFAULT_REGION_SIZE = 4 * 1024;
+
+    private final ExpressionProcessor processor;
+    private final int regionSize;
+    private final List<Region> regions = new ArrayList<>();
+    private int length;
+    private String text;
+    private String output;
+    private int lastReprocessed;
+
+    public IncrementalDocument(ExpressionProcessor processor, String text) {
+        this(processor, text, DEFAULT_REGION_SIZE);
+    }
+
+    public IncrementalDocument(ExpressionProcessor processor, String text, int regionSize) {
+        if (regionSize <= 0) {
+            throw new IllegalArgumentException("Region size must be positive: " + regionSize);
+        }
+        this.processor = processor;
+        this.regionSize = regionSize;
+        this.length = text.length();
+        regions.addAll(process(text));
+        if (regions.isEmpty()) {
+            regions.add(new Region("", ""));
+        }
+        this.text = text;
+    }
+
+    /**
+     * Replaces {@code removedLength} characters at {@code offset} by {@code inserted} and re-processes
+     * the affected regions.
+     *
+     * @param offset        index of the first replaced character
+     * @param removedLength number of characters removed
+     * @param inserted      the text inserted at {@code offset}
+     * @throws IndexOutOfBoundsException if the removed range is not inside the text
+     */
+    public void edit(int offset, int removedLength, String inserted) {
+        Objects.checkFromIndexSize(offset, removedLength, length);
+
+        int first = 0;
+        int firstStart = 0;
+        while (first < regions.size() - 1 && firstStart + regions.get(first).input().length() <= offset) {
+            firstStart += regions.get(first).input().length();
+            first++;
+        }
+        int last = first;
+        int lastEnd = firstStart + regions.get(first).input().length();
+        while (last < regions.size() - 1 && lastEnd < offset + removedLength) {
+            lastEnd += regions.get(++last).input().length();
+        }
+
+        StringBuilder edited = new StringBuilder(lastEnd - firstStart - removedLength + inserted.length());
+        for (int i = first; i <= last; i++) {
+            edited.append(regions.get(i).input());
+        }
+        edited.replace(offset - firstStart, offset - firstStart + removedLength, inserted);
+
+        ChunkBoundaryScanner scanner = new ChunkBoundaryScanner();
+        scanner.scan(edited, 0, edited.length());
+        while (last < regions.size() - 1 && !edited.isEmpty() && scanner.lastBoundary() != edited.length()) {
+            int scanned = edited.length();
+            edited.append(regions.get(++last).input());
+            scanner.scan(edited, scanned, edited.length());
+        }
+
+        List<Region> replaced = regions.subList(first, last + 1);
+        replaced.clear();
+        replaced.addAll(process(edited));
+        if (regions.isEmpty()) {
+            regions.add(new Region("", ""));
+        }
+        length += inserted.length() - removedLength;
+        lastReprocessed = edited.length();
+        text = null;
+        output = null;
+    }
+
+    /**
+     * @return the current text of the document
+     */
+    public String text() {
+        if (text == null) {
+            text = join(true);
+        }
+        return text;
+    }
+
+    /**
+     * @return the processed text, equal to processing {@link #text()} as a whole
+     */
+    public String output() {
+        if (output == null) {
+            output = join(false);
+        }
+        return output;
+    }
+
+    public int length() {
+        return length;
+    }
+
+    public int regionCount() {
+        return regions.size();
+    }
+
+    /**
+     * @return the number of characters the last edit re-processed
+     */
+    public int lastReprocessed() {
+        return lastReprocessed;
+    }
+
+    private List<Region> process(CharSequence range) {
+        List<Region> processed = new ArrayList<>();
+        if (range.isEmpty()) {
+            return processed;
+        }
+        for (String input : ChunkBoundaryScanner.split(range, regionSize)) {
+            processed.add(new Region(input, processor.process(input)));
+        }
+        return processed;
+    }
+
+    private String join(boolean input) {
+        int total = 0;
+        for (Region region : regions) {
+            total += (input ? region.input() : region.output()).length();
+        }
+        StringBuilder sb = new StringBuilder(total);
+        for (Region region : regions) {
+            sb.append(input ? region.input() : region.output());
+        }
+        return sb.toString();
+    }
+
+    private record Region(String input, String output) {
+    }
+}
@@ -3,23 +3,42 @@ package org.example.expressions.processors;
 import org.example.expressions.core.ExpressionEvaluator;
 import org.example.expressions.core.ExpressionValidator;
 import org.example.expressions.core.MathUtils;
-
-import java.util.ArrayDeque;
-import java.util.Deque;
+import org.example.expressions.core.TokenStream;
 
 /**
  * Manual implementation of arithmetic expression processing without regular expressions.
  * Supports +, -, *, /, parentheses, nested expressions, negative numbers and decimal (double) values.
  * Provides error feedback on malformed expressions (unclosed brackets, unknown operators, division by zero).
+ * <p>
+ * The text is rewritten in a single append-only pass: resolved groups are replaced at the end of
+ * the output buffer instead of in the middle of the document, and groups that already contain a
+ * character the tokenizer rejects are never copied or validated, so total work is linear in the
+ * input size for ordinary text.
+ * </p>
+ * <p>
+ * Given {@link EvaluationPlan.Savings}, the processor evaluates identical sub-expressions of a document
+ * only once (see {@link EvaluationPlan}) and counts the evaluations saved.
+ * </p>
  */
 public class ManualExpressionProcessor implements ExpressionProcessor {
 
     private final ExpressionEvaluator evaluator;
     private final ExpressionValidator validator;
+    private final EvaluationPlan.Savings savings;
 
     public ManualExpressionProcessor(ExpressionEvaluator evaluator, ExpressionValidator validator) {
+        this(evaluator, validator, null);
+    }
+
+    /**
+     * @param savings totals to add each document's shared evaluations to, or {@code null} to evaluate
+     *                every expression separately
+     */
+    public ManualExpressionProcessor(ExpressionEvaluator evaluator, ExpressionValidator validator,
+                                     EvaluationPlan.Savings savings) {
         this.evaluator = evaluator;
         this.validator = validator;
+        this.savings = savings;
     }
 
     /**
@@ -44,40 +63,79 @@ public class ManualExpressionProcessor implements ExpressionProcessor {
         if (input == null || input.isEmpty()) {
             return input;
         }
+        return process(input, new ProcessingScratch());
+    }
 
-        StringBuilder sb = new StringBuilder(input);
-        Deque<Integer> openStack = new ArrayDeque<>();
-
-        int i = 0;
-        while (i < sb.length()) {
-            char c = sb.charAt(i);
+    /**
+     * Processes the input using the given working buffers instead of allocating new ones.
+     */
+    String process(String input, ProcessingScratch scratch) {
+        StringBuilder sb = scratch.groups(input.length());
+        int[] openPositions = scratch.openPositions();
+        boolean[] tokenizable = scratch.openFlags();
+        int openCount = 0;
+        TokenStream tokens = scratch.tokens;
+        EvaluationPlan plan = savings != null ? scratch.plan() : null;
+
+        for (int i = 0; i < input.length(); i++) {
+            char c = input.charAt(i);
             if (c == '(') {
-                openStack.push(i);
-                i++;
-            } else if (c == ')') {
-                if (openStack.isEmpty()) {
-                    i++;
-                    continue;
+                if (openCount == openPositions.length) {
+                    scratch.growOpenGroups();
+                    openPositions = scratch.openPositions();
+                    tokenizable = scratch.openFlags();
                 }
-                int start = openStack.pop();
-                int end = i;
-                String inner = sb.substring(start + 1, end);
-
-                if (validator.isPotentialExpression(inner)) {
-                    String replacement = evaluator.evalExpression(inner);
-                    sb.replace(start, end + 1, replacement);
-                    i = start + replacement.length();
+                openPositions[openCount] = sb.length();
+                tokenizable[openCount] = true;
+                openCount++;
+                sb.append(c);
+            } else if (c == ')' && openCount > 0) {
+                openCount--;
+                int start = openPositions[openCount];
+                if (tokenizable[openCount] && validator.isPotentialExpression(sb, start + 1, sb.length(), tokens)) {
+                    // the tokens point into the buffer, so the group is removed only after evaluating it
+                    int resultStart = sb.length();
+                    evaluate(tokens, sb, plan);
+                    sb.delete(start, resultStart);
+                    if (openCount > 0 && !isTokenizable(sb, start, sb.length())) {
+                        tokenizable[openCount - 1] = false;
+                    }
                 } else {
-                    i++;
+                    sb.append(c);
+                    if (openCount > 0 && !tokenizable[openCount]) {
+                        tokenizable[openCount - 1] = false;
+                    }
                 }
             } else {
-                i++;
+                sb.append(c);
+                if (openCount > 0 && !MathUtils.isExpressionCharacter(c)) {
+                    tokenizable[openCount - 1] = false;
+                }
             }
         }
 
-        sb = new StringBuilder(replacePlainExpressions(sb.toString()));
+        String result = replacePlainExpressions(sb, scratch, plan);
+        if (plan != null) {
+            scratch.finishPlan(savings);
+        }
+        return result;
+    }
+
+    private void evaluate(TokenStream tokens, StringBuilder out, EvaluationPlan plan) {
+        if (plan != null) {
+            plan.evaluate(evaluator, tokens, out);
+        } else {
+            evaluator.evalExpression(tokens, out);
+        }
+    }
 
-        return sb.toString();
+    private static boolean isTokenizable(CharSequence text, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (!MathUtils.isExpressionCharacter(text.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
     }
 
     /**
@@ -98,11 +156,14 @@ public class ManualExpressionProcessor implements ExpressionProcessor {
      * </ul>
      * </p>
      *
-     * @param text The input string possibly containing arithmetic expressions.
+     * @param text    The input string possibly containing arithmetic expressions.
+     * @param scratch The working buffers; each candidate is tokenized once into its token stream,
+     *                which is shared by validation and evaluation.
      * @return The processed string with evaluated expressions replaced by their results.
      */
-    private String replacePlainExpressions(String text) {
-        StringBuilder result = new StringBuilder();
+    private String replacePlainExpressions(CharSequence text, ProcessingScratch scratch, EvaluationPlan plan) {
+        StringBuilder result = scratch.plain(text.length());
+        TokenStream tokens = scratch.tokens;
         int pos = 0;
 
         while (pos < text.length()) {
@@ -125,18 +186,16 @@ public class ManualExpressionProcessor implements ExpressionProcessor {
                     }
                 }
 
-                if (lastMeaningfulIndex == -1) {
-                    result.append(text.charAt(pos));
-                    pos++;
+                if (!hasOperator) {
+                    // no candidate starting inside this run can contain an operator either
+                    result.append(text, pos, lastMeaningfulIndex + 1);
+                    pos = lastMeaningfulIndex + 1;
                     continue;
                 }
 
-                String candidate = text.substring(pos, lastMeaningfulIndex + 1);
-                String punctuation = text.substring(lastMeaningfulIndex + 1, endPos);
-
-                if (hasOperator && validator.isPotentialExpression(candidate)) {
-                    String replacement = evaluator.evalExpression(candidate);
-                    result.append(replacement).append(punctuation);
+                if (validator.isPotentialExpression(text, pos, lastMeaningfulIndex + 1, tokens)) {
+                    evaluate(tokens, result, plan);
+                    result.append(text, lastMeaningfulIndex + 1, endPos);
                     pos = endPos;
                     continue;
                 }
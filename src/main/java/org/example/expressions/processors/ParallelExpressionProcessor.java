@@ -0,0 +1,121 @@
+package org.example.expressions.processors;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Expression processor that splits a document into segments and processes them on a {@link ForkJoinPool}.
+ * <p>
+ * Segments are cut only at safe boundaries found by {@link ChunkBoundaryScanner}, i.e. outside
+ * any parenthesis group and after a character that cannot belong to an expression. Each segment
+ * is processed by the wrapped processor and the results are joined in their original order,
+ * so the output is identical to processing the whole document sequentially.
+ * </p>
+ * <p>
+ * The wrapped processor is called from several threads at once and must be thread-safe.
+ * The manual and regex processors created by the factories keep no per-call state and qualify.
+ * </p>
+ */
+public class ParallelExpressionProcessor implements ExpressionProcessor, AutoCloseable {
+
+    public static final int DEFAULT_SEGMENT_SIZE = 64 * 1024;
+
+    private final ExpressionProcessor delegate;
+    private final ForkJoinPool pool;
+    private final boolean ownsPool;
+    private final int segmentSize;
+
+    /**
+     * Creates a processor with its own pool of the given size.
+     * The pool is shut down by {@link #close()}.
+     */
+    public ParallelExpressionProcessor(ExpressionProcessor delegate, int parallelism) {
+        this(delegate, new ForkJoinPool(parallelism), true, DEFAULT_SEGMENT_SIZE);
+    }
+
+    /**
+     * Creates a processor that runs on an existing pool, which {@link #close()} leaves running.
+     */
+    public ParallelExpressionProcessor(ExpressionProcessor delegate, ForkJoinPool pool, int segmentSize) {
+        this(delegate, pool, false, segmentSize);
+    }
+
+    private ParallelExpressionProcessor(ExpressionProcessor delegate, ForkJoinPool pool, boolean ownsPool, int segmentSize) {
+        if (segmentSize <= 0) {
+            throw new IllegalArgumentException("Segment size must be positive: " + segmentSize);
+        }
+        this.delegate = delegate;
+        this.pool = pool;
+        this.ownsPool = ownsPool;
+        this.segmentSize = segmentSize;
+    }
+
+    /**
+     * Processes the input by evaluating its segments in parallel.
+     *
+     * @param input the input text containing potential mathematical expressions
+     * @return the processed text, identical to the output of the wrapped processor
+     */
+    @Override
+    public String process(String input) {
+        if (input == null || input.isEmpty()) {
+            return input;
+        }
+
+        String[] segments = ChunkBoundaryScanner.split(input, segmentSize).toArray(new String[0]);
+        if (segments.length == 1) {
+            return delegate.process(input);
+        }
+
+        String[] results = new String[segments.length];
+        pool.invoke(new SegmentTask(segments, results, 0, segments.length));
+
+        int length = 0;
+        for (String result : results) {
+            length += result.length();
+        }
+        StringBuilder sb = new StringBuilder(length);
+        for (String result : results) {
+            sb.append(result);
+        }
+        return sb.toString();
+    }
+
+    public int parallelism() {
+        return pool.getParallelism();
+    }
+
+    @Override
+    public void close() {
+        if (ownsPool) {
+            pool.shutdown();
+        }
+    }
+
+    private final class SegmentTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final String[] segments;
+        private final String[] results;
+        private final int from;
+        private final int to;
+
+        private SegmentTask(String[] segments, String[] results, int from, int to) {
+            this.segments = segments;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                results[from] = delegate.process(segments[from]);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new SegmentTask(segments, results, from, middle),
+                    new SegmentTask(segments, results, middle, to));
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package org.example.expressions.processors;
+
+import org.example.expressions.core.TokenStream;
+
+import java.util.Arrays;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Working buffers of a single {@code process} call: the output of the parenthesis pass,
+ * the output of the plain-expression pass, the stack of open groups, a token stream,
+ * the regex matchers and the evaluation plan.
+ * <p>
+ * A processor allocates fresh scratch for every call unless it is given one to reuse, which
+ * {@link ConcurrentExpressionProcessor} does per thread. Buffers that grew beyond
+ * {@link #MAX_RETAINED_CAPACITY} while processing a large document are dropped afterwards,
+ * so an idle thread does not pin megabytes of memory.
+ * </p>
+ */
+final class ProcessingScratch {
+
+    static final int MAX_RETAINED_CAPACITY = 1024 * 1024;
+
+    private StringBuilder groups = new StringBuilder();
+    private StringBuilder plain = new StringBuilder();
+    private int[] openPositions = new int[16];
+    private boolean[] openFlags = new boolean[16];
+    private Matcher[] matchers = new Matcher[0];
+    final TokenStream tokens = new TokenStream();
+    private EvaluationPlan plan;
+
+    /**
+     * @return the empty builder for the parenthesis pass, with room for {@code length} characters
+     */
+    StringBuilder groups(int length) {
+        groups.setLength(0);
+        groups.ensureCapacity(length);
+        return groups;
+    }
+
+    /**
+     * @return the empty builder for the plain-expression pass, with room for {@code length} characters
+     */
+    StringBuilder plain(int length) {
+        plain.setLength(0);
+        plain.ensureCapacity(length);
+        return plain;
+    }
+
+    /**
+     * @return a matcher of the pattern reset to the input, reusing the one created by an earlier call
+     */
+    Matcher matcher(Pattern pattern, CharSequence input) {
+        for (Matcher matcher : matchers) {
+            if (matcher.pattern() == pattern) {
+                return matcher.reset(input);
+            }
+        }
+        Matcher matcher = pattern.matcher(input);
+        matchers = Arrays.copyOf(matchers, matchers.length + 1);
+        matchers[matchers.length - 1] = matcher;
+        return matcher;
+    }
+
+    /**
+     * @return the evaluation plan of this call, created on first use
+     */
+    EvaluationPlan plan() {
+        if (plan == null) {
+            plan = new EvaluationPlan();
+        }
+        return plan;
+    }
+
+    /**
+     * Ends the call's evaluation plan, adding its counts to {@code savings}, and drops it if it grew too large.
+     */
+    void finishPlan(EvaluationPlan.Savings savings) {
+        if (plan != null && !plan.finish(savings)) {
+            plan = null;
+        }
+    }
+
+    int[] openPositions() {
+        return openPositions;
+    }
+
+    boolean[] openFlags() {
+        return openFlags;
+    }
+
+    /**
+     * Doubles the group stack, keeping its content, when nesting outgrows it.
+     */
+    void growOpenGroups() {
+        openPositions = Arrays.copyOf(openPositions, openPositions.length * 2);
+        openFlags = Arrays.copyOf(openFlags, openFlags.length * 2);
+    }
+
+    /**
+     * Drops builders that grew too large to keep around between calls
+     * and detaches the matchers from the last input.
+     */
+    void trim() {
+        for (Matcher matcher : matchers) {
+            matcher.reset("");
+        }
+        if (groups.capacity() > MAX_RETAINED_CAPACITY) {
+            groups = new StringBuilder();
+        }
+        if (plain.capacity() > MAX_RETAINED_CAPACITY) {
+            plain = new StringBuilder();
+        }
+    }
+}
@@ -11,12 +11,17 @@ import java.util.regex.Pattern;
  * to find and evaluate arithmetic expressions in the given text.
  * Supports integers, floating point numbers, optional signs, and operators (+, -, *, /)
  * with optional spaces. Keeps punctuation after the expression.
+ * <p>
+ * Parenthesis groups are resolved in a single left-to-right scan that jumps from one parenthesis
+ * to the next, innermost groups first, and plain expressions are matched with possessive quantifiers,
+ * so both passes run in linear time even on deeply nested or pathological input.
+ * </p>
  */
 public class RegexExpressionProcessor implements ExpressionProcessor {
 
-    private static final Pattern INNER_BRACKETS_PATTERN = Pattern.compile("\\(([^()]+)\\)");
+    private static final Pattern PARENTHESIS_PATTERN = Pattern.compile("[()]");
     private static final Pattern SIMPLE_EXPR_PATTERN = Pattern.compile(
-            "-?\\d+(?:\\.\\d+)?(?:\\s*[-+*/]\\s*-?\\d+(?:\\.\\d+)?)+"
+            "(?<!\\d)-?\\d++(?:\\.\\d++)?+(?:\\s*+[-+*/]\\s*+-?\\d++(?:\\.\\d++)?+)++"
     );
     private static final Pattern VALID_MATH_EXPR = Pattern.compile("[0-9+\\-*/.\\s]+");
 
@@ -32,6 +37,11 @@ public class RegexExpressionProcessor implements ExpressionProcessor {
      * Processes the given input string, evaluating mathematical expressions
      * inside parentheses and replacing them with their computed results.
      * Also evaluates plain expressions outside parentheses.
+     * <p>
+     * A group is replaced when, after its inner groups have been resolved, its content
+     * contains no parentheses and matches {@code VALID_MATH_EXPR}. Each open group tracks
+     * whether that can still be the case, so groups that cannot be resolved are never copied.
+     * </p>
      *
      * @param input the input text containing potential mathematical expressions
      * @return the processed text with expressions replaced by results
@@ -41,71 +51,127 @@ public class RegexExpressionProcessor implements ExpressionProcessor {
         if (input == null || input.isEmpty()) {
             return input;
         }
+        return process(input, new ProcessingScratch());
+    }
 
-        String result = input;
-
-        boolean found;
-        do {
-            found = false;
-            Matcher matcher = INNER_BRACKETS_PATTERN.matcher(result);
-            StringBuilder sb = new StringBuilder();
-            int lastEnd = 0;
-
-            while (matcher.find()) {
-                String innerExpr = matcher.group(1);
-                String replacement;
-                if (validator.isValidMathExpression(VALID_MATH_EXPR, innerExpr)) {
-                    try {
-                        replacement = evaluator.evalExpression(innerExpr);
-                    } catch (Exception e) {
-                        replacement = "(" + innerExpr + ")";
+    /**
+     * Processes the input using the given working buffers and matchers instead of allocating new ones.
+     */
+    String process(String input, ProcessingScratch scratch) {
+        StringBuilder sb = scratch.groups(input.length());
+        int[] openPositions = scratch.openPositions();
+        boolean[] resolvable = scratch.openFlags();
+        int openCount = 0;
+
+        Matcher matcher = scratch.matcher(PARENTHESIS_PATTERN, input);
+        int lastEnd = 0;
+        while (matcher.find()) {
+            int position = matcher.start();
+            if (openCount > 0 && resolvable[openCount - 1]) {
+                resolvable[openCount - 1] = isValidMathText(input, lastEnd, position);
+            }
+            sb.append(input, lastEnd, position);
+            lastEnd = position + 1;
+
+            if (input.charAt(position) == '(') {
+                if (openCount == openPositions.length) {
+                    scratch.growOpenGroups();
+                    openPositions = scratch.openPositions();
+                    resolvable = scratch.openFlags();
+                }
+                openPositions[openCount] = sb.length();
+                resolvable[openCount] = true;
+                openCount++;
+                sb.append('(');
+            } else if (openCount == 0) {
+                sb.append(')');
+            } else {
+                openCount--;
+                int start = openPositions[openCount];
+                if (resolvable[openCount] && resolveGroup(sb, start)) {
+                    if (openCount > 0 && resolvable[openCount - 1]) {
+                        resolvable[openCount - 1] = isValidMathText(sb, start, sb.length());
                     }
                 } else {
-                    replacement = "(" + innerExpr + ")";
-                }
-
-                sb.append(result, lastEnd, matcher.start());
-                sb.append(replacement);
-                lastEnd = matcher.end();
-
-                if (!replacement.equals(matcher.group(0))) {
-                    found = true;
+                    sb.append(')');
+                    if (openCount > 0) {
+                        resolvable[openCount - 1] = false;
+                    }
                 }
             }
+        }
+        sb.append(input, lastEnd, input.length());
 
-            if (found) {
-                sb.append(result.substring(lastEnd));
-                result = sb.toString();
-            }
-        } while (found);
+        return replaceSimpleExpressions(sb, scratch);
+    }
 
-        result = replaceSimpleExpressions(result);
+    /**
+     * Evaluates the content of a group that holds no parentheses. The group starts at {@code start}
+     * and runs to the end of the buffer; when it is resolved, it is replaced there by the result.
+     *
+     * @return true if the group was replaced, false if it stays unchanged
+     */
+    private boolean resolveGroup(StringBuilder sb, int start) {
+        String innerExpr = sb.substring(start + 1);
+        if (!validator.isValidMathExpression(VALID_MATH_EXPR, innerExpr)) {
+            return false;
+        }
+        sb.setLength(start);
+        try {
+            evaluator.evalExpression(innerExpr, 0, innerExpr.length(), sb);
+            return true;
+        } catch (Exception e) {
+            sb.setLength(start);
+            sb.append('(').append(innerExpr);
+            return false;
+        }
+    }
 
-        return result;
+    /**
+     * Returns true if every character of {@code text[from, to)} belongs to {@code VALID_MATH_EXPR}.
+     * Used to rule groups out early; {@link #resolveGroup} still applies the pattern itself.
+     */
+    private static boolean isValidMathText(CharSequence text, int from, int to) {
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            boolean valid = (c >= '0' && c <= '9') || c == '+' || c == '-' || c == '*' || c == '/' || c == '.'
+                    || c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+            if (!valid) {
+                return false;
+            }
+        }
+        return true;
     }
 
     /**
      * Finds and evaluates all simple mathematical expressions in the given text
      * (expressions without parentheses) and replaces them with their results.
+     * <p>
+     * The pattern never starts a match right after a digit and uses possessive quantifiers only,
+     * which gives the same matches as plain greedy quantifiers here but without backtracking.
+     * </p>
      *
-     * @param input the text to search for simple expressions
+     * @param input   the text to search for simple expressions
+     * @param scratch the working buffers and matchers to use
      * @return the text with evaluated expressions replaced by results
      */
-    private String replaceSimpleExpressions(String input) {
-        Matcher matcher = SIMPLE_EXPR_PATTERN.matcher(input);
-        StringBuilder sb = new StringBuilder();
+    private String replaceSimpleExpressions(CharSequence input, ProcessingScratch scratch) {
+        Matcher matcher = scratch.matcher(SIMPLE_EXPR_PATTERN, input);
+        StringBuilder sb = scratch.plain(input.length());
+        int lastEnd = 0;
 
         while (matcher.find()) {
-            String expr = matcher.group();
-            String replacement;
+            sb.append(input, lastEnd, matcher.start());
+            int mark = sb.length();
             try {
-                replacement = evaluator.evalExpression(expr);
+                evaluator.evalExpression(input, matcher.start(), matcher.end(), sb);
             } catch (Exception e) {
-                replacement = "[ERROR: Unknown error]";
+                sb.setLength(mark);
+                sb.append("[ERROR: Unknown error]");
             }
-            matcher.appendReplacement(sb, replacement);
+            lastEnd = matcher.end();
         }
-        matcher.appendTail(sb);
+        sb.append(input, lastEnd, input.length());
 
         return sb.toString();
     }
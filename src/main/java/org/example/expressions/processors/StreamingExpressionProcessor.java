@@ -0,0 +1,164 @@
+package org.example.expressions.processors;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+
+/**
+ * Expression processor that streams its input through another processor chunk by chunk.
+ * <p>
+ * The input is read into a buffer until it holds at least {@code chunkSize} characters,
+ * then cut at the last safe boundary found by {@link ChunkBoundaryScanner}. Everything
+ * before the cut is processed and written out, the rest stays buffered for the next chunk.
+ * The memory used is therefore bounded by the chunk size rather than the input size.
+ * </p>
+ * <p>
+ * If no safe boundary appears within {@code maxChunkSize} characters (e.g. a parenthesis
+ * that is never closed), the chunk is cut at the last break character inside the group,
+ * or at the end of the buffer if there is none. Only such degenerate inputs can produce
+ * output that differs from processing the whole text at once.
+ * </p>
+ */
+public class StreamingExpressionProcessor implements ExpressionProcessor {
+
+    public static final int DEFAULT_CHUNK_SIZE = 64 * 1024;
+    public static final int DEFAULT_MAX_CHUNK_SIZE = 16 * 1024 * 1024;
+
+    private final ExpressionProcessor delegate;
+    private final int chunkSize;
+    private final int maxChunkSize;
+
+    public StreamingExpressionProcessor(ExpressionProcessor delegate) {
+        this(delegate, DEFAULT_CHUNK_SIZE, DEFAULT_MAX_CHUNK_SIZE);
+    }
+
+    public StreamingExpressionProcessor(ExpressionProcessor delegate, int chunkSize, int maxChunkSize) {
+        if (chunkSize <= 0 || maxChunkSize < chunkSize) {
+            throw new IllegalArgumentException("Invalid chunk sizes: " + chunkSize + ", " + maxChunkSize);
+        }
+        this.delegate = delegate;
+        this.chunkSize = chunkSize;
+        this.maxChunkSize = maxChunkSize;
+    }
+
+    /**
+     * Processes the whole string through the chunked pipeline.
+     *
+     * @param input the input text containing potential mathematical expressions
+     * @return the processed text
+     */
+    @Override
+    public String process(String input) {
+        if (input == null || input.isEmpty()) {
+            return input;
+        }
+        StringWriter out = new StringWriter(input.length());
+        try {
+            process(new StringReader(input), out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toString();
+    }
+
+    /**
+     * Reads text from the channel, processes it chunk by chunk and writes the result to the other channel.
+     * Neither channel is closed.
+     *
+     * @param in      the source channel
+     * @param out     the target channel
+     * @param charset the charset used for both channels
+     * @throws IOException if reading or writing fails
+     */
+    public void process(ReadableByteChannel in, WritableByteChannel out, Charset charset) throws IOException {
+        Reader reader = Channels.newReader(in, charset);
+        Writer writer = Channels.newWriter(out, charset);
+        process(reader, writer);
+        writer.flush();
+    }
+
+    /**
+     * Processes a character sequence chunk by chunk without copying it as a whole.
+     * Only the chunk currently being processed is copied, which makes this the right entry point
+     * for views over memory-mapped files.
+     *
+     * @param in  the text to process
+     * @param out the target for the processed text
+     * @throws IOException if writing fails
+     */
+    public void process(CharSequence in, Writer out) throws IOException {
+        ChunkBoundaryScanner scanner = new ChunkBoundaryScanner();
+        int chunkStart = 0;
+        int scanned = 0;
+
+        while (scanned < in.length()) {
+            int next = Math.min(in.length(), scanned + chunkSize);
+            scanner.scan(in, scanned, next);
+            scanned = next;
+
+            if (scanned - chunkStart < chunkSize || scanned == in.length()) {
+                continue;
+            }
+            int cut = scanner.lastBoundary();
+            if (cut <= chunkStart && scanned - chunkStart >= maxChunkSize) {
+                cut = scanner.lastBreak() > chunkStart ? scanner.lastBreak() : scanned;
+                scanner.reset();
+                scanner.scan(in, cut, scanned);
+            }
+            if (cut > chunkStart) {
+                out.write(delegate.process(in.subSequence(chunkStart, cut).toString()));
+                chunkStart = cut;
+            }
+        }
+
+        if (chunkStart < in.length()) {
+            out.write(delegate.process(in.subSequence(chunkStart, in.length()).toString()));
+        }
+    }
+
+    /**
+     * Reads text from the reader, processes it chunk by chunk and writes the result as it goes.
+     * Neither the reader nor the writer is closed.
+     *
+     * @param in  the source of the text
+     * @param out the target for the processed text
+     * @throws IOException if reading or writing fails
+     */
+    public void process(Reader in, Writer out) throws IOException {
+        ChunkBoundaryScanner scanner = new ChunkBoundaryScanner();
+        StringBuilder pending = new StringBuilder(chunkSize * 2);
+        char[] buffer = new char[Math.min(chunkSize, 8192)];
+
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            int from = pending.length();
+            pending.append(buffer, 0, read);
+            scanner.scan(pending, from, pending.length());
+
+            if (pending.length() < chunkSize) {
+                continue;
+            }
+            int cut = scanner.lastBoundary();
+            if (cut <= 0 && pending.length() >= maxChunkSize) {
+                cut = scanner.lastBreak() > 0 ? scanner.lastBreak() : pending.length();
+            }
+            if (cut > 0) {
+                out.write(delegate.process(pending.substring(0, cut)));
+                pending.delete(0, cut);
+                scanner.reset();
+                scanner.scan(pending, 0, pending.length());
+            }
+        }
+
+        if (!pending.isEmpty()) {
+            out.write(delegate.process(pending.toString()));
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package org.example.formats;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+
+/**
+ * Base of the streaming format scanners: a reader with a small lookahead and a buffered copy of the
+ * markup to the output.
+ * <p>
+ * A scanner makes one pass over the input. Markup is copied unchanged, and the text it should process is
+ * fed to {@link TextSegment}s, whose output is written in place. Only the lookahead buffer, the markup
+ * not yet written and the current text segment are held in memory.
+ * </p>
+ */
+abstract class FormatScanner {
+
+    private static final int BUFFER_SIZE = 8 * 1024;
+
+    private final Reader in;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int position;
+    private int limit;
+    protected final Writer out;
+    private final StringBuilder markup = new StringBuilder();
+
+    FormatScanner(Reader in, Writer out) {
+        this.in = in;
+        this.out = out;
+    }
+
+    /**
+     * Scans the whole input and writes the result.
+     */
+    abstract void scan() throws IOException;
+
+    /**
+     * @return the next character, or {@code -1} at the end of the input
+     */
+    final int read() throws IOException {
+        if (position == limit && !fill(1)) {
+            return -1;
+        }
+        return buffer[position++];
+    }
+
+    /**
+     * @return the character {@code ahead} positions after the next one without consuming it,
+     *         or {@code -1} beyond the end of the input
+     */
+    final int peek(int ahead) throws IOException {
+        if (position + ahead >= limit && !fill(ahead + 1)) {
+            return -1;
+        }
+        return buffer[position + ahead];
+    }
+
+    /**
+     * @return true if the next characters are {@code prefix}, optionally ignoring ASCII case
+     */
+    final boolean lookingAt(String prefix, boolean ignoreCase) throws IOException {
+        for (int i = 0; i < prefix.length(); i++) {
+            int c = peek(i);
+            if (c < 0 || (ignoreCase ? Character.toLowerCase((char) c) != prefix.charAt(i) : c != prefix.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Appends a character of markup to the output.
+     */
+    final void copy(int c) throws IOException {
+        markup.append((char) c);
+        if (markup.length() >= BUFFER_SIZE) {
+            flushMarkup();
+        }
+    }
+
+    /**
+     * Copies characters up to and including {@code terminator}, or to the end of the input.
+     */
+    final void copyThrough(String terminator) throws IOException {
+        int c;
+        while (!lookingAt(terminator, false) && (c = read()) >= 0) {
+            copy(c);
+        }
+        for (int i = 0; i < terminator.length() && (c = read()) >= 0; i++) {
+            copy(c);
+        }
+    }
+
+    /**
+     * Writes text produced from a segment, after any markup copied before it.
+     */
+    final void write(String text) throws IOException {
+        flushMarkup();
+        out.write(text);
+    }
+
+    final void flushMarkup() throws IOException {
+        if (!markup.isEmpty()) {
+            out.append(markup);
+            markup.setLength(0);
+        }
+    }
+
+    /**
+     * Makes at least {@code count} characters available from {@link #position}, unless the input ends first.
+     */
+    private boolean fill(int count) throws IOException {
+        if (position > 0) {
+            System.arraycopy(buffer, position, buffer, 0, limit - position);
+            limit -= position;
+            position = 0;
+        }
+        while (limit < count) {
+            int n = in.read(buffer, limit, buffer.length - limit);
+            if (n < 0) {
+                return false;
+            }
+            limit += n;
+        }
+        return true;
+    }
+}
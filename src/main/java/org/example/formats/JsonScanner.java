@@ -0,0 +1,170 @@
+package org.example.formats;
+
+import org.example.expressions.processors.ExpressionProcessor;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.Arrays;
+
+/**
+ * Streaming JSON scanner that processes string values and copies everything else.
+ * <p>
+ * The scanner tracks only the nesting of objects and arrays and whether the next string of an object
+ * is a key, so object keys are never changed. A string value is decoded, processed and, only if
+ * processing changed it, encoded again with the minimal escapes; unchanged strings keep their
+ * original escapes. Numbers, literals and malformed parts of the input are copied as they are.
+ * </p>
+ */
+final class JsonScanner extends FormatScanner {
+
+    private final TextSegment value;
+    private final StringBuilder raw = new StringBuilder();
+    private boolean[] objects = new boolean[16];
+    private int depth;
+    private boolean expectKey;
+
+    JsonScanner(Reader in, Writer out, ExpressionProcessor processor) {
+        super(in, out);
+        this.value = new TextSegment(processor, this::writeValue);
+    }
+
+    @Override
+    void scan() throws IOException {
+        int c;
+        while ((c = read()) >= 0) {
+            copy(c);
+            switch (c) {
+                case '"' -> {
+                    if (depth > 0 && objects[depth - 1] && expectKey) {
+                        copyKey();
+                    } else {
+                        scanValue();
+                    }
+                }
+                case '{', '[' -> {
+                    if (depth == objects.length) {
+                        objects = Arrays.copyOf(objects, depth * 2);
+                    }
+                    objects[depth++] = c == '{';
+                    expectKey = c == '{';
+                }
+                case '}', ']' -> {
+                    if (depth > 0) {
+                        depth--;
+                    }
+                    expectKey = false;
+                }
+                case ',' -> expectKey = depth > 0 && objects[depth - 1];
+                case ':' -> expectKey = false;
+                default -> {
+                }
+            }
+        }
+        flushMarkup();
+    }
+
+    private void copyKey() throws IOException {
+        int c;
+        while ((c = read()) >= 0) {
+            copy(c);
+            if (c == '\\') {
+                int escaped = read();
+                if (escaped >= 0) {
+                    copy(escaped);
+                }
+            } else if (c == '"') {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Decodes a string value into the segment, keeping its raw form while it fits in one piece.
+     */
+    private void scanValue() throws IOException {
+        raw.setLength(0);
+        int c;
+        while ((c = read()) >= 0 && c != '"') {
+            if (raw.length() < TextSegment.MAX_LENGTH) {
+                raw.append((char) c);
+            }
+            if (c != '\\') {
+                value.append((char) c);
+                continue;
+            }
+            int escaped = read();
+            if (escaped < 0) {
+                break;
+            }
+            if (raw.length() < TextSegment.MAX_LENGTH) {
+                raw.append((char) escaped);
+            }
+            switch (escaped) {
+                case 'b' -> value.append('\b');
+                case 'f' -> value.append('\f');
+                case 'n' -> value.append('\n');
+                case 'r' -> value.append('\r');
+                case 't' -> value.append('\t');
+                case 'u' -> value.append(readHex());
+                default -> value.append((char) escaped);
+            }
+        }
+        value.finish();
+        if (c == '"') {
+            copy(c);
+        }
+    }
+
+    private char readHex() throws IOException {
+        int code = 0;
+        for (int i = 0; i < 4; i++) {
+            int c = read();
+            int digit = c < 0 ? -1 : Character.digit((char) c, 16);
+            if (digit < 0) {
+                throw new IOException("Malformed \\u escape in JSON string");
+            }
+            if (raw.length() < TextSegment.MAX_LENGTH) {
+                raw.append((char) c);
+            }
+            code = code * 16 + digit;
+        }
+        return (char) code;
+    }
+
+    private void writeValue(String original, String processed, boolean whole) throws IOException {
+        if (whole && processed.equals(original) && raw.length() < TextSegment.MAX_LENGTH) {
+            write(raw.toString());
+        } else {
+            write(escape(processed));
+        }
+    }
+
+    static String escape(String text) {
+        StringBuilder sb = null;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            String escape = switch (c) {
+                case '"' -> "\\\"";
+                case '\\' -> "\\\\";
+                case '\b' -> "\\b";
+                case '\f' -> "\\f";
+                case '\n' -> "\\n";
+                case '\r' -> "\\r";
+                case '\t' -> "\\t";
+                default -> c < 0x20 ? String.format("\\u%04x", (int) c) : null;
+            };
+            if (escape != null && sb == null) {
+                sb = new StringBuilder(text.length() + 16).append(text, 0, i);
+            }
+            if (sb != null) {
+                if (escape != null) {
+                    sb.append(escape);
+                } else {
+                    sb.append(c);
+                }
+            }
+        }
+        return sb == null ? text : sb.toString();
+    }
+}
@@ -0,0 +1,79 @@
+package org.example.formats;
+
+import org.example.expressions.processors.ExpressionProcessor;
+import org.example.expressions.processors.StreamingExpressionProcessor;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+
+/**
+ * Expression processor that understands the structure of JSON, XML, HTML and YAML documents.
+ * <p>
+ * The document is streamed through a small event scanner for its format instead of being parsed into
+ * a tree: only text nodes and string values are passed to the delegate processor, everything else is
+ * copied unchanged, and the output is written as the input is read. Memory use is bounded by the
+ * scanner's buffers and the longest text piece (see {@link TextFormat} for what each format processes).
+ * {@link TextFormat#PLAIN} text is streamed through a {@link StreamingExpressionProcessor}.
+ * </p>
+ */
+public class StructuredTextProcessor implements ExpressionProcessor {
+
+    private final ExpressionProcessor delegate;
+    private final TextFormat format;
+
+    public StructuredTextProcessor(ExpressionProcessor delegate, TextFormat format) {
+        this.delegate = delegate;
+        this.format = format;
+    }
+
+    public TextFormat format() {
+        return format;
+    }
+
+    /**
+     * Processes the whole document.
+     *
+     * @param input the document text
+     * @return the processed document
+     */
+    @Override
+    public String process(String input) {
+        if (input == null || input.isEmpty()) {
+            return input;
+        }
+        StringWriter out = new StringWriter(input.length());
+        try {
+            process(new StringReader(input), out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toString();
+    }
+
+    /**
+     * Reads the document from the reader, processes it and writes the result as it goes.
+     * Neither the reader nor the writer is closed.
+     *
+     * @param in  the source of the document
+     * @param out the target for the processed document
+     * @throws IOException if reading or writing fails, or a JSON string holds a malformed escape
+     */
+    public void process(Reader in, Writer out) throws IOException {
+        FormatScanner scanner = switch (format) {
+            case PLAIN -> null;
+            case JSON -> new JsonScanner(in, out, delegate);
+            case XML -> new XmlScanner(in, out, delegate, false);
+            case HTML -> new XmlScanner(in, out, delegate, true);
+            case YAML -> new YamlScanner(in, out, delegate);
+        };
+        if (scanner == null) {
+            new StreamingExpressionProcessor(delegate).process(in, out);
+        } else {
+            scanner.scan();
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package org.example.formats;
+
+import java.util.Locale;
+
+/**
+ * Format of an input document, which decides what part of it is passed to the expression processor.
+ */
+public enum TextFormat {
+    /** The whole text is processed. */
+    PLAIN,
+    /** String values are processed; keys, numbers and punctuation are kept. */
+    JSON,
+    /** Text nodes and CDATA sections are processed; tags, attributes, comments and declarations are kept. */
+    XML,
+    /** Like {@link #XML}, but the content of {@code script} and {@code style} elements is kept as well. */
+    HTML,
+    /** Scalar values are processed; keys, comments, anchors, tags and flow collections are kept. */
+    YAML;
+
+    /**
+     * Chooses the format from the file extension; a trailing {@code .gz} is ignored.
+     *
+     * @return the format of {@code .json}, {@code .xml}, {@code .html}/{@code .htm}/{@code .xhtml} and
+     *         {@code .yaml}/{@code .yml} files, otherwise {@link #PLAIN}
+     */
+    public static TextFormat forPath(String path) {
+        String name = path.toLowerCase(Locale.ROOT);
+        if (name.endsWith(".gz")) {
+            name = name.substring(0, name.length() - 3);
+        }
+        String extension = name.substring(name.lastIndexOf('.') + 1);
+        return switch (extension) {
+            case "json" -> JSON;
+            case "xml" -> XML;
+            case "html", "htm", "xhtml" -> HTML;
+            case "yaml", "yml" -> YAML;
+            default -> PLAIN;
+        };
+    }
+
+    /**
+     * Parses a command line value: {@code plain}, {@code json}, {@code xml}, {@code html} or {@code yaml}.
+     *
+     * @throws IllegalArgumentException for any other value
+     */
+    public static TextFormat parse(String value) {
+        try {
+            return valueOf(value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown format: " + value);
+        }
+    }
+}
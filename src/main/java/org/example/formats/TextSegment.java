@@ -0,0 +1,78 @@
+package org.example.formats;
+
+import org.example.expressions.processors.ChunkBoundaryScanner;
+import org.example.expressions.processors.ExpressionProcessor;
+
+import java.io.IOException;
+
+/**
+ * Collects the characters of one text node or string value and passes them to the processor.
+ * <p>
+ * A segment longer than {@link #MAX_LENGTH} characters is processed in pieces cut at safe boundaries
+ * (see {@link ChunkBoundaryScanner}), so a huge text node needs no more memory than a small one. Without
+ * a safe boundary, e.g. inside a group that is never closed, the piece is cut at four times that length.
+ * </p>
+ */
+final class TextSegment {
+
+    static final int MAX_LENGTH = 64 * 1024;
+
+    /**
+     * Receives the processed pieces of a segment.
+     */
+    interface Sink {
+        /**
+         * @param original  the piece as collected
+         * @param processed the piece after processing
+         * @param whole     whether the piece is the whole segment
+         */
+        void accept(String original, String processed, boolean whole) throws IOException;
+    }
+
+    private final ExpressionProcessor processor;
+    private final Sink sink;
+    private final StringBuilder pending = new StringBuilder();
+    private final ChunkBoundaryScanner boundaries = new ChunkBoundaryScanner();
+    private boolean cut;
+
+    TextSegment(ExpressionProcessor processor, Sink sink) {
+        this.processor = processor;
+        this.sink = sink;
+    }
+
+    void append(char c) throws IOException {
+        pending.append(c);
+        if (pending.length() >= MAX_LENGTH && pending.length() % (MAX_LENGTH / 4) == 0) {
+            boundaries.reset();
+            boundaries.scan(pending, 0, pending.length());
+            int boundary = boundaries.lastBoundary();
+            if (boundary > 0) {
+                String piece = pending.substring(0, boundary);
+                pending.delete(0, boundary);
+                cut = true;
+                sink.accept(piece, processor.process(piece), false);
+            } else if (pending.length() >= 4 * MAX_LENGTH) {
+                String piece = pending.toString();
+                pending.setLength(0);
+                cut = true;
+                sink.accept(piece, processor.process(piece), false);
+            }
+        }
+    }
+
+    boolean isEmpty() {
+        return pending.isEmpty() && !cut;
+    }
+
+    /**
+     * Processes what is left of the segment and starts a new one.
+     */
+    void finish() throws IOException {
+        if (!pending.isEmpty()) {
+            String piece = pending.toString();
+            pending.setLength(0);
+            sink.accept(piece, processor.process(piece), !cut);
+        }
+        cut = false;
+    }
+}
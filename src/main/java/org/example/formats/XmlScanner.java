@@ -0,0 +1,133 @@
+package org.example.formats;
+
+import org.example.expressions.processors.ExpressionProcessor;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+
+/**
+ * Streaming XML and HTML scanner that processes text nodes and copies the markup.
+ * <p>
+ * Tags with their attributes, comments, processing instructions and declarations are copied unchanged;
+ * the content of CDATA sections is processed like text. In HTML mode the content of {@code script} and
+ * {@code style} elements is copied too. A {@code <} that cannot start markup (e.g. in {@code 1 < 2} in
+ * HTML) is text. Entity and character references are not decoded: like any character that is not part
+ * of an expression, they end an expression, and the processor can never produce {@code <} or {@code &},
+ * so the output stays well-formed.
+ * </p>
+ */
+final class XmlScanner extends FormatScanner {
+
+    private final boolean html;
+    private final TextSegment text;
+    private final StringBuilder tagName = new StringBuilder();
+
+    XmlScanner(Reader in, Writer out, ExpressionProcessor processor, boolean html) {
+        super(in, out);
+        this.html = html;
+        this.text = new TextSegment(processor, (original, processed, whole) -> write(processed));
+    }
+
+    @Override
+    void scan() throws IOException {
+        int c;
+        while ((c = read()) >= 0) {
+            if (c == '<' && startsMarkup(peek(0))) {
+                text.finish();
+                copy(c);
+                scanMarkup();
+            } else {
+                text.append((char) c);
+            }
+        }
+        text.finish();
+        flushMarkup();
+    }
+
+    private static boolean startsMarkup(int next) {
+        return next == '/' || next == '!' || next == '?' || (next >= 0 && Character.isLetter(next));
+    }
+
+    /**
+     * Copies the markup after a {@code <}, processing the content of a CDATA section.
+     */
+    private void scanMarkup() throws IOException {
+        if (lookingAt("!--", false)) {
+            copyThrough("-->");
+        } else if (lookingAt("![CDATA[", false)) {
+            copyThrough("![CDATA[");
+            int c;
+            while (!lookingAt("]]>", false) && (c = read()) >= 0) {
+                text.append((char) c);
+            }
+            text.finish();
+            copyThrough("]]>");
+        } else if (lookingAt("?", false)) {
+            copyThrough("?>");
+        } else if (lookingAt("!", false)) {
+            copyDeclaration();
+        } else {
+            copyTag();
+        }
+    }
+
+    /**
+     * Copies a declaration such as {@code <!DOCTYPE ...>}, including an internal subset in brackets.
+     */
+    private void copyDeclaration() throws IOException {
+        int brackets = 0;
+        int c;
+        while ((c = read()) >= 0) {
+            copy(c);
+            if (c == '[') {
+                brackets++;
+            } else if (c == ']') {
+                brackets--;
+            } else if (c == '>' && brackets <= 0) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Copies a start or end tag with its attributes. In HTML mode the content of a script or style
+     * element is copied up to its end tag.
+     */
+    private void copyTag() throws IOException {
+        boolean endTag = peek(0) == '/';
+        if (endTag) {
+            copy(read());
+        }
+        tagName.setLength(0);
+        int c;
+        while ((c = peek(0)) >= 0 && (Character.isLetterOrDigit(c) || c == '-' || c == '_' || c == ':' || c == '.')) {
+            copy(read());
+            tagName.append(Character.toLowerCase((char) c));
+        }
+        char quote = 0;
+        while ((c = read()) >= 0) {
+            copy(c);
+            if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                }
+            } else if (c == '"' || c == '\'') {
+                quote = (char) c;
+            } else if (c == '>') {
+                break;
+            }
+        }
+        if (html && !endTag && c == '>' && isRawTextElement()) {
+            String end = "</" + tagName;
+            int next;
+            while (!lookingAt(end, true) && (next = read()) >= 0) {
+                copy(next);
+            }
+        }
+    }
+
+    private boolean isRawTextElement() {
+        return tagName.toString().equals("script") || tagName.toString().equals("style");
+    }
+}
@@ -0,0 +1,273 @@
+package org.example.formats;
+
+import org.example.expressions.processors.ExpressionProcessor;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+
+/**
+ * Streaming YAML scanner that processes scalar values line by line and copies everything else.
+ * <p>
+ * On each line, sequence dashes, a mapping key with its colon, anchors, tags, comments and document
+ * markers are copied; the value that follows is processed. Plain and single-quoted values are processed
+ * as written. Double-quoted values are processed only if they contain no escapes, since the output must
+ * not change their meaning. The lines of a literal ({@code |}) or folded ({@code >}) block scalar are
+ * processed one by one. A processed plain value that is no longer a valid plain scalar, e.g. an error
+ * message starting with {@code [}, is written double-quoted. Flow collections ({@code [...]},
+ * <code>{...}</code>), aliases and quoted values that continue on the next line are copied unchanged.
+ * </p>
+ * <p>
+ * Only the current line is held in memory.
+ * </p>
+ */
+final class YamlScanner extends FormatScanner {
+
+    private final ExpressionProcessor processor;
+    private final StringBuilder line = new StringBuilder();
+    private int blockIndent = -1;
+
+    YamlScanner(Reader in, Writer out, ExpressionProcessor processor) {
+        super(in, out);
+        this.processor = processor;
+    }
+
+    @Override
+    void scan() throws IOException {
+        while (readLine()) {
+            int end = contentEnd();
+            int indent = indentation(end);
+            if (blockIndent >= 0 && (indent == end || indent > blockIndent)) {
+                copyRange(0, indent);
+                process(indent, end);
+                copyRange(end, line.length());
+                continue;
+            }
+            blockIndent = -1;
+            scanLine(indent, end);
+        }
+        flushMarkup();
+    }
+
+    /**
+     * Reads the next line including its line break into {@link #line}.
+     *
+     * @return false at the end of the input
+     */
+    private boolean readLine() throws IOException {
+        line.setLength(0);
+        int c;
+        while ((c = read()) >= 0) {
+            line.append((char) c);
+            if (c == '\n') {
+                break;
+            }
+        }
+        return !line.isEmpty();
+    }
+
+    /**
+     * @return the end of the line without its line break
+     */
+    private int contentEnd() {
+        int end = line.length();
+        while (end > 0 && (line.charAt(end - 1) == '\n' || line.charAt(end - 1) == '\r')) {
+            end--;
+        }
+        return end;
+    }
+
+    private int indentation(int end) {
+        int i = 0;
+        while (i < end && line.charAt(i) == ' ') {
+            i++;
+        }
+        return i;
+    }
+
+    private void scanLine(int indent, int end) throws IOException {
+        int pos = indent;
+        if (pos == end || line.charAt(pos) == '#' || startsWith(pos, "---") || startsWith(pos, "...")) {
+            copyRange(0, line.length());
+            return;
+        }
+        while (pos < end && line.charAt(pos) == '-' && (pos + 1 == end || line.charAt(pos + 1) == ' ')) {
+            pos = skipSpaces(pos + 1, end);
+        }
+        int valueStart = keyEnd(pos, end);
+        if (valueStart >= 0) {
+            pos = skipSpaces(valueStart, end);
+        }
+        copyRange(0, pos);
+        scanValue(indent, pos, end);
+    }
+
+    /**
+     * Copies the value starting at {@code pos} and the rest of the line, processing the scalar.
+     */
+    private void scanValue(int indent, int pos, int end) throws IOException {
+        while (pos < end && (line.charAt(pos) == '&' || line.charAt(pos) == '!')) {
+            int next = skipSpaces(tokenEnd(pos, end), end);
+            copyRange(pos, next);
+            pos = next;
+        }
+        if (pos == end) {
+            copyRange(pos, line.length());
+            return;
+        }
+        char first = line.charAt(pos);
+        int valueEnd;
+        if (first == '|' || first == '>') {
+            blockIndent = indent;
+            valueEnd = pos;
+        } else if (first == '\'' || first == '"') {
+            int close = closingQuote(pos, end);
+            if (close < 0 || (first == '"' && line.indexOf("\\", pos) >= 0 && line.indexOf("\\", pos) < close)) {
+                valueEnd = pos;
+            } else {
+                copyRange(pos, pos + 1);
+                process(pos + 1, close);
+                pos = close;
+                valueEnd = close;
+            }
+        } else if (first == '[' || first == '{' || first == '*' || first == '#') {
+            valueEnd = pos;
+        } else {
+            valueEnd = commentStart(pos, end);
+            while (valueEnd > pos && line.charAt(valueEnd - 1) == ' ') {
+                valueEnd--;
+            }
+            processPlain(pos, valueEnd);
+        }
+        copyRange(valueEnd, line.length());
+    }
+
+    /**
+     * @return the position after the colon of a mapping key starting at {@code pos}, or {@code -1} if the
+     *         line has no key there
+     */
+    private int keyEnd(int pos, int end) {
+        int i = pos;
+        if (i < end && (line.charAt(i) == '"' || line.charAt(i) == '\'')) {
+            int close = closingQuote(i, end);
+            if (close < 0) {
+                return -1;
+            }
+            i = close + 1;
+            while (i < end && line.charAt(i) == ' ') {
+                i++;
+            }
+            return i < end && line.charAt(i) == ':' ? i + 1 : -1;
+        }
+        for (; i < end; i++) {
+            char c = line.charAt(i);
+            if (c == ':' && (i + 1 == end || line.charAt(i + 1) == ' ')) {
+                return i + 1;
+            }
+            if (c == '#' && i > pos && line.charAt(i - 1) == ' ') {
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return the index of the quote closing the one at {@code open}, or {@code -1} if it is not on this line
+     */
+    private int closingQuote(int open, int end) {
+        char quote = line.charAt(open);
+        for (int i = open + 1; i < end; i++) {
+            char c = line.charAt(i);
+            if (quote == '"' && c == '\\') {
+                i++;
+            } else if (c == quote) {
+                if (quote == '\'' && i + 1 < end && line.charAt(i + 1) == '\'') {
+                    i++;
+                } else {
+                    return i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private int commentStart(int pos, int end) {
+        for (int i = pos + 1; i < end; i++) {
+            if (line.charAt(i) == '#' && line.charAt(i - 1) == ' ') {
+                return i;
+            }
+        }
+        return end;
+    }
+
+    private int tokenEnd(int pos, int end) {
+        while (pos < end && line.charAt(pos) != ' ') {
+            pos++;
+        }
+        return pos;
+    }
+
+    private int skipSpaces(int pos, int end) {
+        while (pos < end && line.charAt(pos) == ' ') {
+            pos++;
+        }
+        return pos;
+    }
+
+    private boolean startsWith(int pos, String prefix) {
+        return line.length() >= pos + prefix.length() && line.substring(pos, pos + prefix.length()).equals(prefix)
+                && (line.length() == pos + prefix.length() || Character.isWhitespace(line.charAt(pos + prefix.length())));
+    }
+
+    private void process(int start, int end) throws IOException {
+        if (start < end) {
+            write(processor.process(line.substring(start, end)));
+        }
+    }
+
+    /**
+     * Processes a plain scalar, quoting the result if it could not be read back as the same plain scalar.
+     */
+    private void processPlain(int start, int end) throws IOException {
+        if (start == end) {
+            return;
+        }
+        String original = line.substring(start, end);
+        String processed = processor.process(original);
+        if (processed.equals(original) || isPlainScalar(processed)) {
+            write(processed);
+        } else {
+            write('"' + JsonScanner.escape(processed) + '"');
+        }
+    }
+
+    /**
+     * @return true if {@code value} is read as a plain scalar with the same text in a block mapping or sequence
+     */
+    static boolean isPlainScalar(String value) {
+        if (value.isEmpty() || value.isBlank() || value.strip().length() != value.length()) {
+            return false;
+        }
+        char first = value.charAt(0);
+        if ("[]{},&*!|>'\"%@`#".indexOf(first) >= 0
+                || ((first == '-' || first == '?' || first == ':') && (value.length() == 1 || value.charAt(1) == ' '))) {
+            return false;
+        }
+        if (value.contains(": ") || value.contains(" #") || value.endsWith(":")) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x20 && c != '\t') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void copyRange(int start, int end) throws IOException {
+        for (int i = start; i < end; i++) {
+            copy(line.charAt(i));
+        }
+    }
+}
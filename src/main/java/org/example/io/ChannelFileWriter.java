@@ -0,0 +1,127 @@
+package org.example.io;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * UTF-8 writer that encodes straight into a pooled direct buffer and writes it to a {@link FileChannel}.
+ * <p>
+ * Compared to {@code Files.newBufferedWriter}, the encoded bytes never pass through a heap array
+ * before reaching the channel. Malformed input (an unpaired surrogate) is reported as an error.
+ * </p>
+ */
+public class ChannelFileWriter extends Writer {
+
+    private static final int CHAR_BUFFER_SIZE = 8 * 1024;
+
+    private final FileChannel channel;
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+    private final CharBuffer chars = CharBuffer.allocate(CHAR_BUFFER_SIZE);
+    private ByteBuffer bytes = DirectBufferPool.acquire();
+
+    private ChannelFileWriter(FileChannel channel) {
+        this.channel = channel;
+    }
+
+    /**
+     * Opens the file for writing, creating or truncating it.
+     */
+    public static ChannelFileWriter open(String path) throws IOException {
+        return new ChannelFileWriter(FileChannel.open(Path.of(path),
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE));
+    }
+
+    @Override
+    public void write(char[] cbuf, int off, int len) throws IOException {
+        ensureOpen();
+        while (len > 0) {
+            int n = Math.min(len, chars.remaining());
+            chars.put(cbuf, off, n);
+            off += n;
+            len -= n;
+            if (!chars.hasRemaining()) {
+                encode(false);
+            }
+        }
+    }
+
+    @Override
+    public void write(String str, int off, int len) throws IOException {
+        ensureOpen();
+        while (len > 0) {
+            int n = Math.min(len, chars.remaining());
+            chars.put(str, off, off + n);
+            off += n;
+            len -= n;
+            if (!chars.hasRemaining()) {
+                encode(false);
+            }
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        ensureOpen();
+        encode(false);
+        drain();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (bytes == null) {
+            return;
+        }
+        try {
+            encode(true);
+            while (encoder.flush(bytes).isOverflow()) {
+                drain();
+            }
+            drain();
+        } finally {
+            DirectBufferPool.release(bytes);
+            bytes = null;
+            channel.close();
+        }
+    }
+
+    /**
+     * Encodes the buffered characters. A trailing high surrogate stays buffered
+     * until its low surrogate arrives, unless this is the end of the input.
+     */
+    private void encode(boolean endOfInput) throws IOException {
+        chars.flip();
+        while (true) {
+            CoderResult result = encoder.encode(chars, bytes, endOfInput);
+            if (result.isOverflow()) {
+                drain();
+            } else if (result.isUnderflow()) {
+                break;
+            } else {
+                result.throwException();
+            }
+        }
+        chars.compact();
+    }
+
+    private void drain() throws IOException {
+        bytes.flip();
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+        bytes.clear();
+    }
+
+    private void ensureOpen() throws IOException {
+        if (bytes == null) {
+            throw new IOException("Writer closed");
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package org.example.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compression applied to input and output files, chosen by file extension or command line flag.
+ * <p>
+ * Both gzip variants write standard gzip files that any gzip reader accepts, and both read gzip
+ * files, including ones made of several concatenated members. They differ only in how they write:
+ * {@link #GZIP} compresses on the writing thread, {@link #PARALLEL_GZIP} compresses blocks on
+ * several threads (see {@link ParallelGzipOutputStream}).
+ * </p>
+ */
+public enum Compression {
+    NONE,
+    GZIP,
+    PARALLEL_GZIP;
+
+    static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * @return {@link #GZIP} for files ending in {@code .gz}, otherwise {@link #NONE}
+     */
+    public static Compression forPath(String path) {
+        return path.toLowerCase(Locale.ROOT).endsWith(".gz") ? GZIP : NONE;
+    }
+
+    /**
+     * Parses a command line value: {@code none}, {@code gzip} or {@code pgzip}.
+     *
+     * @throws IllegalArgumentException for any other value
+     */
+    public static Compression parse(String value) {
+        return switch (value.toLowerCase(Locale.ROOT)) {
+            case "none" -> NONE;
+            case "gzip" -> GZIP;
+            case "pgzip" -> PARALLEL_GZIP;
+            default -> throw new IllegalArgumentException("Unknown compression: " + value);
+        };
+    }
+
+    /**
+     * Wraps a stream of file content in a stream of the uncompressed bytes.
+     */
+    public InputStream decompress(InputStream in) throws IOException {
+        return this == NONE ? in : new GZIPInputStream(in, BUFFER_SIZE);
+    }
+
+    /**
+     * Wraps a file stream in a stream that compresses what is written to it. Closing the returned stream
+     * finishes the compressed data and closes the file stream.
+     */
+    public OutputStream compress(OutputStream out) throws IOException {
+        return switch (this) {
+            case NONE -> out;
+            case GZIP -> new GZIPOutputStream(out, BUFFER_SIZE);
+            case PARALLEL_GZIP -> new ParallelGzipOutputStream(out);
+        };
+    }
+}
@@ -0,0 +1,34 @@
+package org.example.io;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * Small pool of direct byte buffers shared by channel writers, so that opening many
+ * output files does not allocate (and later free) a direct buffer for each of them.
+ */
+public class DirectBufferPool {
+
+    public static final int BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_POOLED = 64;
+
+    private static final ArrayBlockingQueue<ByteBuffer> POOL = new ArrayBlockingQueue<>(MAX_POOLED);
+
+    private DirectBufferPool() {
+    }
+
+    /**
+     * @return a cleared direct buffer of {@link #BUFFER_SIZE} bytes
+     */
+    public static ByteBuffer acquire() {
+        ByteBuffer buffer = POOL.poll();
+        return buffer != null ? buffer.clear() : ByteBuffer.allocateDirect(BUFFER_SIZE);
+    }
+
+    /**
+     * Returns a buffer to the pool. The caller must not use it afterwards.
+     */
+    public static void release(ByteBuffer buffer) {
+        POOL.offer(buffer);
+    }
+}
@@ -0,0 +1,138 @@
+package org.example.io;
+
+import javax.crypto.AEADBadTagException;
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+import java.util.Objects;
+
+import static org.example.io.EncryptedOutputStream.*;
+
+/**
+ * Input stream that decrypts a stream written by {@link EncryptedOutputStream}, one chunk at a time.
+ * <p>
+ * Every chunk is authenticated before any of its bytes are returned. A chunk that was modified, moved or
+ * encrypted with another key, and a stream that ends before its last chunk, fail with an
+ * {@link IOException}; bytes already returned from earlier chunks are authentic. Closing the stream
+ * closes the source stream. This class is not thread-safe.
+ * </p>
+ */
+public class EncryptedInputStream extends InputStream {
+
+    private final InputStream in;
+    private final SecretKey key;
+    private final Cipher cipher;
+    private final byte[] header;
+    private final byte[] nonce = new byte[NONCE_LENGTH];
+    private final byte[] sealed;
+    private final byte[] plain;
+    private int position;
+    private int limit;
+    private int lookahead = -1;
+    private long chunkIndex;
+    private boolean last;
+
+    /**
+     * @param key the master key the stream was written with
+     */
+    public EncryptedInputStream(InputStream in, SecretKey key) throws IOException {
+        this.in = in;
+        this.cipher = newCipher();
+        this.header = in.readNBytes(HEADER_LENGTH);
+
+        ByteBuffer fields = ByteBuffer.wrap(header);
+        byte[] magic = new byte[MAGIC.length];
+        if (header.length == HEADER_LENGTH) {
+            fields.get(magic);
+        }
+        if (!Arrays.equals(magic, MAGIC)) {
+            throw new IOException("Not an encrypted file");
+        }
+        byte version = fields.get();
+        int chunkSize = fields.getInt();
+        if (version != VERSION || chunkSize <= 0 || chunkSize > MAX_CHUNK_SIZE) {
+            throw new IOException("Unsupported encrypted file format");
+        }
+        byte[] salt = new byte[SALT_LENGTH];
+        fields.get(salt).get(nonce, 0, PREFIX_LENGTH);
+        this.key = deriveKey(key, salt);
+        this.sealed = new byte[chunkSize + TAG_LENGTH];
+        this.plain = new byte[chunkSize];
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (position == limit && !nextChunk()) {
+            return -1;
+        }
+        return plain[position++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        Objects.checkFromIndexSize(off, len, b.length);
+        if (len == 0) {
+            return 0;
+        }
+        if (position == limit && !nextChunk()) {
+            return -1;
+        }
+        int n = Math.min(len, limit - position);
+        System.arraycopy(plain, position, b, off, n);
+        position += n;
+        return n;
+    }
+
+    @Override
+    public int available() {
+        return limit - position;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    /**
+     * Reads and decrypts the next chunk. A chunk is the last one if the stream ends after it; one byte is
+     * read ahead to find out.
+     *
+     * @return false after the last chunk
+     */
+    private boolean nextChunk() throws IOException {
+        if (last) {
+            return false;
+        }
+        int n = 0;
+        if (lookahead >= 0) {
+            sealed[n++] = (byte) lookahead;
+            lookahead = -1;
+        }
+        n += in.readNBytes(sealed, n, sealed.length - n);
+        if (n == sealed.length) {
+            lookahead = in.read();
+        }
+        last = lookahead < 0;
+        if (n < TAG_LENGTH) {
+            throw new IOException("Encrypted file is truncated");
+        }
+
+        setNonce(nonce, chunkIndex++, last);
+        try {
+            cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(TAG_LENGTH * 8, nonce));
+            cipher.updateAAD(header);
+            limit = cipher.doFinal(sealed, 0, n, plain, 0);
+        } catch (AEADBadTagException e) {
+            throw new IOException("Encrypted file is corrupt, truncated or encrypted with another key", e);
+        } catch (GeneralSecurityException e) {
+            throw new IOException("Decryption failed", e);
+        }
+        position = 0;
+        return limit > 0;
+    }
+}
@@ -0,0 +1,192 @@
+package org.example.io;
+
+import javax.crypto.Cipher;
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Objects;
+
+/**
+ * Output stream that encrypts what is written to it with AES-GCM in fixed-size chunks.
+ * <p>
+ * The stream starts with a 48-byte header: the magic {@code AETE}, a format version, the chunk size,
+ * a random 32-byte salt and a random 7-byte nonce prefix. The chunks are not encrypted with the master
+ * key itself but with a 256-bit key derived from it and the salt with HKDF-SHA256 (RFC 5869), so every
+ * file has its own key and no nonce is reused under a key, however many files share the master key.
+ * Every chunk of {@code chunkSize} plaintext bytes (the last one may be shorter or empty) is sealed
+ * separately and followed by its 16-byte authentication tag. The nonce of a chunk is the prefix, the
+ * chunk index and a flag marking the last chunk, and the header is authenticated with every chunk, so
+ * chunks cannot be reordered, dropped or cut off the end without {@link EncryptedInputStream} failing.
+ * Only one chunk is held in memory.
+ * </p>
+ * <p>
+ * The JDK runs AES-GCM on the CPU's AES and carry-less multiply instructions where available, and the
+ * cipher and both buffers are reused for every chunk. {@link #flush()} cannot seal a partial chunk; it
+ * only flushes the target stream. Closing the stream seals the last chunk and closes the target stream.
+ * This class is not thread-safe.
+ * </p>
+ */
+public class EncryptedOutputStream extends OutputStream {
+
+    public static final int DEFAULT_CHUNK_SIZE = 64 * 1024;
+
+    static final byte[] MAGIC = {'A', 'E', 'T', 'E'};
+    static final byte VERSION = 2;
+    static final int SALT_LENGTH = 32;
+    static final int PREFIX_LENGTH = 7;
+    static final int HEADER_LENGTH = 9 + SALT_LENGTH + PREFIX_LENGTH;
+    static final int NONCE_LENGTH = 12;
+    static final int TAG_LENGTH = 16;
+    static final int MAX_CHUNK_SIZE = 16 * 1024 * 1024;
+    static final String TRANSFORMATION = "AES/GCM/NoPadding";
+
+    private static final String HMAC = "HmacSHA256";
+    private static final byte[] KEY_INFO = "AETE chunk key".getBytes(StandardCharsets.US_ASCII);
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final OutputStream out;
+    private final SecretKey key;
+    private final Cipher cipher;
+    private final byte[] header = new byte[HEADER_LENGTH];
+    private final byte[] nonce = new byte[NONCE_LENGTH];
+    private final byte[] buffer;
+    private final byte[] sealed;
+    private int count;
+    private long chunkIndex;
+    private boolean closed;
+
+    public EncryptedOutputStream(OutputStream out, SecretKey key) throws IOException {
+        this(out, key, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * @param key the master key; the chunks are encrypted with a key derived from it for this stream
+     */
+    public EncryptedOutputStream(OutputStream out, SecretKey key, int chunkSize) throws IOException {
+        if (chunkSize <= 0 || chunkSize > MAX_CHUNK_SIZE) {
+            throw new IllegalArgumentException("Invalid chunk size: " + chunkSize);
+        }
+        byte[] salt = new byte[SALT_LENGTH];
+        byte[] prefix = new byte[PREFIX_LENGTH];
+        RANDOM.nextBytes(salt);
+        RANDOM.nextBytes(prefix);
+        ByteBuffer.wrap(header).put(MAGIC).put(VERSION).putInt(chunkSize).put(salt).put(prefix);
+        System.arraycopy(prefix, 0, nonce, 0, PREFIX_LENGTH);
+
+        this.out = out;
+        this.key = deriveKey(key, salt);
+        this.cipher = newCipher();
+        this.buffer = new byte[chunkSize];
+        this.sealed = new byte[chunkSize + TAG_LENGTH];
+        out.write(header);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        ensureOpen();
+        if (count == buffer.length) {
+            seal(false);
+        }
+        buffer[count++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        Objects.checkFromIndexSize(off, len, b.length);
+        ensureOpen();
+        while (len > 0) {
+            if (count == buffer.length) {
+                seal(false);
+            }
+            int n = Math.min(len, buffer.length - count);
+            System.arraycopy(b, off, buffer, count, n);
+            count += n;
+            off += n;
+            len -= n;
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        ensureOpen();
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try (out) {
+            seal(true);
+        }
+    }
+
+    /**
+     * Encrypts the buffered chunk and writes it with its tag.
+     */
+    private void seal(boolean last) throws IOException {
+        if (chunkIndex > 0xFFFF_FFFFL) {
+            throw new IOException("Too many chunks for one encrypted stream");
+        }
+        setNonce(nonce, chunkIndex++, last);
+        try {
+            cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(TAG_LENGTH * 8, nonce));
+            cipher.updateAAD(header);
+            int length = cipher.doFinal(buffer, 0, count, sealed, 0);
+            out.write(sealed, 0, length);
+        } catch (GeneralSecurityException e) {
+            throw new IOException("Encryption failed", e);
+        }
+        count = 0;
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+    }
+
+    /**
+     * Writes the chunk index and the last-chunk flag after the nonce prefix.
+     */
+    static void setNonce(byte[] nonce, long chunkIndex, boolean last) {
+        ByteBuffer.wrap(nonce, PREFIX_LENGTH, NONCE_LENGTH - PREFIX_LENGTH)
+                .putInt((int) chunkIndex)
+                .put((byte) (last ? 1 : 0));
+    }
+
+    /**
+     * Derives the key of one stream from the master key and the stream's salt with HKDF-SHA256.
+     */
+    static SecretKey deriveKey(SecretKey master, byte[] salt) throws IOException {
+        try {
+            Mac mac = Mac.getInstance(HMAC);
+            mac.init(new SecretKeySpec(salt, HMAC));
+            byte[] pseudoRandomKey = mac.doFinal(master.getEncoded());
+            mac.init(new SecretKeySpec(pseudoRandomKey, HMAC));
+            mac.update(KEY_INFO);
+            mac.update((byte) 1);
+            return new SecretKeySpec(mac.doFinal(), "AES");
+        } catch (GeneralSecurityException e) {
+            throw new IOException("Key derivation failed", e);
+        }
+    }
+
+    static Cipher newCipher() throws IOException {
+        try {
+            return Cipher.getInstance(TRANSFORMATION);
+        } catch (GeneralSecurityException e) {
+            throw new IOException(TRANSFORMATION + " is not available", e);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package org.example.io;
+
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyStore;
+import java.util.Base64;
+import java.util.Locale;
+
+/**
+ * AES-GCM encryption of input and output files with a key from the environment or a keystore.
+ * <p>
+ * Files are encrypted in chunks (see {@link EncryptedOutputStream}), so they are encrypted and decrypted
+ * while streaming and no plaintext is ever written to disk. Encryption is applied after compression:
+ * {@link SimpleFileWriter} compresses, then encrypts; {@link SimpleFileReader} decrypts, then decompresses.
+ * By convention encrypted files end in {@code .enc}, e.g. {@code data.txt.gz.enc}.
+ * </p>
+ */
+public final class FileEncryption {
+
+    public static final String SUFFIX = ".enc";
+    /** Environment variable holding the Base64-encoded key by default. */
+    public static final String DEFAULT_KEY_VARIABLE = "EXPRESSION_KEY";
+    /** Environment variable holding the keystore password. */
+    public static final String KEYSTORE_PASSWORD_VARIABLE = "EXPRESSION_KEYSTORE_PASSWORD";
+    public static final String DEFAULT_KEY_ALIAS = "expressions";
+
+    private final SecretKey key;
+
+    private FileEncryption(SecretKey key) {
+        this.key = key;
+    }
+
+    /**
+     * @param key a 128, 192 or 256-bit AES key
+     */
+    public static FileEncryption withKey(byte[] key) {
+        if (key.length != 16 && key.length != 24 && key.length != 32) {
+            throw new IllegalArgumentException("AES keys have 16, 24 or 32 bytes, not " + key.length);
+        }
+        return new FileEncryption(new SecretKeySpec(key, "AES"));
+    }
+
+    /**
+     * Reads the Base64-encoded key from an environment variable.
+     *
+     * @throws IllegalArgumentException if the variable is not set or holds no valid key
+     */
+    public static FileEncryption fromEnvironment(String variable) {
+        String value = System.getenv(variable);
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException("Environment variable " + variable + " is not set");
+        }
+        try {
+            return withKey(Base64.getDecoder().decode(value.strip()));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Environment variable " + variable + " does not hold a Base64 AES key: "
+                    + e.getMessage());
+        }
+    }
+
+    /**
+     * Loads the key from a keystore file, with the password from {@value #KEYSTORE_PASSWORD_VARIABLE}.
+     */
+    public static FileEncryption fromKeyStore(Path path, String alias) throws IOException {
+        String password = System.getenv(KEYSTORE_PASSWORD_VARIABLE);
+        if (password == null) {
+            throw new IllegalArgumentException("Environment variable " + KEYSTORE_PASSWORD_VARIABLE + " is not set");
+        }
+        return fromKeyStore(path, password.toCharArray(), alias);
+    }
+
+    /**
+     * Loads the key from a PKCS12 or JKS keystore file holding it as a secret key entry,
+     * protected by the keystore password.
+     *
+     * @throws IOException if the keystore cannot be read or holds no AES key under {@code alias}
+     */
+    public static FileEncryption fromKeyStore(Path path, char[] password, String alias) throws IOException {
+        Key key;
+        try {
+            KeyStore keyStore = KeyStore.getInstance(path.toFile(), password);
+            key = keyStore.getKey(alias, password);
+        } catch (GeneralSecurityException e) {
+            throw new IOException("Cannot load key '" + alias + "' from " + path, e);
+        }
+        if (!(key instanceof SecretKey secretKey) || !secretKey.getAlgorithm().equalsIgnoreCase("AES")) {
+            throw new IOException("No AES key '" + alias + "' in " + path);
+        }
+        return withKey(secretKey.getEncoded());
+    }
+
+    /**
+     * @return true for files ending in {@value #SUFFIX}
+     */
+    public static boolean isEncrypted(String path) {
+        return path.toLowerCase(Locale.ROOT).endsWith(SUFFIX);
+    }
+
+    /**
+     * @return the path without a trailing {@value #SUFFIX}, from which compression and format are chosen
+     */
+    public static String stripSuffix(String path) {
+        return isEncrypted(path) ? path.substring(0, path.length() - SUFFIX.length()) : path;
+    }
+
+    /**
+     * Wraps a stream of file content in a stream of the decrypted bytes.
+     */
+    public InputStream decrypt(InputStream in) throws IOException {
+        return new EncryptedInputStream(in, key);
+    }
+
+    /**
+     * Wraps a file stream in a stream that encrypts what is written to it. Closing the returned stream
+     * seals the last chunk and closes the file stream.
+     */
+    public OutputStream encrypt(OutputStream out) throws IOException {
+        return new EncryptedOutputStream(out, key);
+    }
+}
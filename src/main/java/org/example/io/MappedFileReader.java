@@ -0,0 +1,139 @@
+package org.example.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads a file through a memory mapping instead of decoding it into a heap {@code String}.
+ * <p>
+ * Pure ASCII files are exposed directly as a {@link CharSequence} view over the mapped bytes, so
+ * nothing is copied or decoded up front. Other UTF-8 files are decoded once into an off-heap
+ * {@link CharBuffer} sized to their exact UTF-16 length, which limits them to {@value #MAX_DECODED_CHARS}
+ * characters (2 GB of UTF-16); ASCII files may have up to 2 GB. In both cases the heap only holds what the
+ * caller copies out of the view, e.g. one chunk at a time through {@code StreamingExpressionProcessor}.
+ * </p>
+ */
+public class MappedFileReader {
+
+    static final int MAX_DECODED_CHARS = Integer.MAX_VALUE / Character.BYTES;
+
+    /**
+     * Maps the file and returns its text as a read-only view.
+     *
+     * @param path the file to map
+     * @return the content of the file as a UTF-8 decoded character sequence
+     * @throws IOException if the file cannot be mapped, is larger than 2 GB, decodes to more than
+     *                     {@value #MAX_DECODED_CHARS} characters or is not valid UTF-8
+     */
+    public static CharSequence map(String path) throws IOException {
+        try (FileChannel channel = FileChannel.open(Path.of(path), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("File too large to map (" + size + " bytes), use streaming input instead: " + path);
+            }
+            MappedByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (isAscii(bytes)) {
+                return new AsciiCharSequence(bytes);
+            }
+            return decodeOffHeap(bytes, path);
+        }
+    }
+
+    private static boolean isAscii(ByteBuffer bytes) {
+        int i = 0;
+        int limit = bytes.limit();
+        for (; i + Long.BYTES <= limit; i += Long.BYTES) {
+            if ((bytes.getLong(i) & 0x8080808080808080L) != 0) {
+                return false;
+            }
+        }
+        for (; i < limit; i++) {
+            if (bytes.get(i) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static CharBuffer decodeOffHeap(ByteBuffer bytes, String path) throws IOException {
+        long length = decodedLength(bytes);
+        int capacity;
+        try {
+            capacity = Math.multiplyExact(Math.toIntExact(length), Character.BYTES);
+        } catch (ArithmeticException e) {
+            throw new IOException("File decodes to too many characters to map (" + length
+                    + "), use streaming input instead: " + path);
+        }
+        CharBuffer chars = ByteBuffer.allocateDirect(capacity).asCharBuffer();
+        CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder();
+        CoderResult result = decoder.decode(bytes.duplicate(), chars, true);
+        if (result.isUnderflow()) {
+            result = decoder.flush(chars);
+        }
+        if (result.isError()) {
+            result.throwException();
+        }
+        if (result.isOverflow()) {
+            // the count is exact for valid UTF-8, so only malformed input can overflow
+            throw new IOException("File is not valid UTF-8: " + path);
+        }
+        return chars.flip();
+    }
+
+    /**
+     * Counts the UTF-16 units that valid UTF-8 bytes decode to: one per lead byte, two for the lead byte
+     * of a four-byte sequence. Malformed input is left to the decoder.
+     */
+    static long decodedLength(ByteBuffer bytes) {
+        long length = 0;
+        int limit = bytes.limit();
+        for (int i = 0; i < limit; i++) {
+            int b = bytes.get(i) & 0xFF;
+            if ((b & 0xC0) != 0x80) {
+                length += b >= 0xF0 ? 2 : 1;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Character view over ASCII bytes: every byte is exactly one character.
+     */
+    private static final class AsciiCharSequence implements CharSequence {
+        private final ByteBuffer bytes;
+
+        private AsciiCharSequence(ByteBuffer bytes) {
+            this.bytes = bytes;
+        }
+
+        @Override
+        public int length() {
+            return bytes.limit();
+        }
+
+        @Override
+        public char charAt(int index) {
+            return (char) bytes.get(index);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return new AsciiCharSequence(bytes.slice(start, end - start));
+        }
+
+        @Override
+        public String toString() {
+            byte[] copy = new byte[bytes.limit()];
+            bytes.get(0, copy);
+            return new String(copy, StandardCharsets.US_ASCII);
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package org.example.io;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Gzip output stream that compresses blocks of its input on several threads.
+ * <p>
+ * The input is cut into blocks of {@link #DEFAULT_BLOCK_SIZE} bytes, and each block is deflated as a task
+ * on the executor, primed with the last 32 KiB before it as the dictionary, so that matches
+ * reaching back into the previous block are still found. Every block but the last ends with a
+ * sync flush, which aligns it to a byte boundary. The compressed blocks are written in order,
+ * and together they form a single deflate stream. The CRC-32 of the trailer is computed on the
+ * writing thread, which is cheap next to the compression. This is the scheme of {@code pigz}:
+ * the output is one standard gzip member, and it is only a few bytes per block larger than
+ * single-threaded gzip output.
+ * </p>
+ * <p>
+ * At most {@code maxInFlight} blocks are compressed or waiting to be written at once; when the limit
+ * is reached, writing waits for the oldest block, so memory stays bounded however much is written. {@link #flush()}
+ * compresses the buffered input as a short block and waits for all blocks, so frequent flushes cost
+ * compression ratio. The stream itself is not thread-safe.
+ * </p>
+ */
+public class ParallelGzipOutputStream extends OutputStream {
+
+    public static final int DEFAULT_BLOCK_SIZE = 128 * 1024;
+
+    private static final int DICTIONARY_SIZE = 32 * 1024;
+    private static final byte[] HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+
+    private final OutputStream out;
+    private final Executor executor;
+    private final int level;
+    private final int blockSize;
+    private final int maxInFlight;
+    private final ArrayDeque<CompletableFuture<byte[]>> pending = new ArrayDeque<>();
+    private final CRC32 crc = new CRC32();
+    private final byte[] history = new byte[DICTIONARY_SIZE];
+    private int historyLength;
+    private byte[] block;
+    private int blockLength;
+    private long size;
+    private boolean closed;
+
+    /**
+     * Creates a stream compressing at the default level on the common fork-join pool.
+     */
+    public ParallelGzipOutputStream(OutputStream out) throws IOException {
+        this(out, ForkJoinPool.commonPool(), Deflater.DEFAULT_COMPRESSION, DEFAULT_BLOCK_SIZE,
+                2 * ForkJoinPool.getCommonPoolParallelism() + 1);
+    }
+
+    /**
+     * @param out         receives the gzip data
+     * @param executor    runs the compression of the blocks
+     * @param level       the deflate level, 0-9 or {@link Deflater#DEFAULT_COMPRESSION}
+     * @param blockSize   the number of input bytes compressed per task
+     * @param maxInFlight the maximum number of blocks compressed or waiting to be written at once
+     */
+    public ParallelGzipOutputStream(OutputStream out, Executor executor, int level, int blockSize,
+                                    int maxInFlight) throws IOException {
+        if (blockSize <= 0 || maxInFlight <= 0) {
+            throw new IllegalArgumentException("Block size and blocks in flight must be positive: "
+                    + blockSize + ", " + maxInFlight);
+        }
+        this.out = out;
+        this.executor = executor;
+        this.level = level;
+        this.blockSize = blockSize;
+        this.maxInFlight = maxInFlight;
+        this.block = new byte[blockSize];
+        out.write(HEADER);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        ensureOpen();
+        block[blockLength++] = (byte) b;
+        if (blockLength == blockSize) {
+            submit(false);
+        }
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        ensureOpen();
+        while (len > 0) {
+            int n = Math.min(len, blockSize - blockLength);
+            System.arraycopy(b, off, block, blockLength, n);
+            blockLength += n;
+            off += n;
+            len -= n;
+            if (blockLength == blockSize) {
+                submit(false);
+            }
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        ensureOpen();
+        if (blockLength > 0) {
+            submit(false);
+        }
+        while (!pending.isEmpty()) {
+            writeNext();
+        }
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try (out) {
+            submit(true);
+            while (!pending.isEmpty()) {
+                writeNext();
+            }
+            writeIntLE((int) crc.getValue());
+            writeIntLE((int) size);
+        }
+    }
+
+    /**
+     * Hands the buffered block to a compression task, writing finished blocks first if too many are in flight.
+     */
+    private void submit(boolean last) throws IOException {
+        while (pending.size() >= maxInFlight) {
+            writeNext();
+        }
+        byte[] input = block;
+        int length = blockLength;
+        byte[] dictionary = Arrays.copyOf(history, historyLength);
+        crc.update(input, 0, length);
+        size += length;
+        remember(input, length);
+
+        pending.add(CompletableFuture.supplyAsync(() -> deflate(input, length, dictionary, last, level), executor));
+        block = last ? null : new byte[blockSize];
+        blockLength = 0;
+    }
+
+    private void writeNext() throws IOException {
+        byte[] compressed;
+        try {
+            compressed = pending.poll().join();
+        } catch (CompletionException e) {
+            throw new IOException("Compression failed", e.getCause());
+        }
+        out.write(compressed);
+    }
+
+    /**
+     * Keeps the last {@link #DICTIONARY_SIZE} bytes written so far as the dictionary of the next block.
+     */
+    private void remember(byte[] input, int length) {
+        if (length >= DICTIONARY_SIZE) {
+            System.arraycopy(input, length - DICTIONARY_SIZE, history, 0, DICTIONARY_SIZE);
+            historyLength = DICTIONARY_SIZE;
+        } else {
+            int kept = Math.min(historyLength, DICTIONARY_SIZE - length);
+            System.arraycopy(history, historyLength - kept, history, 0, kept);
+            System.arraycopy(input, 0, history, kept, length);
+            historyLength = kept + length;
+        }
+    }
+
+    /**
+     * Deflates one block into raw deflate data: ending with a sync flush, or with the final block if {@code last}.
+     */
+    private static byte[] deflate(byte[] input, int length, byte[] dictionary, boolean last, int level) {
+        Deflater deflater = new Deflater(level, true);
+        try {
+            if (dictionary.length > 0) {
+                deflater.setDictionary(dictionary);
+            }
+            deflater.setInput(input, 0, length);
+            if (last) {
+                deflater.finish();
+            }
+            byte[] output = new byte[length + (length >> 3) + 64];
+            int outputLength = 0;
+            while (true) {
+                int n = last
+                        ? deflater.deflate(output, outputLength, output.length - outputLength)
+                        : deflater.deflate(output, outputLength, output.length - outputLength, Deflater.SYNC_FLUSH);
+                outputLength += n;
+                if (last ? deflater.finished() : outputLength < output.length) {
+                    return Arrays.copyOf(output, outputLength);
+                }
+                output = Arrays.copyOf(output, output.length * 2);
+            }
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private void writeIntLE(int value) throws IOException {
+        out.write(value);
+        out.write(value >>> 8);
+        out.write(value >>> 16);
+        out.write(value >>> 24);
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+    }
+}
@@ -1,11 +1,65 @@
 package org.example.io;
 
+import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 
+/**
+ * Reads UTF-8 text files. Files ending in {@code .gz} are decompressed on the fly (see {@link Compression});
+ * encrypted files are decrypted on the fly when opened with a {@link FileEncryption}.
+ */
 public class SimpleFileReader {
     public static String read(String path) throws IOException {
-        return Files.readString(Path.of(path));
+        if (Compression.forPath(path) == Compression.NONE) {
+            return Files.readString(Path.of(path));
+        }
+        try (BufferedReader reader = openReader(path)) {
+            StringWriter content = new StringWriter();
+            reader.transferTo(content);
+            return content.toString();
+        }
+    }
+
+    /**
+     * Opens a buffered UTF-8 reader for streaming the file instead of loading it whole,
+     * decompressing it according to its extension.
+     */
+    public static BufferedReader openReader(String path) throws IOException {
+        return openReader(path, Compression.forPath(path));
+    }
+
+    /**
+     * Opens a buffered UTF-8 reader for streaming the file, decompressing it as given.
+     * Malformed UTF-8 is reported as an error, as by {@link Files#newBufferedReader(Path)}.
+     */
+    public static BufferedReader openReader(String path, Compression compression) throws IOException {
+        return openReader(path, compression, null);
+    }
+
+    /**
+     * Opens a buffered UTF-8 reader for streaming the file, decrypting it with {@code encryption} unless
+     * that is null and then decompressing it as given.
+     */
+    public static BufferedReader openReader(String path, Compression compression, FileEncryption encryption)
+            throws IOException {
+        if (compression == Compression.NONE && encryption == null) {
+            return Files.newBufferedReader(Path.of(path));
+        }
+        InputStream in = Files.newInputStream(Path.of(path));
+        try {
+            if (encryption != null) {
+                in = encryption.decrypt(in);
+            }
+            in = compression.decompress(in);
+        } catch (IOException | RuntimeException e) {
+            in.close();
+            throw e;
+        }
+        return new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8.newDecoder()));
     }
 }
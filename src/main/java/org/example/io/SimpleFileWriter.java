@@ -1,11 +1,64 @@
 package org.example.io;
 
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 
+/**
+ * Writes UTF-8 text files. Files ending in {@code .gz} are gzip-compressed on the fly (see {@link Compression});
+ * output is encrypted on the fly when opened with a {@link FileEncryption}.
+ */
 public class SimpleFileWriter {
     public static void write(String path, String content) throws IOException {
-        Files.writeString(Path.of(path), content);
+        if (Compression.forPath(path) == Compression.NONE) {
+            Files.writeString(Path.of(path), content);
+            return;
+        }
+        try (Writer writer = openWriter(path)) {
+            writer.write(content);
+        }
+    }
+
+    /**
+     * Opens a buffered UTF-8 writer for streaming output into the file, compressing it according to its extension.
+     */
+    public static BufferedWriter openWriter(String path) throws IOException {
+        return openWriter(path, Compression.forPath(path));
+    }
+
+    /**
+     * Opens a buffered UTF-8 writer for streaming output into the file, compressing it as given.
+     * Closing the writer finishes the compressed data.
+     */
+    public static BufferedWriter openWriter(String path, Compression compression) throws IOException {
+        return openWriter(path, compression, null);
+    }
+
+    /**
+     * Opens a buffered UTF-8 writer for streaming output into the file, compressing it as given and then
+     * encrypting it with {@code encryption} unless that is null. Closing the writer finishes the compressed
+     * and encrypted data.
+     */
+    public static BufferedWriter openWriter(String path, Compression compression, FileEncryption encryption)
+            throws IOException {
+        if (compression == Compression.NONE && encryption == null) {
+            return Files.newBufferedWriter(Path.of(path));
+        }
+        OutputStream out = Files.newOutputStream(Path.of(path));
+        try {
+            if (encryption != null) {
+                out = encryption.encrypt(out);
+            }
+            out = compression.compress(out);
+        } catch (IOException | RuntimeException e) {
+            out.close();
+            throw e;
+        }
+        return new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8.newEncoder()));
     }
 }
@@ -0,0 +1,69 @@
+package org.example.server;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+
+/**
+ * Client for {@link ExpressionServer}. One client holds one connection and sends requests
+ * one at a time; it is not thread-safe, so concurrent callers should each open their own.
+ */
+public class ExpressionClient implements AutoCloseable {
+
+    private final SocketChannel channel;
+    private final DataInputStream in;
+    private final DataOutputStream out;
+
+    private ExpressionClient(SocketChannel channel) {
+        this.channel = channel;
+        this.in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+        this.out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+    }
+
+    /**
+     * @param address the address the server listens on
+     * @return a client connected to the server
+     * @throws IOException if the connection cannot be opened
+     */
+    public static ExpressionClient connect(SocketAddress address) throws IOException {
+        SocketChannel channel = SocketChannel.open(ServerProtocol.family(address));
+        try {
+            channel.connect(address);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        return new ExpressionClient(channel);
+    }
+
+    /**
+     * Sends the text to the server and waits for the transformed text.
+     *
+     * @param mode the processing mode, e.g. {@code manual} or {@code regex}
+     * @param text the text to transform
+     * @return the transformed text
+     * @throws IOException if the connection fails or the server reports an error
+     */
+    public String process(String mode, String text) throws IOException {
+        ServerProtocol.writeFrame(out, mode);
+        ServerProtocol.writeFrame(out, text);
+        out.flush();
+
+        byte status = in.readByte();
+        String payload = ServerProtocol.readFrame(in);
+        if (status != ServerProtocol.STATUS_OK) {
+            throw new IOException("Server error: " + payload);
+        }
+        return payload;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
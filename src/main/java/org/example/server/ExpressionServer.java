@@ -0,0 +1,200 @@
+package org.example.server;
+
+import org.example.expressions.processors.ExpressionProcessor;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Long-running server that keeps warmed-up processors resident and answers requests
+ * over a TCP or Unix-domain socket, so callers do not pay JVM startup and JIT warm-up per document.
+ * <p>
+ * Requests name a mode ({@code manual}, {@code regex}, ...) that selects one of the processors given
+ * at startup, and carry the text to transform (see {@link ServerProtocol} for the framing).
+ * Every connection is served on its own virtual thread; all connections share the processors,
+ * which therefore have to be thread-safe.
+ * </p>
+ */
+public class ExpressionServer implements AutoCloseable {
+
+    private final Map<String, ExpressionProcessor> processors;
+    private final ServerSocketChannel serverChannel;
+    private final SocketAddress localAddress;
+    private final ExecutorService connections = Executors.newVirtualThreadPerTaskExecutor();
+    private final Set<SocketChannel> openConnections = ConcurrentHashMap.newKeySet();
+    private final CountDownLatch closed = new CountDownLatch(1);
+    private final AtomicLong requests = new AtomicLong();
+
+    private ExpressionServer(Map<String, ExpressionProcessor> processors, ServerSocketChannel serverChannel)
+            throws IOException {
+        this.processors = Map.copyOf(processors);
+        this.serverChannel = serverChannel;
+        this.localAddress = serverChannel.getLocalAddress();
+    }
+
+    /**
+     * Binds the address and starts accepting connections in the background.
+     * A stale Unix-domain socket file left by a previous server is replaced.
+     *
+     * @param address    where to listen; use port 0 to pick a free TCP port
+     * @param processors the processors by mode name
+     * @return the running server
+     * @throws IOException if the address cannot be bound
+     */
+    public static ExpressionServer start(SocketAddress address, Map<String, ExpressionProcessor> processors)
+            throws IOException {
+        if (address instanceof UnixDomainSocketAddress unix) {
+            Files.deleteIfExists(unix.getPath());
+        }
+        ServerSocketChannel channel = ServerSocketChannel.open(ServerProtocol.family(address));
+        try {
+            channel.bind(address);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        ExpressionServer server = new ExpressionServer(processors, channel);
+        Thread.ofVirtual().name("expression-server-accept").start(server::acceptLoop);
+        return server;
+    }
+
+    /**
+     * Runs every processor over a sample text so the hot paths are compiled before the first request.
+     *
+     * @param processors the processors to warm up
+     * @param iterations the number of runs per processor
+     */
+    public static void warmUp(Map<String, ExpressionProcessor> processors, int iterations) {
+        final String sample = "Totals: 2 + 2, ((1 + 2) * (3 + 4)) and (text (5 - 1) words), 10 / 4.5 - -3.\n";
+        for (ExpressionProcessor processor : processors.values()) {
+            for (int i = 0; i < iterations; i++) {
+                processor.process(sample);
+            }
+        }
+    }
+
+    public SocketAddress localAddress() {
+        return localAddress;
+    }
+
+    /**
+     * @return the number of requests received so far; each is counted before its response is sent
+     */
+    public long requestCount() {
+        return requests.get();
+    }
+
+    /**
+     * Blocks until the server is closed.
+     */
+    public void awaitClose() throws InterruptedException {
+        closed.await();
+    }
+
+    /**
+     * Stops accepting connections, closes the open ones and removes the socket file.
+     * A request that is being processed at that moment gets no response.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed.getCount() == 0) {
+            return;
+        }
+        try {
+            serverChannel.close();
+            for (SocketChannel connection : openConnections) {
+                connection.close();
+            }
+            connections.close();
+            if (localAddress instanceof UnixDomainSocketAddress unix) {
+                Files.deleteIfExists(unix.getPath());
+            }
+        } finally {
+            closed.countDown();
+        }
+    }
+
+    private void acceptLoop() {
+        while (serverChannel.isOpen()) {
+            try {
+                SocketChannel connection = serverChannel.accept();
+                openConnections.add(connection);
+                if (!serverChannel.isOpen()) {
+                    connection.close(); // closed while accepting, after close() swept the open connections
+                    return;
+                }
+                connections.submit(() -> serve(connection));
+            } catch (ClosedChannelException e) {
+                return;
+            } catch (IOException e) {
+                System.err.println("Accept failed: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Answers requests on one connection until the client closes it or breaks the framing.
+     */
+    private void serve(SocketChannel connection) {
+        try (connection;
+             DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(connection)));
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(connection)))) {
+            while (true) {
+                String mode;
+                try {
+                    mode = ServerProtocol.readFrame(in);
+                } catch (EOFException e) {
+                    return;
+                }
+                String text = ServerProtocol.readFrame(in);
+                // counted before responding, so a client that has its response sees it counted
+                requests.incrementAndGet();
+                respond(out, mode, text);
+                out.flush();
+            }
+        } catch (IOException e) {
+            if (serverChannel.isOpen()) {
+                System.err.println("Connection failed: " + e.getMessage());
+            }
+        } finally {
+            openConnections.remove(connection);
+        }
+    }
+
+    private void respond(DataOutputStream out, String mode, String text) throws IOException {
+        ExpressionProcessor processor = processors.get(mode.toLowerCase());
+        if (processor == null) {
+            out.writeByte(ServerProtocol.STATUS_ERROR);
+            ServerProtocol.writeFrame(out, "Unknown mode: " + mode);
+            return;
+        }
+        String result;
+        try {
+            result = processor.process(text);
+        } catch (RuntimeException e) {
+            out.writeByte(ServerProtocol.STATUS_ERROR);
+            ServerProtocol.writeFrame(out, "Processing failed: " + e.getMessage());
+            return;
+        }
+        out.writeByte(ServerProtocol.STATUS_OK);
+        ServerProtocol.writeFrame(out, result);
+    }
+}
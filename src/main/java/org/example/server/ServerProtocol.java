@@ -0,0 +1,85 @@
+package org.example.server;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Length-prefixed framing used between {@link ExpressionServer} and {@link ExpressionClient}.
+ * <p>
+ * A frame is a big-endian 32-bit byte count followed by that many bytes of UTF-8 text.
+ * A request is two frames, the mode and the text. A response is one status byte,
+ * {@link #STATUS_OK} or {@link #STATUS_ERROR}, followed by a frame holding either
+ * the transformed text or the error message. A connection carries any number of
+ * requests, each answered before the next is read.
+ * </p>
+ */
+public final class ServerProtocol {
+
+    public static final byte STATUS_OK = 0;
+    public static final byte STATUS_ERROR = 1;
+    public static final int MAX_FRAME_SIZE = 256 * 1024 * 1024;
+
+    private static final String UNIX_PREFIX = "unix:";
+
+    private ServerProtocol() {
+    }
+
+    /**
+     * Parses a server address: {@code unix:<path>} for a Unix-domain socket, {@code <host>:<port>},
+     * or a bare {@code <port>} on the loopback interface.
+     *
+     * @param spec the address as given on the command line
+     * @return the socket address
+     */
+    public static SocketAddress parseAddress(String spec) {
+        if (spec.startsWith(UNIX_PREFIX)) {
+            return UnixDomainSocketAddress.of(spec.substring(UNIX_PREFIX.length()));
+        }
+        int colon = spec.lastIndexOf(':');
+        try {
+            if (colon < 0) {
+                return new InetSocketAddress(InetAddress.getLoopbackAddress(), Integer.parseInt(spec));
+            }
+            return new InetSocketAddress(spec.substring(0, colon), Integer.parseInt(spec.substring(colon + 1)));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid server address: " + spec);
+        }
+    }
+
+    static StandardProtocolFamily family(SocketAddress address) {
+        return address instanceof UnixDomainSocketAddress ? StandardProtocolFamily.UNIX : StandardProtocolFamily.INET;
+    }
+
+    static void writeFrame(DataOutputStream out, String text) throws IOException {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Reads one frame.
+     *
+     * @return the frame text
+     * @throws EOFException if the stream ends inside the frame
+     * @throws IOException  if the frame is larger than {@link #MAX_FRAME_SIZE}
+     */
+    static String readFrame(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0 || length > MAX_FRAME_SIZE) {
+            throw new IOException("Invalid frame length: " + length);
+        }
+        byte[] bytes = in.readNBytes(length);
+        if (bytes.length != length) {
+            throw new EOFException("Connection closed inside a frame");
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
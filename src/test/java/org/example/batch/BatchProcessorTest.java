@@ -0,0 +1,81 @@
+package org.example.batch;
+
+import io.qameta.allure.*;
+import org.example.expressions.factory.ManualExpressionProcessorFactory;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for batch processing of many files on virtual threads.
+ */
+@Epic("Expression Processing")
+@Feature("Batch Processing")
+@Story("Process many files in one run")
+@Owner("Bondarenko Kirill")
+@DisplayName("BatchProcessor Tests")
+class BatchProcessorTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    @DisplayName("Directory batch")
+    @Severity(SeverityLevel.CRITICAL)
+    @Description("Checks that every file below a directory is processed into the same relative path")
+    void testDirectoryBatch() throws IOException {
+        Path input = Files.createDirectories(dir.resolve("in/nested"));
+        for (int i = 0; i < 50; i++) {
+            Files.writeString(input.resolve("file" + i + ".txt"), "Value: (" + i + " + 1) * 2.");
+        }
+
+        BatchProcessor batch = new BatchProcessor(new ManualExpressionProcessorFactory().createProcessor(), 8);
+        BatchReport report = batch.process(dir.resolve("in").toString(), dir.resolve("out"));
+
+        assertEquals(50, report.results().size());
+        assertEquals(0, report.failures());
+        assertEquals("Value: 42.", Files.readString(dir.resolve("out/nested/file20.txt")));
+    }
+
+    @Test
+    @DisplayName("Manifest batch with missing file")
+    @Severity(SeverityLevel.NORMAL)
+    @Description("Checks that a missing file is reported as a failure without stopping the batch")
+    void testManifestWithMissingFile() throws IOException {
+        Files.writeString(dir.resolve("a.txt"), "2 + 2");
+        Files.writeString(dir.resolve("manifest.txt"), dir.resolve("a.txt") + "\n# comment\n" + dir.resolve("missing.txt") + "\n");
+
+        BatchProcessor batch = new BatchProcessor(new ManualExpressionProcessorFactory().createProcessor(), 2);
+        BatchReport report = batch.process("@" + dir.resolve("manifest.txt"), dir.resolve("out"));
+
+        assertEquals(2, report.results().size());
+        assertTrue(report.results().get(0).succeeded());
+        assertFalse(report.results().get(1).succeeded());
+        assertEquals("4", Files.readString(dir.resolve("out/a.txt")));
+    }
+
+    @Test
+    @DisplayName("Manifest batch with same-named files")
+    @Severity(SeverityLevel.CRITICAL)
+    @Description("Checks that two manifest entries with the same file name in different directories are rejected "
+            + "before any output is written, instead of overwriting each other")
+    void testManifestWithDuplicateOutputs() throws IOException {
+        Path first = Files.createDirectories(dir.resolve("a")).resolve("data.txt");
+        Path second = Files.createDirectories(dir.resolve("b")).resolve("data.txt");
+        Files.writeString(first, "1 + 1");
+        Files.writeString(second, "2 + 2");
+        Files.writeString(dir.resolve("manifest.txt"), first + "\n" + second + "\n");
+
+        BatchProcessor batch = new BatchProcessor(new ManualExpressionProcessorFactory().createProcessor(), 2);
+        IOException e = assertThrows(IOException.class,
+                () -> batch.process("@" + dir.resolve("manifest.txt"), dir.resolve("out")));
+        assertTrue(e.getMessage().contains(first.toString()) && e.getMessage().contains(second.toString()),
+                e.getMessage());
+        assertFalse(Files.exists(dir.resolve("out/data.txt")));
+    }
+}
@@ -0,0 +1,52 @@
+package org.example.expressions;
+
+import org.junit.jupiter.api.Assumptions;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Measures the heap allocated by the current thread per call of a piece of code.
+ * <p>
+ * Relies on {@link com.sun.management.ThreadMXBean#getCurrentThreadAllocatedBytes()}; on a JVM without it
+ * the calling test is skipped rather than failed.
+ * </p>
+ */
+public final class AllocationAssertions {
+
+    private static final int WARM_UP_CALLS = 20_000;
+    private static final int CALLS = 100_000;
+    private static final long MAX_BYTES_PER_CALL = 8;
+
+    private AllocationAssertions() {
+    }
+
+    /**
+     * Runs {@code call} {@code warmUpCalls} times so that it is compiled, then {@code calls} times measured.
+     *
+     * @return the average number of bytes allocated per measured call
+     */
+    public static long bytesPerCall(int warmUpCalls, int calls, Runnable call) {
+        Assumptions.assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean,
+                "the JVM does not report allocated bytes per thread");
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        for (int i = 0; i < warmUpCalls; i++) {
+            call.run();
+        }
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < calls; i++) {
+            call.run();
+        }
+        return (threads.getCurrentThreadAllocatedBytes() - before) / calls;
+    }
+
+    /**
+     * Asserts that {@code call} allocates nothing once warmed up: less than 8 bytes per call on average,
+     * which leaves room for the measurement itself but not for one object per call.
+     */
+    public static void assertAllocatesNothing(String label, Runnable call) {
+        long perCall = bytesPerCall(WARM_UP_CALLS, CALLS, call);
+        assertTrue(perCall < MAX_BYTES_PER_CALL, label + ": allocated " + perCall + " bytes per call");
+    }
+}
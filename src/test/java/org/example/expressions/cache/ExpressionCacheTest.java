@@ -0,0 +1,69 @@
+package org.example.expressions.cache;
+
+import io.qameta.allure.*;
+import org.example.expressions.factory.ManualExpressionProcessorFactory;
+import org.example.expressions.processors.ExpressionProcessor;
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for expression caches and their wiring through the processor factory.
+ */
+@Epic("Expression Processing")
+@Feature("Caching")
+@Story("Reuse results of repeated expressions")
+@Owner("Bondarenko Kirill")
+@DisplayName("ExpressionCache Tests")
+class ExpressionCacheTest {
+
+    @Test
+    @DisplayName("LRU evicts least recently used entry")
+    @Severity(SeverityLevel.NORMAL)
+    @Description("Checks that a full LRU cache drops the entry that was not read for the longest time")
+    void testLruEviction() {
+        ExpressionCache cache = ExpressionCache.create(2, EvictionPolicy.LRU);
+        cache.put("1+1", "2");
+        cache.put("2+2", "4");
+        cache.get("1+1");
+        cache.put("3+3", "6");
+
+        assertEquals("2", cache.get("1+1"));
+        assertNull(cache.get("2+2"));
+        assertEquals(1, cache.evictions());
+    }
+
+    @Test
+    @DisplayName("LFU evicts least frequently used entry")
+    @Severity(SeverityLevel.NORMAL)
+    @Description("Checks that a full LFU cache drops the entry with the lowest use count")
+    void testLfuEviction() {
+        ExpressionCache cache = ExpressionCache.create(2, EvictionPolicy.LFU);
+        cache.put("1+1", "2");
+        cache.put("2+2", "4");
+        cache.get("2+2");
+        cache.get("2+2");
+        cache.get("1+1");
+        cache.put("3+3", "6");
+
+        assertNull(cache.get("1+1"));
+        assertEquals("4", cache.get("2+2"));
+        assertEquals("6", cache.get("3+3"));
+        assertEquals(1, cache.evictions());
+    }
+
+    @Test
+    @DisplayName("Whitespace variants share one entry")
+    @Severity(SeverityLevel.CRITICAL)
+    @Description("Checks that repeated expressions differing only in whitespace are evaluated once")
+    void testProcessorUsesCache() {
+        ExpressionCache cache = ExpressionCache.create(16, EvictionPolicy.LRU);
+        ExpressionProcessor processor = new ManualExpressionProcessorFactory().withCache(cache).createProcessor();
+
+        String actual = processor.process("A: (2 + 2), B: (2+2), C: 2  +  2, D: (5 / 0), E: (5/0)");
+
+        assertEquals("A: 4, B: 4, C: 4, D: [ERROR: Division by zero], E: [ERROR: Division by zero]", actual);
+        assertEquals(2, cache.misses());
+        assertEquals(3, cache.hits());
+    }
+}
@@ -0,0 +1,136 @@
+package org.example.expressions.core;
+
+import io.qameta.allure.*;
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks bulk evaluation of expression lists and of templates over columns against
+ * evaluating each expression on its own.
+ */
+@Epic("Expression Processing")
+@Feature("Bulk Evaluation")
+@Story("Evaluate many expressions into a double array")
+@Owner("Bondarenko Kirill")
+@DisplayName("Bulk Evaluation Tests")
+class BulkEvaluationTest {
+
+    private final FusedExpressionEvaluator evaluator = new FusedExpressionEvaluator();
+
+    @Test
+    @DisplayName("Bulk evaluation matches single evaluation")
+    @Severity(SeverityLevel.CRITICAL)
+    @Description("Evaluates valid and invalid expressions in one call and compares values and error bits")
+    void testBulkMatchesSingleEvaluation() {
+        List<String> expressions = List.of("2 + 3 * 4", "(1 + 2) * -3", "5 / 0", "1 + ", "(2 + 3", "2 $ 3",
+                "-", "10 / 4 - 7", "1.5 * 2.", "?", "((4 - 1) / (2 + 1))");
+        double[] results = new double[expressions.size()];
+        BitSet errors = new BitSet();
+        errors.set(0, 64);
+
+        BulkEvaluator.evaluate(expressions, results, errors);
+
+        for (int i = 0; i < expressions.size(); i++) {
+            String single = evaluator.evalExpression(expressions.get(i));
+            if (single.startsWith("[ERROR")) {
+                assertTrue(errors.get(i), expressions.get(i));
+                assertTrue(Double.isNaN(results[i]));
+            } else {
+                assertFalse(errors.get(i), expressions.get(i));
+                assertEquals(single, MathUtils.formatDouble(results[i]));
+            }
+        }
+        assertTrue(errors.get(expressions.size()), "bits past the batch are left alone");
+        assertThrows(IllegalArgumentException.class, () -> BulkEvaluator.evaluate(expressions, new double[1], errors));
+    }
+
+    @Test
+    @DisplayName("Template over columns matches substituted expressions")
+    @Severity(SeverityLevel.CRITICAL)
+    @Description("Evaluates a template over more rows than one block, including zero divisors, "
+            + "and compares with the expression with the values written in")
+    void testTemplateMatchesSubstitutedExpressions() throws EvaluationException {
+        String template = "(? + 1.5) * ? - ? / (? - 2)";
+        ExpressionTemplate compiled = ExpressionTemplate.compile(template);
+        assertEquals(4, compiled.slotCount());
+
+        Random random = new Random(42);
+        int rows = 3 * ExpressionTemplate.BLOCK_SIZE + 17;
+        double[][] columns = new double[4][rows];
+        for (double[] column : columns) {
+            for (int r = 0; r < rows; r++) {
+                column[r] = random.nextInt(5) - 1;
+            }
+        }
+        double[] results = new double[rows];
+        BitSet errors = new BitSet();
+        compiled.evaluate(columns, results, errors);
+
+        List<String> substituted = new ArrayList<>();
+        for (int r = 0; r < rows; r++) {
+            String expression = template;
+            for (double[] column : columns) {
+                expression = expression.replaceFirst("\\?", "(" + (int) column[r] + ")");
+            }
+            substituted.add(expression);
+        }
+        double[] expected = new double[rows];
+        BitSet expectedErrors = new BitSet();
+        BulkEvaluator.evaluate(substituted, expected, expectedErrors);
+
+        assertFalse(expectedErrors.isEmpty());
+        assertEquals(expectedErrors, errors);
+        assertArrayEquals(expected, results);
+        assertEquals(expected[0], compiled.evaluate(columns[0][0], columns[1][0], columns[2][0], columns[3][0]));
+    }
+
+    @Test
+    @DisplayName("A unary minus negates a template slot")
+    @Severity(SeverityLevel.CRITICAL)
+    @Description("Compares templates with an unparenthesised -? with the expression with the values written in")
+    void testNegatedSlots() throws EvaluationException {
+        String[] templates = {"-?", "2 * -?", "(-?)", "? - -?", "-? * -? + 1", "8 / -? - 1"};
+        double[][] rows = {{3, 2}, {0.5, 4}, {1, 0}};
+        for (String text : templates) {
+            ExpressionTemplate template = ExpressionTemplate.compile(text);
+            for (double[] row : rows) {
+                String substituted = text;
+                for (int slot = 0; slot < template.slotCount(); slot++) {
+                    substituted = substituted.replaceFirst("\\?", MathUtils.formatDouble(row[slot]));
+                }
+                double[] values = Arrays.copyOf(row, template.slotCount());
+                assertEquals(evaluator.evalExpression(substituted), MathUtils.formatDouble(template.evaluate(values)),
+                        substituted);
+            }
+        }
+        assertEquals(-6.0, ExpressionTemplate.compile("2 * -?").evaluate(3));
+        assertEquals(5.0, ExpressionTemplate.compile("? - -?").evaluate(3, 2));
+    }
+
+    @Test
+    @DisplayName("Invalid templates are rejected at compile time")
+    @Severity(SeverityLevel.NORMAL)
+    @Description("Checks structural errors, unknown symbols and mismatched column counts")
+    void testInvalidTemplates() throws EvaluationException {
+        assertEquals("Mismatched parentheses", assertThrows(EvaluationException.class,
+                () -> ExpressionTemplate.compile("(? + 1")).getMessage());
+        assertEquals("Invalid expression", assertThrows(EvaluationException.class,
+                () -> ExpressionTemplate.compile("? ?")).getMessage());
+        assertEquals("Unknown operator or symbol: '$'", assertThrows(EvaluationException.class,
+                () -> ExpressionTemplate.compile("? * $")).getMessage());
+
+        ExpressionTemplate compiled = ExpressionTemplate.compile("? / 2");
+        assertThrows(IllegalArgumentException.class, () -> compiled.evaluate(new double[2][4], new double[4], new BitSet()));
+        assertThrows(IllegalArgumentException.class, () -> compiled.evaluate(new double[][]{new double[3]}, new double[4], new BitSet()));
+        assertEquals("Division by zero", assertThrows(EvaluationException.class,
+                () -> ExpressionTemplate.compile("1 / ?").evaluate(0)).getMessage());
+        assertEquals(2.5, ExpressionTemplate.compile("5 / 2").evaluate());
+    }
+}
@@ -0,0 +1,70 @@
+package org.example.expressions.core;
+
+import io.qameta.allure.*;
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that an expression compiled once evaluates like {@link ExpressionEvaluator#evalExpression(String)}
+ * every time it is run, and that errors surface from the right step.
+ */
+@Epic("Expression Processing")
+@Feature("Compiled Evaluation")
+@Story("Compile an expression once and evaluate it many times")
+@Owner("Bondarenko Kirill")
+@DisplayName("CompiledExpression Tests")
+class CompiledExpressionTest {
+
+    private final ExpressionEvaluator evaluator = new ExpressionEvaluator(new ExpressionParser(), new ExpressionConverter());
+    private final FusedExpressionEvaluator fused = new FusedExpressionEvaluator();
+
+    @Test
+    @DisplayName("Compiled expressions match evaluate on every run")
+    @Severity(SeverityLevel.CRITICAL)
+    @Description("Evaluates each compiled expression repeatedly with the internal and a caller-supplied stack "
+            + "and compares with evalExpression and with the single-pass evaluator")
+    void testCompileOnceEvaluateMany() throws EvaluationException {
+        String[] expressions = {
+                "2 + 3*(4-1.5)", "-5 + 3", "7 - (-2)", "10 / 4 - 7 * 3 / 2", "((1 + 2) * (3 + 4))",
+                "0.1 + 0.2", "-.5 * 2", "42", "1 - - 1", "123456789012345678 + 1"
+        };
+        for (String expression : expressions) {
+            CompiledExpression compiled = evaluator.compile(expression);
+            String expected = evaluator.evalExpression(expression);
+            assertEquals(fused.evalExpression(expression), expected, expression);
+
+            double[] stack = new double[compiled.stackSize()];
+            for (int run = 0; run < 3; run++) {
+                assertEquals(expected, MathUtils.formatDouble(compiled.evaluate()), expression);
+                assertEquals(expected, MathUtils.formatDouble(compiled.evaluate(stack)), expression);
+            }
+        }
+        assertEquals(9.5, evaluator.compile("2 + 3*(4-1.5)").evaluate());
+        assertEquals(1, evaluator.compile("42").stackSize());
+    }
+
+    @Test
+    @DisplayName("Errors are reported by compile or by every evaluation")
+    @Severity(SeverityLevel.CRITICAL)
+    @Description("Malformed input fails to compile or to evaluate with the message evalExpression reports; "
+            + "division by zero compiles and fails on every evaluation")
+    void testErrors() throws EvaluationException {
+        CompiledExpression division = evaluator.compile("5 / (2 - 2)");
+        for (int run = 0; run < 3; run++) {
+            assertEquals("Division by zero", assertThrows(EvaluationException.class, division::evaluate).getMessage());
+        }
+        assertEquals("[ERROR: Division by zero]", evaluator.evalExpression("5 / (2 - 2)"));
+        assertEquals("Mismatched parentheses", assertThrows(EvaluationException.class,
+                () -> evaluator.compile("(1 + 2")).getMessage());
+
+        String[] malformed = {"(1 + 2", "1 + 2)", "1 +", "+ 1", "1 * * 2", "1.2.3 + 4", "1 + a", "", "()"};
+        for (String expression : malformed) {
+            String expected = evaluator.evalExpression(expression);
+            assertTrue(expected.startsWith("[ERROR: "), expression);
+            EvaluationException error = assertThrows(EvaluationException.class,
+                    () -> evaluator.compile(expression).evaluate(), expression);
+            assertEquals(expected, "[ERROR: " + error.getMessage() + "]", expression);
+        }
+    }
+}
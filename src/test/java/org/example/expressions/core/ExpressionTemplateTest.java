@@ -0,0 +1,103 @@
+package org.example.expressions.core;
+
+import io.qameta.allure.*;
+import org.example.expressions.factory.ManualExpressionProcessorFactory;
+import org.example.expressions.processors.BindingExpressionProcessor;
+import org.junit.jupiter.api.*;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks named variables of compiled templates and binding their values at evaluation time.
+ */
+@Epic("Expression Processing")
+@Feature("Variables")
+@Story("Compile a formula once and evaluate it with bound values")
+@Owner("Bondarenko Kirill")
+@DisplayName("ExpressionTemplate Tests")
+class ExpressionTemplateTest {
+
+    private final FusedExpressionEvaluator evaluator = new FusedExpressionEvaluator();
+
+    @Test
+    @DisplayName("Named variables share a slot")
+    @Severity(SeverityLevel.CRITICAL)
+    @Description("Checks slot order, repeated names, anonymous slots and evaluation by slot and by name")
+    void testNamedVariables() throws EvaluationException {
+        ExpressionTemplate template = ExpressionTemplate.compile("price * (1 + tax_rate) - price / ? + ?");
+        assertEquals(List.of("price", "tax_rate", "?", "?"), template.variables());
+        assertEquals(0, template.slotOf("price"));
+        assertEquals(1, template.slotOf("tax_rate"));
+        assertEquals(-1, template.slotOf("?"));
+        assertEquals(-1, template.slotOf("qty"));
+        assertEquals(12.5 * 1.2 - 12.5 / 5 + 1, template.evaluate(12.5, 0.2, 5, 1));
+
+        ExpressionTemplate total = ExpressionTemplate.compile("price * qty - discount");
+        Map<String, Double> bindings = Map.of("price", 12.5, "qty", 4.0, "discount", 0.5, "unused", 1.0);
+        assertEquals(49.5, total.evaluate(bindings));
+        double[] values = total.bind(bindings);
+        double[] stack = new double[total.stackSize()];
+        assertEquals(49.5, total.evaluate(values, stack));
+        assertEquals("Unbound variable: 'discount'", assertThrows(EvaluationException.class,
+                () -> total.evaluate(Map.of("price", 1, "qty", 2))).getMessage());
+        assertEquals("Unbound variable: '?'", assertThrows(EvaluationException.class,
+                () -> template.bind(Map.of("price", 1, "tax_rate", 2))).getMessage());
+    }
+
+    @Test
+    @DisplayName("Templates follow the evaluator's rules")
+    @Severity(SeverityLevel.NORMAL)
+    @Description("Compares templates with the expression with the values written in, and checks that "
+            + "the evaluator still rejects names")
+    void testTemplatesFollowEvaluatorRules() throws EvaluationException {
+        String[] templates = {"a - b * c", "(a - b) * c", "a / b / c", "-1 * a + b", "a-b-c", "x1 * x1 - x2"};
+        double[] values = {7, -2, 0.5};
+        for (String text : templates) {
+            ExpressionTemplate template = ExpressionTemplate.compile(text);
+            String substituted = text;
+            for (int slot = 0; slot < template.slotCount(); slot++) {
+                substituted = substituted.replace(template.variables().get(slot), "(" + MathUtils.formatDouble(values[slot]) + ")");
+            }
+            double[] row = Arrays.copyOf(values, template.slotCount());
+            assertEquals(evaluator.evalExpression(substituted), MathUtils.formatDouble(template.evaluate(row)), text);
+        }
+
+        assertEquals("Invalid expression", assertThrows(EvaluationException.class,
+                () -> ExpressionTemplate.compile("2 price")).getMessage());
+        assertEquals("Unknown operator or symbol: '$'", assertThrows(EvaluationException.class,
+                () -> ExpressionTemplate.compile("price $ 2")).getMessage());
+        assertEquals("[ERROR: Unknown operator or symbol: 'p']", evaluator.evalExpression("price * 2"));
+        assertEquals("[ERROR: Unknown operator or symbol: 'x']", evaluator.evalExpression("2 + x1"));
+    }
+
+    @Test
+    @DisplayName("A unary minus negates a named variable")
+    @Severity(SeverityLevel.CRITICAL)
+    @Description("Compares templates with a leading unary minus before a name with the evaluator and with "
+            + "the binding processor, which write the values in")
+    void testNegatedVariables() throws EvaluationException {
+        String[] templates = {"-x * 2", "2 * -price", "total - -fee", "a / -b", "-a - -b * -a"};
+        Map<String, Double> bindings = Map.of("x", 3.0, "price", 12.5, "total", 10.0, "fee", 1.5, "a", 6.0, "b", 4.0);
+        BindingExpressionProcessor binding = new BindingExpressionProcessor(
+                new ManualExpressionProcessorFactory().createProcessor(), bindings);
+        for (String text : templates) {
+            ExpressionTemplate template = ExpressionTemplate.compile(text);
+            String substituted = text;
+            for (String name : template.variables()) {
+                substituted = substituted.replace(name, MathUtils.formatDouble(bindings.get(name)));
+            }
+            String result = MathUtils.formatDouble(template.evaluate(bindings));
+            assertEquals(evaluator.evalExpression(substituted), result, text);
+            assertEquals(binding.process(text), result, text);
+        }
+        assertEquals(-6.0, ExpressionTemplate.compile("-x * 2").evaluate(3));
+        assertEquals(-3.0, ExpressionTemplate.compile("(-x)").evaluate(3));
+        assertEquals(-1.5, ExpressionTemplate.compile("a / -b").evaluate(6, 4));
+        assertEquals("Invalid expression", assertThrows(EvaluationException.class,
+                () -> ExpressionTemplate.compile("- -x")).getMessage());
+    }
+}
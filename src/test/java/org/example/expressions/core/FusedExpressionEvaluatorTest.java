@@ -0,0 +1,59 @@
+package org.example.expressions.core;
+
+import io.qameta.allure.*;
+import org.junit.jupiter.api.*;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks that the single-pass evaluator gives exactly the same results and error messages
+ * as the tokenize/convert/evaluate pipeline.
+ */
+@Epic("Expression Processing")
+@Feature("Fused Evaluation")
+@Story("Evaluate expressions in a single scan")
+@Owner("Bondarenko Kirill")
+@DisplayName("FusedExpressionEvaluator Tests")
+class FusedExpressionEvaluatorTest {
+
+    private final ExpressionEvaluator reference = new ExpressionEvaluator(new ExpressionParser(), new ExpressionConverter());
+    private final FusedExpressionEvaluator fused = new FusedExpressionEvaluator();
+
+    @Test
+    @DisplayName("Matches pipeline on edge cases")
+    @Severity(SeverityLevel.CRITICAL)
+    @Description("Compares both evaluators on malformed numbers, unary minus, mismatched parentheses and errors")
+    void testMatchesPipelineOnEdgeCases() {
+        final String[] expressions = {
+                "2 + 3*(4-1.5)", "1 2 + 3", "-5 + 3", "- 5 + 3", "-(2)", "--5", "5 - -3",
+                "1.2.3 + 4", ".5 + 5.", "-.5 * 2", ".", "- . +", "(", ")", "()", "(1 + 2", "1 + 2)",
+                "5 / 0", "5 / 0 +", "5 / 0 + )", "1 + a", "1 / 0 * x", "", "   ", "1 +", "+ 1", "1 2 3",
+                "0.1 + 0.2", "1e5 + 1", "123456789012345678 + 1", "0.12345678901234567890123456 * 3",
+                "-0 * 1", "10 / 4 - 7 * 3 / 2", "((1 + 2) * (3 + 4))", "1 - - 1", "7 - (-2)", "٣ + 1"
+        };
+        for (String expression : expressions) {
+            assertEquals(reference.evalExpression(expression), fused.evalExpression(expression), expression);
+        }
+    }
+
+    @Test
+    @DisplayName("Matches pipeline on random input")
+    @Severity(SeverityLevel.CRITICAL)
+    @Description("Compares both evaluators on random strings over the expression alphabet")
+    void testMatchesPipelineOnRandomInput() {
+        final String alphabet = "0123456789..+-*/() ";
+        final Random random = new Random(42);
+
+        for (int n = 0; n < 20_000; n++) {
+            StringBuilder sb = new StringBuilder();
+            int length = 1 + random.nextInt(16);
+            for (int i = 0; i < length; i++) {
+                sb.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+            String expression = sb.toString();
+            assertEquals(reference.evalExpression(expression), fused.evalExpression(expression), expression);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package org.example.expressions.core;
+
+import io.qameta.allure.*;
+import org.junit.jupiter.api.*;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks the allocation-free number helpers against the JDK methods they replace.
+ */
+@Epic("Expression Processing")
+@Feature("Number Handling")
+@Story("Parse and format numbers without intermediate strings")
+@Owner("Bondarenko Kirill")
+@DisplayName("MathUtils Tests")
+class MathUtilsTest {
+
+    @Test
+    @DisplayName("Formats doubles like String.valueOf")
+    @Severity(SeverityLevel.CRITICAL)
+    @Description("Compares formatDouble with String.valueOf on typical results, random doubles and special values")
+    void testFormatDoubleMatchesStringValueOf() {
+        final double[] values = {
+                0.1 + 0.2, 2.5, -2.5, 0.001, 0.000999, 9999999.5, 1e7 + 0.5, 1.0 / 3, -2.0 / 3, 0.1, 100.01,
+                1e-5, 1e22, 1e300, -0.0, Double.MIN_VALUE, Double.MAX_VALUE, Double.NaN,
+                Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, 4.35, 1.005, 2e-3, 123456.789
+        };
+        for (double value : values) {
+            assertEquals(reference(value), MathUtils.formatDouble(value), String.valueOf(value));
+        }
+
+        final Random random = new Random(42);
+        for (int n = 0; n < 100_000; n++) {
+            double decimal = random.nextInt(2_000_000) / Math.pow(10, random.nextInt(8)) - 1000;
+            double quotient = random.nextInt(10_000) / (double) (1 + random.nextInt(999));
+            double anyBits = Double.longBitsToDouble(random.nextLong());
+            for (double value : new double[]{decimal, quotient, anyBits, random.nextDouble() * 1e6}) {
+                assertEquals(reference(value), MathUtils.formatDouble(value), String.valueOf(value));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Classifies numbers like Double.parseDouble")
+    @Severity(SeverityLevel.NORMAL)
+    @Description("Compares isNumber with Double.parseDouble on random tokens over digits, signs and points")
+    void testIsNumberMatchesParseDouble() {
+        final String alphabet = "0123456789.-+e";
+        final Random random = new Random(42);
+
+        for (int n = 0; n < 50_000; n++) {
+            StringBuilder sb = new StringBuilder();
+            int length = 1 + random.nextInt(6);
+            for (int i = 0; i < length; i++) {
+                sb.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+            String token = sb.toString();
+            assertEquals(parses(token), MathUtils.isNumber(token), token);
+        }
+    }
+
+    private static String reference(double value) {
+        return value == (long) value ? String.valueOf((long) value) : String.valueOf(value);
+    }
+
+    private static boolean parses(String token) {
+        try {
+            Double.parseDouble(token);
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+}
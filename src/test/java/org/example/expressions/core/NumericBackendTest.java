@@ -0,0 +1,126 @@
+package org.example.expressions.core;
+
+import io.qameta.allure.*;
+import org.example.expressions.AllocationAssertions;
+import org.example.expressions.factory.ManualExpressionProcessorFactory;
+import org.example.expressions.factory.RegexExpressionProcessorFactory;
+import org.junit.jupiter.api.*;
+
+import java.math.MathContext;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks the long and decimal backends of the fused evaluator against the double pipeline:
+ * the same errors everywhere, exact results where the backend promises them.
+ */
+@Epic("Expression Processing")
+@Feature("Numeric Backends")
+@Story("Compute with long or BigDecimal instead of double")
+@Owner("Bondarenko Kirill")
+@DisplayName("NumericBackend Tests")
+class NumericBackendTest {
+
+    private final ExpressionEvaluator reference = new ExpressionEvaluator(new ExpressionParser(), new ExpressionConverter());
+    private final FusedExpressionEvaluator longs = new FusedExpressionEvaluator(NumericBackend.LONG);
+    private final FusedExpressionEvaluator decimals = new FusedExpressionEvaluator(NumericBackend.parse("decimal"));
+
+    @Test
+    @DisplayName("Long backend is exact on integers and falls back to double")
+    @Severity(SeverityLevel.CRITICAL)
+    @Description("Checks integer results beyond 2^53, overflow, inexact division and decimal operands")
+    void testLongBackend() {
+        assertEquals("9007199254740993", longs.evalExpression("9007199254740993 + 0"));
+        assertEquals("9007199254740992", reference.evalExpression("9007199254740993 + 0"));
+        assertEquals("-9223372036854775807", longs.evalExpression("-9223372036854775807"));
+        assertEquals(reference.evalExpression("9223372036854775807 + 1"), longs.evalExpression("9223372036854775807 + 1"));
+        assertEquals(reference.evalExpression("4611686018427387904 * 4"), longs.evalExpression("4611686018427387904 * 4"));
+        assertEquals("3.5", longs.evalExpression("7 / 2"));
+        assertEquals("2", longs.evalExpression("6 / 3"));
+        assertEquals("5.5", longs.evalExpression("2 * 3 - 0.5"));
+        assertEquals("[ERROR: Division by zero]", longs.evalExpression("5 / 0"));
+    }
+
+    @Test
+    @DisplayName("Decimal backend gives exact decimal results")
+    @Severity(SeverityLevel.CRITICAL)
+    @Description("Checks decimal sums, rounding to the context, unlimited precision and processor integration")
+    void testDecimalBackend() {
+        assertEquals("0.3", decimals.evalExpression("0.1 + 0.2"));
+        assertEquals("0.30000000000000004", reference.evalExpression("0.1 + 0.2"));
+        assertEquals("0.3333333333333333333333333333333333", decimals.evalExpression("1 / 3"));
+        assertEquals("3", decimals.evalExpression("1.50 * 2"));
+        assertEquals("1000", decimals.evalExpression("999.99 + 0.01"));
+        assertEquals("0.33", new FusedExpressionEvaluator(NumericBackend.decimal(new MathContext(2))).evalExpression("1 / 3"));
+
+        FusedExpressionEvaluator unlimited = new FusedExpressionEvaluator(NumericBackend.parse("decimal:0"));
+        assertEquals("0.125", unlimited.evalExpression("1 / 8"));
+        assertTrue(unlimited.evalExpression("1 / 3").startsWith("[ERROR: Non-terminating decimal expansion"));
+
+        String input = "Total: 0.1 + 0.2, tax (19.99 * 3) and (1 / 0).";
+        String expected = "Total: 0.3, tax 59.97 and [ERROR: Division by zero].";
+        assertEquals(expected, new ManualExpressionProcessorFactory()
+                .withNumericBackend(NumericBackend.parse("decimal")).createProcessor().process(input));
+        assertEquals(expected, new RegexExpressionProcessorFactory()
+                .withNumericBackend(NumericBackend.parse("decimal")).createProcessor().process(input));
+    }
+
+    @Test
+    @DisplayName("Backends report the same errors as the pipeline")
+    @Severity(SeverityLevel.NORMAL)
+    @Description("Compares random expressions: identical errors, equal long results, close decimal results")
+    void testMatchesPipelineOnRandomInput() {
+        final String alphabet = "0123456789..+-*/() ";
+        final Random random = new Random(42);
+
+        for (int n = 0; n < 20_000; n++) {
+            StringBuilder sb = new StringBuilder();
+            int length = 1 + random.nextInt(16);
+            for (int i = 0; i < length; i++) {
+                sb.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+            String expression = sb.toString();
+            String expected = reference.evalExpression(expression);
+            String decimal = decimals.evalExpression(expression);
+            if (expected.startsWith("[ERROR")) {
+                assertEquals(expected, longs.evalExpression(expression), expression);
+                assertEquals(expected, decimal, expression);
+                continue;
+            }
+            double value = Double.parseDouble(expected);
+            if (Math.abs(value) < 1e15) {
+                assertEquals(expected, longs.evalExpression(expression), expression);
+            }
+            assertEquals(value, Double.parseDouble(decimal), Math.max(1, Math.abs(value)) * 1e-9, expression);
+        }
+    }
+
+    @Test
+    @DisplayName("Parsing backend names")
+    @Severity(SeverityLevel.MINOR)
+    @Description("Checks backend names accepted on the command line")
+    void testParse() {
+        assertSame(NumericBackend.DOUBLE, NumericBackend.parse("double"));
+        assertSame(NumericBackend.LONG, NumericBackend.parse("LONG"));
+        assertEquals("decimal:34", NumericBackend.parse("decimal").toString());
+        assertEquals("decimal:unlimited", NumericBackend.parse("decimal:0").toString());
+        assertThrows(IllegalArgumentException.class, () -> NumericBackend.parse("float"));
+        assertThrows(IllegalArgumentException.class, () -> NumericBackend.parse("decimal:-1"));
+        assertThrows(IllegalArgumentException.class, () -> NumericBackend.parse("decimal:x"));
+    }
+
+    @Test
+    @DisplayName("Long backend allocates nothing per evaluation")
+    @Severity(SeverityLevel.NORMAL)
+    @Description("Measures bytes allocated per evaluation into a reused builder, with and without fallback")
+    void testLongBackendAllocatesNothing() {
+        StringBuilder out = new StringBuilder();
+        for (String expression : new String[]{"12 + 3 * (40 - 1)", "7 / 2 + 1.5"}) {
+            AllocationAssertions.assertAllocatesNothing(expression, () -> {
+                out.setLength(0);
+                longs.evalExpression(expression, 0, expression.length(), out);
+            });
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package org.example.expressions.core;
+
+import io.qameta.allure.*;
+import org.junit.jupiter.api.*;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks the primitive token stream and that validating and evaluating from one tokenization
+ * gives the same answers as the string-based methods.
+ */
+@Epic("Expression Processing")
+@Feature("Tokenization")
+@Story("Share one primitive tokenization between validator and evaluator")
+@Owner("Bondarenko Kirill")
+@DisplayName("TokenStream Tests")
+class TokenStreamTest {
+
+    private final ExpressionParser parser = new ExpressionParser();
+    private final ExpressionValidator validator = new ExpressionValidator(parser);
+    private final ExpressionEvaluator reference = new ExpressionEvaluator(parser, new ExpressionConverter());
+    private final FusedExpressionEvaluator fused = new FusedExpressionEvaluator();
+
+    @Test
+    @DisplayName("Records kinds, ranges and values")
+    @Severity(SeverityLevel.CRITICAL)
+    @Description("Tokenizes a range of a larger text and checks every token and the unknown-symbol report")
+    void testTokenizeRange() throws EvaluationException {
+        TokenStream tokens = parser.tokenize("x(-1. 5*(2 -))y", 2, 13, new TokenStream());
+
+        assertTrue(tokens.isTokenized());
+        assertEquals(6, tokens.size());
+        assertEquals(TokenStream.NUMBER, tokens.kind(0));
+        assertEquals(2, tokens.start(0));
+        assertEquals(7, tokens.end(0));
+        assertEquals(-1.5, tokens.value(0));
+        assertEquals("-1.5", tokens.text(0));
+        assertEquals(TokenStream.OPERATOR, tokens.kind(1));
+        assertEquals('*', tokens.operator(1));
+        assertEquals(TokenStream.OPEN_PAREN, tokens.kind(2));
+        assertEquals(2.0, tokens.value(3));
+        assertEquals(TokenStream.OPERATOR, tokens.kind(4));
+        assertEquals(TokenStream.CLOSE_PAREN, tokens.kind(5));
+        assertEquals(List.of("-1.5", "*", "(", "2", "-", ")"), parser.tokenize("-1. 5*(2 -)"));
+
+        parser.tokenize("1 + 2 # 3", 0, 9, tokens);
+        assertFalse(tokens.isTokenized());
+        assertEquals(3, tokens.size());
+        assertEquals('#', tokens.unknownSymbol());
+    }
+
+    @Test
+    @DisplayName("Matches string-based validation and evaluation")
+    @Severity(SeverityLevel.CRITICAL)
+    @Description("Reuses one stream for random inputs and compares it with tokenize, the list-based validity rule and the pipeline")
+    void testMatchesStringMethodsOnRandomInput() {
+        final String alphabet = "0123456789..+-*/() a";
+        final Random random = new Random(42);
+        final TokenStream tokens = new TokenStream();
+        final StringBuilder out = new StringBuilder();
+
+        for (int n = 0; n < 20_000; n++) {
+            StringBuilder sb = new StringBuilder();
+            int length = 1 + random.nextInt(16);
+            for (int i = 0; i < length; i++) {
+                sb.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+            String expression = sb.toString();
+
+            boolean potential = validator.isPotentialExpression(expression, 0, expression.length(), tokens);
+            assertEquals(isPotentialByTokenList(expression), potential, expression);
+
+            out.setLength(0);
+            fused.evalExpression(tokens, out);
+            assertEquals(reference.evalExpression(expression), out.toString(), expression);
+        }
+    }
+
+    /**
+     * The validity rule as it was stated on the token list.
+     */
+    private boolean isPotentialByTokenList(String expression) {
+        try {
+            List<String> list = parser.tokenize(expression);
+            return list.size() >= 3
+                    && list.stream().anyMatch(MathUtils::isNumber)
+                    && list.stream().anyMatch(MathUtils::isOperator);
+        } catch (EvaluationException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package org.example.expressions.metrics;
+
+import io.qameta.allure.*;
+import org.example.expressions.AllocationAssertions;
+import org.example.expressions.cache.EvictionPolicy;
+import org.example.expressions.cache.ExpressionCache;
+import org.example.expressions.core.ExpressionEvaluator;
+import org.example.expressions.core.FusedExpressionEvaluator;
+import org.example.expressions.factory.ManualExpressionProcessorFactory;
+import org.example.expressions.processors.ExpressionProcessor;
+import org.junit.jupiter.api.*;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for processor and evaluator instrumentation.
+ */
+@Epic("Expression Processing")
+@Feature("Metrics")
+@Story("Expose hot-path metrics")
+@Owner("Bondarenko Kirill")
+@DisplayName("ExpressionMetrics Tests")
+class ExpressionMetricsTest {
+
+    @Test
+    @DisplayName("Documents, expressions and errors")
+    @Severity(SeverityLevel.CRITICAL)
+    @Description("Processes two documents and checks counters, per-document figures, error categories and cache hits")
+    void testRecordsDocumentsExpressionsAndErrors() {
+        ExpressionCache cache = ExpressionCache.create(100, EvictionPolicy.LRU);
+        ExpressionMetrics metrics = new ExpressionMetrics().withCache(cache);
+        ExpressionProcessor processor = new InstrumentedExpressionProcessor(
+                new ManualExpressionProcessorFactory().withCache(cache).withMetrics(metrics).createProcessor(), metrics);
+
+        String first = processor.process("A: 2 + 2, B: (5 / 0), C: 2 + 2.");
+        processor.process("Nothing to evaluate here");
+
+        assertEquals("A: 4, B: [ERROR: Division by zero], C: 4.", first);
+        assertEquals(2, metrics.getDocuments());
+        assertEquals(3, metrics.getExpressions());
+        assertEquals(1, metrics.getErrors());
+        assertEquals(1, metrics.getErrors(ErrorCategory.DIVISION_BY_ZERO));
+        assertEquals(3, metrics.getMaxExpressionsPerDocument());
+        assertEquals(1, metrics.getMaxErrorsPerDocument());
+        assertEquals(first.length() + 24, metrics.getCharactersOut());
+        assertEquals(1, metrics.getCacheHits());
+        assertTrue(metrics.snapshot().startsWith("documents=2 expressions=3 errors=1"));
+
+        metrics.reset();
+        assertEquals(0, metrics.getDocuments());
+        assertEquals(0, metrics.getErrors());
+    }
+
+    @Test
+    @DisplayName("Error categories")
+    @Severity(SeverityLevel.NORMAL)
+    @Description("Checks that evaluator error messages are classified into categories")
+    void testErrorCategories() {
+        assertNull(ErrorCategory.classify("4.5", 0, 3));
+        assertEquals(ErrorCategory.UNKNOWN_SYMBOL, classify("[ERROR: Unknown operator or symbol: 'x']"));
+        assertEquals(ErrorCategory.MISMATCHED_PARENTHESES, classify("[ERROR: Mismatched parentheses]"));
+        assertEquals(ErrorCategory.INVALID_EXPRESSION, classify("[ERROR: Invalid expression]"));
+        assertEquals(ErrorCategory.OTHER, classify("[ERROR: Unknown error]"));
+        assertEquals(ErrorCategory.DIVISION_BY_ZERO, ErrorCategory.classify("x = [ERROR: Division by zero]", 4, 29));
+    }
+
+    @Test
+    @DisplayName("Disabled metrics cost nothing")
+    @Severity(SeverityLevel.NORMAL)
+    @Description("Checks that disabled wrappers record nothing and allocate nothing per evaluation")
+    void testDisabledMetricsRecordAndAllocateNothing() {
+        ExpressionMetrics metrics = new ExpressionMetrics();
+        metrics.setEnabled(false);
+        ExpressionEvaluator evaluator = new InstrumentedExpressionEvaluator(new FusedExpressionEvaluator(), metrics);
+        String expression = "1 + 2 * 3";
+        StringBuilder out = new StringBuilder();
+
+        for (int i = 0; i < 20_000; i++) {
+            out.setLength(0);
+            evaluator.evalExpression(expression, 0, expression.length(), out);
+        }
+        assertEquals(0, metrics.getExpressions());
+        assertEquals("7", out.toString());
+
+        AllocationAssertions.assertAllocatesNothing(expression, () -> {
+            out.setLength(0);
+            evaluator.evalExpression(expression, 0, expression.length(), out);
+        });
+    }
+
+    @Test
+    @DisplayName("JMX export and histogram")
+    @Severity(SeverityLevel.NORMAL)
+    @Description("Reads counters through the platform MBean server and checks histogram percentiles")
+    void testJmxExportAndHistogram() throws Exception {
+        ExpressionMetrics metrics = new ExpressionMetrics();
+        metrics.register();
+        metrics.recordEvaluation(1_000, null);
+        metrics.recordEvaluation(3_000, ErrorCategory.INVALID_EXPRESSION);
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(ExpressionMetrics.OBJECT_NAME);
+        assertEquals(2L, server.getAttribute(name, "Expressions"));
+        assertEquals(1L, server.getAttribute(name, "Errors"));
+        assertEquals(3_000L, server.getAttribute(name, "EvaluationLatencyMaxNanos"));
+        server.unregisterMBean(name);
+
+        Histogram histogram = new Histogram();
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(i);
+        }
+        assertEquals(63, histogram.percentile(50));
+        assertEquals(100, histogram.percentile(99));
+        assertEquals(50.5, histogram.mean());
+    }
+
+    private static ErrorCategory classify(String result) {
+        return ErrorCategory.classify(result, 0, result.length());
+    }
+}
@@ -0,0 +1,61 @@
+package org.example.expressions.processors;
+
+import io.qameta.allure.*;
+import org.example.expressions.factory.AdaptiveExpressionProcessorFactory;
+import org.example.expressions.factory.ManualExpressionProcessorFactory;
+import org.example.expressions.factory.RegexExpressionProcessorFactory;
+import org.example.expressions.processors.AdaptiveExpressionProcessor.EngineChoices;
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Runs the common processor tests through {@link AdaptiveExpressionProcessor} and checks which
+ * engine it chooses for ordinary and pathological input.
+ */
+@Feature("Adaptive Processing")
+@Story("Choose the engine per chunk")
+@Tag("adaptive")
+@DisplayName("AdaptiveExpressionProcessor Tests")
+class AdaptiveExpressionProcessorTest extends AbstractExpressionProcessorTest {
+
+    @Override
+    protected ExpressionProcessor createTestProcessor() {
+        return new AdaptiveExpressionProcessorFactory().createProcessor();
+    }
+
+    @Test
+    @DisplayName("Ordinary text goes to the manual engine")
+    @Severity(SeverityLevel.CRITICAL)
+    @Description("Processes text with nested groups and a long valid chain and checks the choice and output")
+    void testOrdinaryTextUsesManualEngine() {
+        AdaptiveExpressionProcessorFactory factory = new AdaptiveExpressionProcessorFactory();
+        ExpressionProcessor processor = factory.createProcessor();
+        String input = "Nested: " + "(".repeat(64) + "1.5 + 2" + " * 3)".repeat(64)
+                + ", chain: " + "1 + ".repeat(300) + "1, text (with words).";
+
+        assertEquals(new ManualExpressionProcessorFactory().createProcessor().process(input), processor.process(input));
+        assertChoices(factory.choices(), 1, 0);
+    }
+
+    @Test
+    @DisplayName("Deep nesting and operator runs go to the regex engine")
+    @Severity(SeverityLevel.NORMAL)
+    @Description("Processes inputs that make the manual engine quadratic and checks the choice and output")
+    void testPathologicalInputUsesRegexEngine() {
+        AdaptiveExpressionProcessorFactory factory = new AdaptiveExpressionProcessorFactory();
+        ExpressionProcessor processor = factory.createProcessor();
+        ExpressionProcessor regex = new RegexExpressionProcessorFactory().createProcessor();
+        String deep = "Deep: " + "(".repeat(2_000) + "1 + 1" + ")".repeat(2_000) + " done.";
+        String dashes = "Dashes: " + "- ".repeat(2_000) + "end.";
+
+        assertEquals(regex.process(deep), processor.process(deep));
+        assertEquals(regex.process(dashes), processor.process(dashes));
+        assertChoices(factory.choices(), 0, 2);
+    }
+
+    private static void assertChoices(EngineChoices choices, long manual, long regex) {
+        assertEquals(manual, choices.manualChunks(), choices::toString);
+        assertEquals(regex, choices.regexChunks(), choices::toString);
+    }
+}
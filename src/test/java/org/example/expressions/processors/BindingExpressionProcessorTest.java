@@ -0,0 +1,57 @@
+package org.example.expressions.processors;
+
+import io.qameta.allure.*;
+import org.example.expressions.factory.ManualExpressionProcessorFactory;
+import org.example.expressions.factory.RegexExpressionProcessorFactory;
+import org.junit.jupiter.api.*;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that bound variables are substituted as whole words before the text is processed.
+ */
+@Epic("Expression Processing")
+@Feature("Variables")
+@Story("Substitute bound variables into processed text")
+@Owner("Bondarenko Kirill")
+@DisplayName("BindingExpressionProcessor Tests")
+class BindingExpressionProcessorTest {
+
+    private static final Map<String, Number> BINDINGS = Map.of(
+            "price", 12.5, "qty", 4, "discount", -3, "big", 1e10, "rate", new BigDecimal("0.20"));
+
+    @Test
+    @DisplayName("Bound variables are evaluated in expressions")
+    @Severity(SeverityLevel.CRITICAL)
+    @Description("Processes formulas with bound, unbound and partially matching names with both engines")
+    void testBoundVariablesAreEvaluated() {
+        for (ExpressionProcessor engine : new ExpressionProcessor[]{
+                new ManualExpressionProcessorFactory().createProcessor(),
+                new RegexExpressionProcessorFactory().createProcessor()}) {
+            BindingExpressionProcessor processor = new BindingExpressionProcessor(engine, BINDINGS);
+            assertEquals("Total: 50.", processor.process("Total: price * qty."));
+            assertEquals("Net: 53, gross 60", processor.process("Net: price * qty - discount, gross (price * qty * (1 + rate))"));
+            assertEquals("Big: 20000000000", processor.process("Big: big * 2"));
+            assertEquals("Keep prices, qty2 and 2qty * 3", processor.process("Keep prices, qty2 and 2qty * 3"));
+            assertEquals("Unknown: cost * 4", processor.process("Unknown: cost * qty"));
+        }
+    }
+
+    @Test
+    @DisplayName("Invalid bindings are rejected")
+    @Severity(SeverityLevel.NORMAL)
+    @Description("Checks names that are not identifiers, non-finite values and input without bound names")
+    void testInvalidBindings() {
+        ExpressionProcessor engine = new ManualExpressionProcessorFactory().createProcessor();
+        assertThrows(IllegalArgumentException.class, () -> new BindingExpressionProcessor(engine, Map.of("2x", 1)));
+        assertThrows(IllegalArgumentException.class, () -> new BindingExpressionProcessor(engine, Map.of("x", Double.NaN)));
+
+        BindingExpressionProcessor processor = new BindingExpressionProcessor(engine, BINDINGS);
+        String text = "No variables here: 2 + 2";
+        assertSame(text, processor.substitute(text));
+        assertEquals("", processor.process(""));
+    }
+}
@@ -0,0 +1,100 @@
+package org.example.expressions.processors;
+
+import io.qameta.allure.*;
+import org.example.expressions.AllocationAssertions;
+import org.example.expressions.factory.ManualExpressionProcessorFactory;
+import org.example.expressions.factory.RegexExpressionProcessorFactory;
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the common processor tests through {@link ConcurrentExpressionProcessor} and checks that
+ * one shared instance gives single-threaded results under load while allocating less per call.
+ */
+@Feature("Concurrent Processing")
+@Story("Share one processor across a thread pool")
+@Tag("parallel")
+@DisplayName("ConcurrentExpressionProcessor Tests")
+class ConcurrentExpressionProcessorTest extends AbstractExpressionProcessorTest {
+
+    @Override
+    protected ExpressionProcessor createTestProcessor() {
+        return new ManualExpressionProcessorFactory().createConcurrentProcessor();
+    }
+
+    @Test
+    @DisplayName("Shared instance matches single-threaded output")
+    @Severity(SeverityLevel.CRITICAL)
+    @Description("Processes random documents from 8 threads through one shared instance per strategy")
+    void testSharedInstanceMatchesSingleThreadedOutput() throws Exception {
+        final List<String> inputs = randomDocuments(200);
+
+        for (ExpressionProcessor sequential : new ExpressionProcessor[]{
+                new ManualExpressionProcessorFactory().createProcessor(),
+                new RegexExpressionProcessorFactory().createProcessor()}) {
+            List<String> expected = inputs.stream().map(sequential::process).toList();
+            ExpressionProcessor shared = new ConcurrentExpressionProcessor(sequential);
+
+            try (ExecutorService pool = Executors.newFixedThreadPool(8)) {
+                List<Future<?>> futures = new ArrayList<>();
+                for (int t = 0; t < 8; t++) {
+                    final int offset = t;
+                    futures.add(pool.submit(() -> {
+                        for (int round = 0; round < 20; round++) {
+                            for (int i = 0; i < inputs.size(); i++) {
+                                int index = (i + offset * 25) % inputs.size();
+                                assertEquals(expected.get(index), shared.process(inputs.get(index)));
+                            }
+                        }
+                    }));
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Allocates less per call than a fresh-buffer processor")
+    @Severity(SeverityLevel.NORMAL)
+    @Description("Measures bytes allocated by the current thread per call after warm-up")
+    void testAllocatesLessPerCall() {
+        final String input = String.join(" ", randomDocuments(20));
+
+        ExpressionProcessor plain = new ManualExpressionProcessorFactory().createProcessor();
+        ExpressionProcessor shared = new ConcurrentExpressionProcessor(plain);
+
+        long plainBytes = AllocationAssertions.bytesPerCall(2_000, 2_000, () -> plain.process(input));
+        long sharedBytes = AllocationAssertions.bytesPerCall(2_000, 2_000, () -> shared.process(input));
+        assertTrue(sharedBytes < plainBytes * 3 / 4,
+                "shared: " + sharedBytes + " B/call, plain: " + plainBytes + " B/call");
+    }
+
+    private static List<String> randomDocuments(int count) {
+        final String[] parts = {
+                "2 + 2", "(1 + 2) * 3", "((4 - 1) / (2 + 1))", "text (with words)", "(5 / 0)", "x = 7 * -3",
+                "1.5 * 2.", ", ", ". ", "(nested (3 * 3) here)", "(", ")", "10 / 4 - 7", "\n", "abc", "(1 + (2"
+        };
+        Random random = new Random(42);
+        List<String> documents = new ArrayList<>();
+        for (int n = 0; n < count; n++) {
+            StringBuilder sb = new StringBuilder();
+            int length = 1 + random.nextInt(20);
+            for (int i = 0; i < length; i++) {
+                sb.append(parts[random.nextInt(parts.length)]).append(' ');
+            }
+            documents.add(sb.toString());
+        }
+        return documents;
+    }
+}
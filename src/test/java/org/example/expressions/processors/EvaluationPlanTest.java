@@ -0,0 +1,71 @@
+package org.example.expressions.processors;
+
+import io.qameta.allure.*;
+import org.example.expressions.factory.ManualExpressionProcessorFactory;
+import org.junit.jupiter.api.*;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that document-level evaluation plans share identical sub-expressions
+ * without changing the output of the manual processor.
+ */
+@Epic("Expression Processing")
+@Feature("Evaluation Plan")
+@Story("Evaluate identical sub-expressions once per document")
+@Owner("Bondarenko Kirill")
+@DisplayName("EvaluationPlan Tests")
+class EvaluationPlanTest {
+
+    @Test
+    @DisplayName("Identical groups and sub-trees are evaluated once")
+    @Severity(SeverityLevel.CRITICAL)
+    @Description("Counts candidates and evaluations for repeated groups and for outer groups built from equal values")
+    void testSharesIdenticalSubexpressions() {
+        EvaluationPlan.Savings savings = new EvaluationPlan.Savings();
+        ExpressionProcessor processor = new ManualExpressionProcessorFactory().withEvaluationPlan(savings).createProcessor();
+
+        assertEquals("A: 3, B: 3, C: 6.", processor.process("A: (1 + 2), B: (1+2), C: (1 + 2) * 2."));
+        assertEquals(4, savings.candidates());
+        assertEquals(2, savings.evaluations());
+
+        assertEquals("9 and 9", processor.process("((1 + 2) * 3) and ((2 + 1) * 3)"));
+        assertEquals(2, savings.documents());
+        assertEquals(8, savings.candidates());
+        assertEquals(5, savings.evaluations());
+        assertEquals(3, savings.saved());
+        assertEquals("documents=2 candidates=8 evaluated=5 saved=3 (37.5%)", savings.toString());
+    }
+
+    @Test
+    @DisplayName("Output is unchanged")
+    @Severity(SeverityLevel.CRITICAL)
+    @Description("Compares planned and unplanned processing of random repetitive documents, with and without reused buffers")
+    void testOutputIsUnchanged() {
+        final String[] parts = {
+                "2 + 2", "(1 + 2) * 3", "((4 - 1) / (2 + 1))", "(2+2)", "text (with words)", "(5 / 0)", "x = 7 * -3",
+                "(3)", "((1 + 1))", "1.5 * 2.", ", ", ". ", "(nested (3 * 3) here)", "(", ")", "10 / 4 - 7", "(1 + (2"
+        };
+        EvaluationPlan.Savings savings = new EvaluationPlan.Savings();
+        ExpressionProcessor plain = new ManualExpressionProcessorFactory().createProcessor();
+        ExpressionProcessor planned = new ManualExpressionProcessorFactory().withEvaluationPlan(savings).createProcessor();
+        ExpressionProcessor shared = new ManualExpressionProcessorFactory().withEvaluationPlan(savings).createConcurrentProcessor();
+        Random random = new Random(42);
+
+        for (int n = 0; n < 500; n++) {
+            StringBuilder sb = new StringBuilder();
+            int length = 1 + random.nextInt(40);
+            for (int i = 0; i < length; i++) {
+                sb.append(parts[random.nextInt(parts.length)]).append(' ');
+            }
+            String document = sb.toString();
+            String expected = plain.process(document);
+            assertEquals(expected, planned.process(document), document);
+            assertEquals(expected, shared.process(document), document);
+        }
+        assertTrue(savings.saved() * 4 > savings.candidates(), savings::toString);
+    }
+}
@@ -0,0 +1,253 @@
+package org.example.expressions.processors;
+
+import io.qameta.allure.*;
+import org.example.expressions.factory.ManualExpressionProcessorFactory;
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks ordering, backpressure and error handling of the {@link Flow} based processing pipeline.
+ */
+@Epic("Expression Processing")
+@Feature("Reactive Processing")
+@Story("Transform a stream of records with backpressure")
+@Owner("Bondarenko Kirill")
+@DisplayName("FlowExpressionProcessor Tests")
+class FlowExpressionProcessorTest {
+
+    private static final int RECORDS = 5_000;
+    private static final int PARALLELISM = 4;
+
+    private final ExpressionProcessor processor = new ManualExpressionProcessorFactory().createConcurrentProcessor();
+
+    @Test
+    @DisplayName("Ordered mode keeps input order")
+    @Severity(SeverityLevel.CRITICAL)
+    @Description("Streams records through the pipeline and compares with processing each record directly")
+    void testOrderedModeKeepsInputOrder() throws Exception {
+        try (ExecutorService executor = Executors.newFixedThreadPool(PARALLELISM)) {
+            List<String> results = run(new FlowExpressionProcessor(processor, executor, PARALLELISM, true), new CountingPublisher(RECORDS));
+            assertEquals(expected(), results);
+        }
+    }
+
+    @Test
+    @DisplayName("Unordered mode publishes every result")
+    @Severity(SeverityLevel.NORMAL)
+    @Description("Checks that unordered mode publishes the same results in some order")
+    void testUnorderedModePublishesEveryResult() throws Exception {
+        try (ExecutorService executor = Executors.newFixedThreadPool(PARALLELISM)) {
+            List<String> results = new ArrayList<>(run(new FlowExpressionProcessor(processor, executor, PARALLELISM, false),
+                    new CountingPublisher(RECORDS)));
+            List<String> expected = new ArrayList<>(expected());
+            Collections.sort(results);
+            Collections.sort(expected);
+            assertEquals(expected, results);
+        }
+    }
+
+    @Test
+    @DisplayName("Upstream demand is bounded by parallelism")
+    @Severity(SeverityLevel.CRITICAL)
+    @Description("Tracks the demand signalled upstream that has not been met yet")
+    void testUpstreamDemandIsBounded() throws Exception {
+        CountingPublisher upstream = new CountingPublisher(RECORDS);
+        run(new FlowExpressionProcessor(processor, PARALLELISM), upstream);
+        assertTrue(upstream.maxOutstanding.get() <= PARALLELISM, "outstanding " + upstream.maxOutstanding.get());
+    }
+
+    @Test
+    @DisplayName("Processor failure completes subscribers exceptionally")
+    @Severity(SeverityLevel.NORMAL)
+    @Description("Throws from the processor for one record and checks the error and the upstream cancellation")
+    void testProcessorFailure() {
+        CountingPublisher upstream = new CountingPublisher(RECORDS);
+        ExpressionProcessor failing = input -> {
+            if (input.startsWith("Record 100:")) {
+                throw new IllegalStateException("boom");
+            }
+            return processor.process(input);
+        };
+        ExecutionFailure failure = assertThrows(ExecutionFailure.class,
+                () -> run(new FlowExpressionProcessor(failing, PARALLELISM), upstream));
+        assertEquals("boom", failure.getCause().getMessage());
+        assertTrue(upstream.cancelled);
+    }
+
+    @Test
+    @DisplayName("Processor error completes subscribers exceptionally")
+    @Severity(SeverityLevel.NORMAL)
+    @Description("Throws an Error instead of an exception from the processor and checks the stream still ends")
+    void testProcessorError() {
+        CountingPublisher upstream = new CountingPublisher(RECORDS);
+        ExpressionProcessor failing = input -> {
+            if (input.startsWith("Record 100:")) {
+                throw new StackOverflowError("deep");
+            }
+            return processor.process(input);
+        };
+        ExecutionFailure failure = assertThrows(ExecutionFailure.class,
+                () -> run(new FlowExpressionProcessor(failing, PARALLELISM), upstream));
+        assertInstanceOf(StackOverflowError.class, failure.getCause());
+        assertTrue(upstream.cancelled);
+    }
+
+    @Test
+    @DisplayName("Single-thread executor with a slow subscriber")
+    @Severity(SeverityLevel.CRITICAL)
+    @Description("Holds back demand until the subscriber buffer is full while the only processing thread "
+            + "is blocked publishing, and checks that every result is still delivered")
+    void testSingleThreadExecutorWithSlowSubscriber() throws Exception {
+        try (ExecutorService executor = Executors.newSingleThreadExecutor()) {
+            List<String> results = run(new FlowExpressionProcessor(processor, executor, PARALLELISM, true),
+                    new CountingPublisher(RECORDS), 200);
+            assertEquals(expected(), results);
+        }
+    }
+
+    private static List<String> expected() {
+        ExpressionProcessor reference = new ManualExpressionProcessorFactory().createProcessor();
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < RECORDS; i++) {
+            expected.add(reference.process(record(i)));
+        }
+        return expected;
+    }
+
+    private static String record(int i) {
+        return "Record " + i + ": total " + i + " * 2 + (" + i + " - 1) / 4, note (" + (i % 7) + ")";
+    }
+
+    private static List<String> run(FlowExpressionProcessor pipeline, Flow.Publisher<String> upstream) throws Exception {
+        return run(pipeline, upstream, 0);
+    }
+
+    /**
+     * Subscribes a collector that requests one record at a time and waits for the stream to end.
+     * A collector with a demand delay requests nothing for that long, then everything one record at a time.
+     */
+    private static List<String> run(FlowExpressionProcessor pipeline, Flow.Publisher<String> upstream,
+                                    long demandDelayMillis) throws Exception {
+        List<String> results = Collections.synchronizedList(new ArrayList<>());
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        pipeline.subscribe(new Flow.Subscriber<>() {
+            private Flow.Subscription subscription;
+
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                this.subscription = subscription;
+                if (demandDelayMillis == 0) {
+                    subscription.request(1);
+                } else {
+                    CompletableFuture.delayedExecutor(demandDelayMillis, TimeUnit.MILLISECONDS)
+                            .execute(() -> subscription.request(1));
+                }
+            }
+
+            @Override
+            public void onNext(String item) {
+                results.add(item);
+                subscription.request(1);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                done.completeExceptionally(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+                done.complete(null);
+            }
+        });
+        upstream.subscribe(pipeline);
+        try {
+            done.get(30, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            throw new ExecutionFailure(e.getCause());
+        }
+        return results;
+    }
+
+    private static final class ExecutionFailure extends RuntimeException {
+        ExecutionFailure(Throwable cause) {
+            super(cause);
+        }
+    }
+
+    /**
+     * Publishes numbered records on demand and records how far ahead of publication the demand ran.
+     */
+    private static final class CountingPublisher implements Flow.Publisher<String> {
+        private final int count;
+        private final AtomicLong maxOutstanding = new AtomicLong();
+        private volatile boolean cancelled;
+
+        CountingPublisher(int count) {
+            this.count = count;
+        }
+
+        @Override
+        public void subscribe(Flow.Subscriber<? super String> subscriber) {
+            subscriber.onSubscribe(new Flow.Subscription() {
+                private long requested;
+                private int sent;
+                private boolean emitting;
+                private boolean completed;
+
+                @Override
+                public void request(long n) {
+                    synchronized (this) {
+                        requested += n;
+                        maxOutstanding.accumulateAndGet(requested, Math::max);
+                        if (emitting) {
+                            return;
+                        }
+                        emitting = true;
+                    }
+                    while (true) {
+                        int next;
+                        boolean complete = false;
+                        synchronized (this) {
+                            if (cancelled || requested == 0 || sent == count) {
+                                emitting = false;
+                                if (sent == count && !cancelled && !completed) {
+                                    completed = true;
+                                    complete = true;
+                                }
+                                next = -1;
+                            } else {
+                                requested--;
+                                next = sent++;
+                            }
+                        }
+                        if (next < 0) {
+                            if (complete) {
+                                subscriber.onComplete();
+                            }
+                            return;
+                        }
+                        subscriber.onNext(record(next));
+                    }
+                }
+
+                @Override
+                public void cancel() {
+                    cancelled = true;
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package org.example.expressions.processors;
+
+import io.qameta.allure.*;
+import org.example.expressions.factory.ManualExpressionProcessorFactory;
+import org.example.expressions.factory.RegexExpressionProcessorFactory;
+import org.junit.jupiter.api.*;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that incremental re-processing gives the output of a full {@code process} call
+ * after every edit, while re-processing only the regions around the edit.
+ */
+@Epic("Expression Processing")
+@Feature("Incremental Processing")
+@Story("Refresh the output of an edited document")
+@Owner("Bondarenko Kirill")
+@DisplayName("IncrementalDocument Tests")
+class IncrementalDocumentTest {
+
+    private static final String[] PARTS = {
+            "2 + 2", "(1 + 2) * 3", "((4 - 1) / (2 + 1))", "text (with words)", "(5 / 0)", "x = 7 * -3",
+            "1.5 * 2.", ", ", ". ", "(nested (3 * 3) here)", "10 / 4 - 7", "\n", "abc", "- - -"
+    };
+    private static final String[] INSERTS = {"", "1", " + 3", "(", ")", "x", "(2 * 5)", ". ", "-", "7 7", "\n"};
+
+    @Test
+    @DisplayName("Output matches full processing after random edits")
+    @Severity(SeverityLevel.CRITICAL)
+    @Description("Applies random insertions, deletions and replacements, including unbalanced parentheses, "
+            + "and compares with processing the whole text after each edit")
+    void testMatchesFullProcessingAfterRandomEdits() {
+        for (ExpressionProcessor processor : new ExpressionProcessor[]{
+                new ManualExpressionProcessorFactory().createProcessor(),
+                new RegexExpressionProcessorFactory().createProcessor()}) {
+            Random random = new Random(42);
+            StringBuilder expected = new StringBuilder(randomText(random, 300));
+            IncrementalDocument document = new IncrementalDocument(processor, expected.toString(), 64);
+
+            for (int n = 0; n < 1_000; n++) {
+                int offset = random.nextInt(expected.length() + 1);
+                int removed = Math.min(random.nextInt(4) == 0 ? random.nextInt(40) : random.nextInt(3),
+                        expected.length() - offset);
+                String inserted = INSERTS[random.nextInt(INSERTS.length)];
+
+                expected.replace(offset, offset + removed, inserted);
+                document.edit(offset, removed, inserted);
+
+                assertEquals(expected.toString(), document.text());
+                assertEquals(processor.process(document.text()), document.output(), document.text());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Edits re-process only nearby regions")
+    @Severity(SeverityLevel.NORMAL)
+    @Description("Edits a large document in the middle and checks how much was re-processed, also for an unclosed group")
+    void testReprocessesOnlyNearbyRegions() {
+        ExpressionProcessor processor = new ManualExpressionProcessorFactory().createProcessor();
+        String text = randomText(new Random(7), 100_000);
+        IncrementalDocument document = new IncrementalDocument(processor, text);
+        int middle = text.length() / 2;
+
+        document.edit(middle, 0, " 6 * 7 ");
+        assertTrue(document.lastReprocessed() <= 3 * IncrementalDocument.DEFAULT_REGION_SIZE,
+                "re-processed " + document.lastReprocessed());
+        assertEquals(processor.process(document.text()), document.output());
+
+        document.edit(middle, 0, "(");
+        assertEquals(processor.process(document.text()), document.output());
+        document.edit(middle, 1, "");
+        assertEquals(processor.process(text.substring(0, middle) + " 6 * 7 " + text.substring(middle)), document.output());
+
+        document.edit(0, document.length(), "");
+        assertEquals("", document.output());
+        assertEquals(1, document.regionCount());
+        document.edit(0, 0, "Total: 2 + 3.");
+        assertEquals("Total: 5.", document.output());
+        assertThrows(IndexOutOfBoundsException.class, () -> document.edit(10, 10, ""));
+    }
+
+    private static String randomText(Random random, int parts) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < parts; i++) {
+            sb.append(PARTS[random.nextInt(PARTS.length)]).append(' ');
+        }
+        return sb.toString();
+    }
+}
@@ -1,9 +1,20 @@
 package org.example.expressions.processors;
 
 import io.qameta.allure.*;
+import org.example.expressions.core.ExpressionEvaluator;
+import org.example.expressions.core.ExpressionParser;
+import org.example.expressions.core.ExpressionValidator;
+import org.example.expressions.core.FusedExpressionEvaluator;
+import org.example.expressions.core.MathUtils;
 import org.example.expressions.factory.ManualExpressionProcessorFactory;
 import org.junit.jupiter.api.*;
 
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
 /**
  * Unit tests for ManualExpressionProcessor using JUnit 5 and Allure.
  */
@@ -12,8 +23,120 @@ import org.junit.jupiter.api.*;
 @Tag("manual")
 @DisplayName("ManualExpressionProcessor Tests")
 class ManualExpressionProcessorTest extends AbstractExpressionProcessorTest {
+
+    private final ExpressionEvaluator evaluator = new FusedExpressionEvaluator();
+    private final ExpressionValidator validator = new ExpressionValidator(new ExpressionParser());
+
     @Override
     protected ExpressionProcessor createTestProcessor() {
         return new ManualExpressionProcessorFactory().createProcessor();
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Single pass matches in-place replacement on edge cases")
+    @Severity(SeverityLevel.CRITICAL)
+    @Description("Compares with the in-place reference on nested parentheses, adjacent expressions, "
+            + "unary minus and errors in the middle of the text")
+    void testMatchesInPlaceReplacementOnEdgeCases() {
+        final String[] inputs = {
+                "((1 + 2) * (3 + 4))", "a ((2)) * 3 b", "(x (1 + 2) y)", "((1 + 2) (3 + 4))", "(((",
+                ")) 1 + 2 ((", "(1 + 2)(3 * 4)", "1 + 2, 3 * 4", "1 + 2 3 * 4", "(1 + 2) + (3 * 4)",
+                "-(2 + 3)", "5 - -3", "(-2 + 1) * 3", "- - 1", "a -1 + 1 b", "2 * (-3)",
+                "a 5 / 0 b (1 / 0) c", "((1 / 0) + 2)", "x (1 / 0) * 2 y", "1 + (2 * (3 / 0)) + 4",
+                "(1 + a) * 2", "(a + (1 + 1)) + 1", "3 + + + 4", "end 1 +", "1 .. 2 + 3", "v1.5 + 2"
+        };
+        ExpressionProcessor processor = createTestProcessor();
+        for (String input : inputs) {
+            assertEquals(referenceProcess(input), processor.process(input), input);
+        }
+        assertEquals("21", processor.process("((1 + 2) * (3 + 4))"));
+        assertEquals("3 12", processor.process("(1 + 2) (3 * 4)"));
+        assertEquals("-5, 8", processor.process("-(2 + 3), 5 - -3"));
+        assertEquals("a [ERROR: Division by zero] b [ERROR: Division by zero] c",
+                processor.process("a 5 / 0 b (1 / 0) c"));
+    }
+
+    @Test
+    @DisplayName("Single pass matches in-place replacement on random input")
+    @Severity(SeverityLevel.CRITICAL)
+    @Description("Compares with the in-place reference on random strings of digits, operators, "
+            + "parentheses, letters and spaces")
+    void testMatchesInPlaceReplacementOnRandomInput() {
+        final String alphabet = "0123456789..+-*/((()))  ax";
+        final Random random = new Random(42);
+        ExpressionProcessor processor = createTestProcessor();
+
+        for (int n = 0; n < 20_000; n++) {
+            StringBuilder sb = new StringBuilder();
+            int length = 1 + random.nextInt(24);
+            for (int i = 0; i < length; i++) {
+                sb.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+            String input = sb.toString();
+            assertEquals(referenceProcess(input), processor.process(input), input);
+        }
+    }
+
+    /**
+     * The replacement the single pass must agree with: resolves each group by replacing it in place,
+     * then rescans the whole text for plain expressions.
+     */
+    private String referenceProcess(String input) {
+        StringBuilder sb = new StringBuilder(input);
+        Deque<Integer> openStack = new ArrayDeque<>();
+        int i = 0;
+        while (i < sb.length()) {
+            char c = sb.charAt(i);
+            if (c == '(') {
+                openStack.push(i++);
+            } else if (c == ')' && !openStack.isEmpty()) {
+                int start = openStack.pop();
+                String inner = sb.substring(start + 1, i);
+                if (validator.isPotentialExpression(inner)) {
+                    String replacement = evaluator.evalExpression(inner);
+                    sb.replace(start, i + 1, replacement);
+                    i = start + replacement.length();
+                } else {
+                    i++;
+                }
+            } else {
+                i++;
+            }
+        }
+
+        String text = sb.toString();
+        StringBuilder result = new StringBuilder();
+        int pos = 0;
+        while (pos < text.length()) {
+            char ch = text.charAt(pos);
+            if (Character.isDigit(ch) || ch == '-' || ch == '+') {
+                int endPos = pos;
+                boolean hasOperator = false;
+                int lastMeaningfulIndex = -1;
+                while (endPos < text.length()) {
+                    char c = text.charAt(endPos);
+                    if (Character.isDigit(c) || MathUtils.isOperator(c) || (c == '.' && MathUtils.isDecimalPoint(text, endPos))) {
+                        lastMeaningfulIndex = endPos;
+                        hasOperator |= MathUtils.isOperator(c);
+                        endPos++;
+                    } else if (Character.isWhitespace(c)) {
+                        endPos++;
+                    } else {
+                        break;
+                    }
+                }
+                if (lastMeaningfulIndex >= 0) {
+                    String candidate = text.substring(pos, lastMeaningfulIndex + 1);
+                    if (hasOperator && validator.isPotentialExpression(candidate)) {
+                        result.append(evaluator.evalExpression(candidate)).append(text, lastMeaningfulIndex + 1, endPos);
+                        pos = endPos;
+                        continue;
+                    }
+                }
+            }
+            result.append(ch);
+            pos++;
+        }
+        return result.toString();
+    }
+}
@@ -0,0 +1,50 @@
+package org.example.expressions.processors;
+
+import io.qameta.allure.*;
+import org.example.expressions.factory.ManualExpressionProcessorFactory;
+import org.example.expressions.factory.RegexExpressionProcessorFactory;
+import org.junit.jupiter.api.*;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Runs the common processor tests through {@link ParallelExpressionProcessor} with tiny segments
+ * and checks that parallel output is identical to sequential output.
+ */
+@Feature("Parallel Processing")
+@Story("Process document segments on several cores")
+@Tag("parallel")
+@DisplayName("ParallelExpressionProcessor Tests")
+class ParallelExpressionProcessorTest extends AbstractExpressionProcessorTest {
+
+    private static final ForkJoinPool POOL = new ForkJoinPool(4);
+
+    @AfterAll
+    static void shutDownPool() {
+        POOL.close();
+    }
+
+    @Override
+    protected ExpressionProcessor createTestProcessor() {
+        return new ParallelExpressionProcessor(new ManualExpressionProcessorFactory().createProcessor(), POOL, 4);
+    }
+
+    @Test
+    @DisplayName("Parallel output matches sequential output")
+    @Severity(SeverityLevel.CRITICAL)
+    @Description("Checks that both strategies give byte-identical results in parallel and sequential mode")
+    void testParallelOutputMatchesSequential() {
+        final String paragraph = "Totals: 2 + 2, ((1 + 2) * (3 + 4)) and (text (5 - 1) words), 10 / 4.\n"
+                + "Carry 1 +\n2 over lines; fail (5 / 0).\n\n";
+        final String input = paragraph.repeat(500);
+
+        for (ExpressionProcessor processor : new ExpressionProcessor[]{
+                new ManualExpressionProcessorFactory().createProcessor(),
+                new RegexExpressionProcessorFactory().createProcessor()}) {
+            ParallelExpressionProcessor parallel = new ParallelExpressionProcessor(processor, POOL, 256);
+            assertEquals(processor.process(input), parallel.process(input));
+        }
+    }
+}
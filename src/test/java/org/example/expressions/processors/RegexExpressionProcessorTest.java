@@ -4,6 +4,10 @@ import io.qameta.allure.*;
 import org.example.expressions.factory.RegexExpressionProcessorFactory;
 import org.junit.jupiter.api.*;
 
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
 /**
  * Unit tests for RegexExpressionProcessor using JUnit 5 and Allure.
  */
@@ -16,4 +20,49 @@ class RegexExpressionProcessorTest extends AbstractExpressionProcessorTest {
     protected ExpressionProcessor createTestProcessor() {
         return new RegexExpressionProcessorFactory().createProcessor();
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Pathological: deep nesting")
+    @Severity(SeverityLevel.CRITICAL)
+    @Description("Checks that 100 000 nested groups are resolved in linear time")
+    @Timeout(value = 5, unit = TimeUnit.SECONDS)
+    void testDeepNesting() {
+        final int depth = 100_000;
+        final String input = "Deep: " + "(".repeat(depth) + "1 + 1" + ")".repeat(depth) + ".";
+
+        assertEquals("Deep: 2.", createTestProcessor().process(input));
+    }
+
+    @Test
+    @DisplayName("Pathological: deep non-mathematical nesting")
+    @Severity(SeverityLevel.CRITICAL)
+    @Description("Checks that unresolvable nested groups are left unchanged without quadratic copying")
+    @Timeout(value = 5, unit = TimeUnit.SECONDS)
+    void testDeepTextNesting() {
+        final String input = "(word ".repeat(100_000) + ")".repeat(100_000);
+
+        assertEquals(input, createTestProcessor().process(input));
+    }
+
+    @Test
+    @DisplayName("Pathological: long digit and whitespace runs")
+    @Severity(SeverityLevel.CRITICAL)
+    @Description("Checks that long runs of digits and spaces without an operator do not cause backtracking")
+    @Timeout(value = 5, unit = TimeUnit.SECONDS)
+    void testLongRunsWithoutOperator() {
+        final String input = "7".repeat(200_000) + " ".repeat(200_000) + "x " + "1 ".repeat(200_000) + "- y";
+
+        assertEquals(input, createTestProcessor().process(input));
+    }
+
+    @Test
+    @DisplayName("Pathological: long operator chain")
+    @Severity(SeverityLevel.NORMAL)
+    @Description("Checks that a chain of 100 000 additions is matched as one expression")
+    @Timeout(value = 5, unit = TimeUnit.SECONDS)
+    void testLongOperatorChain() {
+        final String input = "Sum: " + "1 + ".repeat(100_000) + "1.";
+
+        assertEquals("Sum: 100001.", createTestProcessor().process(input));
+    }
+}
@@ -0,0 +1,54 @@
+package org.example.expressions.processors;
+
+import io.qameta.allure.*;
+import org.example.expressions.factory.ManualExpressionProcessorFactory;
+import org.example.expressions.factory.RegexExpressionProcessorFactory;
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Runs the common processor tests through {@link StreamingExpressionProcessor} with a tiny chunk size,
+ * so every input is cut into many chunks, and checks that chunked output matches whole-text output.
+ */
+@Feature("Streaming")
+@Story("Process large inputs chunk by chunk")
+@Tag("streaming")
+@DisplayName("StreamingExpressionProcessor Tests")
+class StreamingExpressionProcessorTest extends AbstractExpressionProcessorTest {
+
+    private static final int TINY_CHUNK_SIZE = 4;
+
+    @Override
+    protected ExpressionProcessor createTestProcessor() {
+        return new StreamingExpressionProcessor(new ManualExpressionProcessorFactory().createProcessor(),
+                TINY_CHUNK_SIZE, StreamingExpressionProcessor.DEFAULT_MAX_CHUNK_SIZE);
+    }
+
+    @Test
+    @DisplayName("Chunked output matches whole-text output")
+    @Severity(SeverityLevel.CRITICAL)
+    @Description("Checks that cutting a multi-line document into chunks does not change the result of either processor")
+    void testChunkedOutputMatchesWholeText() {
+        final String line = "Line: 2 + 2, nested ((1 + 2) * (3 + 4)), plain 10 / 4 and (text (5 - 1) words);\n";
+        final String input = line.repeat(200);
+
+        for (ExpressionProcessor processor : new ExpressionProcessor[]{
+                new ManualExpressionProcessorFactory().createProcessor(),
+                new RegexExpressionProcessorFactory().createProcessor()}) {
+            StreamingExpressionProcessor streaming = new StreamingExpressionProcessor(processor, 7, 1024);
+            assertEquals(processor.process(input), streaming.process(input));
+        }
+    }
+
+    @Test
+    @DisplayName("Expressions spanning lines are not cut")
+    @Severity(SeverityLevel.NORMAL)
+    @Description("Checks that an expression continued on the next line is kept in one chunk")
+    void testExpressionSpanningLines() {
+        final String input = "Sum: 1 +\n2 +\n3, done";
+        final String expected = "Sum: 6, done";
+
+        assertEquals(expected, createTestProcessor().process(input));
+    }
+}
@@ -0,0 +1,177 @@
+package org.example.formats;
+
+import io.qameta.allure.*;
+import org.example.expressions.factory.ManualExpressionProcessorFactory;
+import org.example.expressions.processors.ExpressionProcessor;
+import org.junit.jupiter.api.*;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for format-aware processing of JSON, XML, HTML and YAML documents.
+ */
+@Epic("Expression Processing")
+@Feature("Structured Formats")
+@Story("Processing text nodes and string values only")
+@Owner("Bondarenko Kirill")
+@DisplayName("Structured Text Processor Tests")
+class StructuredTextProcessorTest {
+
+    private final ExpressionProcessor processor = new ManualExpressionProcessorFactory().createProcessor();
+
+    private String process(TextFormat format, String input) {
+        return new StructuredTextProcessor(processor, format).process(input);
+    }
+
+    @Test
+    @DisplayName("JSON string values are processed, keys and numbers are kept")
+    @Severity(SeverityLevel.CRITICAL)
+    @Description("Processes values in objects and arrays, keeps keys that look like expressions, "
+            + "decodes escapes and keeps the original escapes of unchanged strings")
+    void testJson() {
+        String input = "{\"1 + 1\": \"2 * 3\", \"n\": 4, \"list\": [\"(1 + 2) * 3\", true, {\"k\": \"5 - 1\"}],"
+                + " \"esc\": \"a\\tb \\u0031 + 1\", \"keep\": \"x\\u0041\\n\"}";
+        assertEquals("{\"1 + 1\": \"6\", \"n\": 4, \"list\": [\"9\", true, {\"k\": \"4\"}],"
+                        + " \"esc\": \"a\\tb 2\", \"keep\": \"x\\u0041\\n\"}",
+                process(TextFormat.JSON, input));
+        assertEquals("[\"say \\\"3\\\"\"]", process(TextFormat.JSON, "[\"say \\\"1 + 2\\\"\"]"));
+        assertThrows(RuntimeException.class, () -> process(TextFormat.JSON, "[\"\\u12\"]"));
+    }
+
+    @Test
+    @DisplayName("XML text nodes and CDATA are processed, markup is kept")
+    @Severity(SeverityLevel.CRITICAL)
+    @Description("Keeps tags, attributes, comments, processing instructions and the DOCTYPE subset")
+    void testXml() {
+        String input = "<?xml version=\"1.0\"?>\n<!DOCTYPE r [<!ENTITY e \"1 + 1\">]>\n"
+                + "<r a=\"1 + 1\" b='2 > 1'><!-- 3 * 3 --><v>2 * 3</v><c><![CDATA[4 / 2]]></c>"
+                + "<w>a &amp; 1 + 1</w><e/></r>";
+        assertEquals("<?xml version=\"1.0\"?>\n<!DOCTYPE r [<!ENTITY e \"1 + 1\">]>\n"
+                        + "<r a=\"1 + 1\" b='2 > 1'><!-- 3 * 3 --><v>6</v><c><![CDATA[2]]></c>"
+                        + "<w>a &amp; 2</w><e/></r>",
+                process(TextFormat.XML, input));
+    }
+
+    @Test
+    @DisplayName("HTML scripts and styles are kept")
+    @Severity(SeverityLevel.NORMAL)
+    @Description("Copies script and style content up to the end tag and treats a stray < as text")
+    void testHtml() {
+        String input = "<p title=\"2 * 2\">Total: 2 * 2</p><SCRIPT>if (a < b) x = 1 + 1;</script>"
+                + "<style>p { width: 10 * 2px }</style><p>1 < 2 + 2</p>";
+        assertEquals("<p title=\"2 * 2\">Total: 4</p><SCRIPT>if (a < b) x = 1 + 1;</script>"
+                        + "<style>p { width: 10 * 2px }</style><p>1 < 4</p>",
+                process(TextFormat.HTML, input));
+    }
+
+    @Test
+    @DisplayName("YAML scalar values are processed, keys and comments are kept")
+    @Severity(SeverityLevel.CRITICAL)
+    @Description("Processes plain, quoted and block scalars; keeps keys, comments, anchors and flow collections")
+    void testYaml() {
+        String input = """
+                # total: 1 + 1
+                ---
+                price: 2 * 3  # 1 + 1
+                "1 + 1": '(1 + 2) * 3'
+                items:
+                  - 4 / 2
+                  - name: &a 5 - 1
+                    escaped: "tab\\t 1 + 1"
+                    flow: [1 + 1, 2]
+                text: |
+                  first 1 + 2
+                    nested 2 * 2
+                after: 7
+                """;
+        assertEquals("""
+                # total: 1 + 1
+                ---
+                price: 6  # 1 + 1
+                "1 + 1": '9'
+                items:
+                  - 2
+                  - name: &a 4
+                    escaped: "tab\\t 1 + 1"
+                    flow: [1 + 1, 2]
+                text: |
+                  first 3
+                    nested 4
+                after: 7
+                """, process(TextFormat.YAML, input));
+    }
+
+    @Test
+    @DisplayName("YAML errors stay valid scalars")
+    @Severity(SeverityLevel.CRITICAL)
+    @Description("Quotes processed plain values that would otherwise read as a flow sequence or a mapping, "
+            + "and keeps error messages inside quoted values and block scalars as they are")
+    void testYamlErrors() {
+        String input = """
+                ratio: 5 / 0
+                note: total 5 / 0 units
+                items:
+                  - 1 / 0
+                quoted: '5 / 0'
+                text: |
+                  5 / 0
+                ok: 1 + 1 # 5 / 0
+                """;
+        assertEquals("""
+                ratio: "[ERROR: Division by zero]"
+                note: "total [ERROR: Division by zero] units"
+                items:
+                  - "[ERROR: Division by zero]"
+                quoted: '[ERROR: Division by zero]'
+                text: |
+                  [ERROR: Division by zero]
+                ok: 2 # 5 / 0
+                """, process(TextFormat.YAML, input));
+
+        assertTrue(YamlScanner.isPlainScalar("42"));
+        assertTrue(YamlScanner.isPlainScalar("total 3 units"));
+        assertFalse(YamlScanner.isPlainScalar("[ERROR: x]"));
+        assertFalse(YamlScanner.isPlainScalar("a: b"));
+        assertFalse(YamlScanner.isPlainScalar("a #b"));
+        assertFalse(YamlScanner.isPlainScalar("- a"));
+        assertFalse(YamlScanner.isPlainScalar("@a"));
+    }
+
+    @Test
+    @DisplayName("Large text nodes are processed in bounded pieces")
+    @Severity(SeverityLevel.NORMAL)
+    @Description("Streams a text node and a JSON string far longer than one segment and compares "
+            + "with processing the text alone")
+    void testLargeText() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        while (sb.length() < 5 * TextSegment.MAX_LENGTH) {
+            sb.append("row (1 + 2) * ").append(sb.length() % 97).append(", ");
+        }
+        String text = sb.toString();
+        String expected = processor.process(text);
+
+        StringWriter xml = new StringWriter();
+        new StructuredTextProcessor(processor, TextFormat.XML).process(new StringReader("<t>" + text + "</t>"), xml);
+        assertEquals("<t>" + expected + "</t>", xml.toString());
+        assertEquals("[\"" + expected + "\"]", process(TextFormat.JSON, "[\"" + text + "\"]"));
+        assertEquals(expected, process(TextFormat.PLAIN, text));
+    }
+
+    @Test
+    @DisplayName("Formats are chosen by extension")
+    @Severity(SeverityLevel.MINOR)
+    @Description("Maps extensions to formats, ignoring case and a trailing .gz")
+    void testFormatForPath() {
+        assertEquals(TextFormat.JSON, TextFormat.forPath("data/in.JSON"));
+        assertEquals(TextFormat.YAML, TextFormat.forPath("config.yml.gz"));
+        assertEquals(TextFormat.HTML, TextFormat.forPath("page.htm"));
+        assertEquals(TextFormat.PLAIN, TextFormat.forPath("notes.txt"));
+        assertEquals(TextFormat.PLAIN, TextFormat.forPath("README"));
+        assertEquals(TextFormat.XML, TextFormat.parse("xml"));
+        assertThrows(IllegalArgumentException.class, () -> TextFormat.parse("toml"));
+    }
+}
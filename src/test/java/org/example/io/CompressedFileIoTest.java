@@ -0,0 +1,129 @@
+package org.example.io;
+
+import io.qameta.allure.*;
+import org.example.expressions.factory.ManualExpressionProcessorFactory;
+import org.example.expressions.processors.ExpressionProcessor;
+import org.example.expressions.processors.StreamingExpressionProcessor;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for gzip input and output and the block-parallel gzip writer.
+ */
+@Epic("Expression Processing")
+@Feature("File IO")
+@Story("Compressed input and output")
+@Owner("Bondarenko Kirill")
+@DisplayName("Compressed file IO Tests")
+class CompressedFileIoTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    @DisplayName("Parallel gzip output is standard gzip")
+    @Severity(SeverityLevel.CRITICAL)
+    @Description("Writes with small blocks, odd write sizes and a flush, decompresses with GZIPInputStream "
+            + "and compares the size with single-threaded gzip")
+    void testParallelGzipRoundTrip() throws IOException {
+        byte[] data = sample(300_000).getBytes(StandardCharsets.UTF_8);
+
+        ByteArrayOutputStream parallel = new ByteArrayOutputStream();
+        ByteArrayOutputStream written = new ByteArrayOutputStream();
+        try (ExecutorService executor = Executors.newFixedThreadPool(4);
+             OutputStream out = new ParallelGzipOutputStream(parallel, executor, Deflater.DEFAULT_COMPRESSION, 16 * 1024, 3)) {
+            for (int i = 0; i < data.length; ) {
+                int n = Math.min(1 + i % 5_000, data.length - i);
+                out.write(data, i, n);
+                written.write(data, i, n);
+                i += n;
+                if (i > data.length / 2 && i - n <= data.length / 2) {
+                    out.flush();
+                    out.write('!');
+                    written.write('!');
+                }
+            }
+        }
+        assertArrayEquals(written.toByteArray(), gunzip(parallel.toByteArray()));
+
+        ByteArrayOutputStream single = new ByteArrayOutputStream();
+        try (OutputStream out = new GZIPOutputStream(single)) {
+            out.write(data);
+        }
+        assertTrue(parallel.size() < single.size() * 1.05, parallel.size() + " vs " + single.size());
+
+        ByteArrayOutputStream empty = new ByteArrayOutputStream();
+        new ParallelGzipOutputStream(empty).close();
+        assertEquals(0, gunzip(empty.toByteArray()).length);
+    }
+
+    @Test
+    @DisplayName("Compressed files stream through the processor")
+    @Severity(SeverityLevel.CRITICAL)
+    @Description("Processes a gzip input into gzip and parallel gzip outputs chunk by chunk, "
+            + "and reads concatenated gzip members")
+    void testCompressedStreamingProcessing() throws IOException {
+        String text = sample(200_000);
+        Path input = dir.resolve("in.txt.gz");
+        SimpleFileWriter.write(input.toString(), text);
+        assertEquals(Compression.GZIP, Compression.forPath(input.toString()));
+        assertEquals(text, SimpleFileReader.read(input.toString()));
+
+        ExpressionProcessor processor = new ManualExpressionProcessorFactory().createProcessor();
+        for (Compression compression : new Compression[]{Compression.GZIP, Compression.PARALLEL_GZIP}) {
+            Path output = dir.resolve("out-" + compression + ".txt.gz");
+            try (Reader reader = SimpleFileReader.openReader(input.toString());
+                 Writer writer = SimpleFileWriter.openWriter(output.toString(), compression)) {
+                new StreamingExpressionProcessor(processor, 1000, 100_000).process(reader, writer);
+            }
+            assertEquals(processor.process(text), SimpleFileReader.read(output.toString()));
+        }
+
+        Path concatenated = dir.resolve("concatenated.gz");
+        try (OutputStream out = Files.newOutputStream(concatenated)) {
+            for (String part : new String[]{"first 1 + 1, ", "second 2 * 2"}) {
+                GZIPOutputStream member = new GZIPOutputStream(out);
+                member.write(part.getBytes(StandardCharsets.UTF_8));
+                member.finish();
+            }
+        }
+        assertEquals("first 1 + 1, second 2 * 2", SimpleFileReader.read(concatenated.toString()));
+        assertEquals(Compression.PARALLEL_GZIP, Compression.parse("pgzip"));
+        assertThrows(IllegalArgumentException.class, () -> Compression.parse("zstd"));
+    }
+
+    private static byte[] gunzip(byte[] gzip) throws IOException {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(gzip))) {
+            return in.readAllBytes();
+        }
+    }
+
+    private static String sample(int length) {
+        String[] parts = {"Row: (1 + 2) * 3, ", "total 10 / 4; ", "note (text) ok.\n", "Цена: 3.5 * 2 € ", "x = 7 - 8 "};
+        Random random = new Random(3);
+        StringBuilder sb = new StringBuilder(length + 32);
+        while (sb.length() < length) {
+            sb.append(parts[random.nextInt(parts.length)]).append(random.nextInt(1000));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,164 @@
+package org.example.io;
+
+import io.qameta.allure.*;
+import org.example.expressions.factory.ManualExpressionProcessorFactory;
+import org.example.expressions.processors.ExpressionProcessor;
+import org.example.expressions.processors.StreamingExpressionProcessor;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyStore;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for chunked AES-GCM encrypted input and output.
+ */
+@Epic("Expression Processing")
+@Feature("File IO")
+@Story("Encrypted input and output")
+@Owner("Bondarenko Kirill")
+@DisplayName("Encrypted file IO Tests")
+class EncryptedFileIoTest {
+
+    private static final byte[] KEY = "0123456789abcdef0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    @DisplayName("Encrypted streams round-trip and detect tampering")
+    @Severity(SeverityLevel.CRITICAL)
+    @Description("Round-trips empty, partial and exact multiples of the chunk size, then rejects a flipped bit, "
+            + "a dropped last chunk, a truncated stream and a wrong key")
+    void testRoundTripAndTampering() throws IOException {
+        FileEncryption encryption = FileEncryption.withKey(KEY);
+        for (int length : new int[]{0, 1, 99, 100, 300, 1_234}) {
+            byte[] data = bytes(length);
+            byte[] sealed = encrypt(data, 100);
+            int chunks = Math.max(1, (data.length + 99) / 100);
+            assertEquals(EncryptedOutputStream.HEADER_LENGTH + data.length + 16 * chunks, sealed.length);
+            assertArrayEquals(data, decrypt(encryption, sealed));
+        }
+
+        byte[] data = bytes(1_000);
+        byte[] sealed = encrypt(data, 100);
+        assertFalse(Arrays.equals(encrypt(data, 100), sealed), "nonces must differ per stream");
+
+        byte[] flipped = sealed.clone();
+        flipped[500] ^= 1;
+        assertThrows(IOException.class, () -> decrypt(encryption, flipped));
+        assertThrows(IOException.class, () -> decrypt(encryption, Arrays.copyOf(sealed, sealed.length - 116)));
+        assertThrows(IOException.class, () -> decrypt(encryption, Arrays.copyOf(sealed, sealed.length - 5)));
+        assertThrows(IOException.class, () -> decrypt(encryption, Arrays.copyOf(sealed, 10)));
+        assertThrows(IOException.class, () -> decrypt(FileEncryption.withKey(new byte[16]), sealed));
+        assertThrows(IOException.class, () -> decrypt(encryption, data));
+        assertThrows(IllegalArgumentException.class, () -> FileEncryption.withKey(new byte[15]));
+    }
+
+    @Test
+    @DisplayName("Every file is encrypted with its own derived key")
+    @Severity(SeverityLevel.CRITICAL)
+    @Description("Derives the keys of two files written with the same master key from their salts and checks "
+            + "that they differ from each other and from the master key, and that the derivation is deterministic")
+    void testPerFileKeys() throws IOException {
+        SecretKeySpec master = new SecretKeySpec(KEY, "AES");
+        byte[] first = encrypt(new byte[10], 100);
+        byte[] second = encrypt(new byte[10], 100);
+        byte[] firstKey = EncryptedOutputStream.deriveKey(master, salt(first)).getEncoded();
+        byte[] secondKey = EncryptedOutputStream.deriveKey(master, salt(second)).getEncoded();
+
+        assertEquals(32, firstKey.length);
+        assertFalse(Arrays.equals(salt(first), salt(second)));
+        assertFalse(Arrays.equals(firstKey, secondKey));
+        assertFalse(Arrays.equals(KEY, firstKey));
+        assertArrayEquals(firstKey, EncryptedOutputStream.deriveKey(master, salt(first)).getEncoded());
+        assertFalse(Arrays.equals(firstKey,
+                EncryptedOutputStream.deriveKey(new SecretKeySpec(new byte[16], "AES"), salt(first)).getEncoded()));
+    }
+
+    @Test
+    @DisplayName("Encrypted compressed files stream through the processor")
+    @Severity(SeverityLevel.CRITICAL)
+    @Description("Processes an encrypted gzip file into an encrypted gzip file with a key from a PKCS12 keystore, "
+            + "and checks that no plaintext reaches the disk")
+    void testEncryptedStreamingProcessing() throws Exception {
+        Path keyStorePath = dir.resolve("keys.p12");
+        char[] password = "secret".toCharArray();
+        KeyStore keyStore = KeyStore.getInstance("PKCS12");
+        keyStore.load(null, password);
+        keyStore.setEntry("expressions", new KeyStore.SecretKeyEntry(new SecretKeySpec(KEY, "AES")),
+                new KeyStore.PasswordProtection(password));
+        try (OutputStream out = Files.newOutputStream(keyStorePath)) {
+            keyStore.store(out, password);
+        }
+        FileEncryption encryption = FileEncryption.fromKeyStore(keyStorePath, password, "expressions");
+        assertThrows(IOException.class, () -> FileEncryption.fromKeyStore(keyStorePath, password, "missing"));
+
+        String text = "Secret: (1 + 2) * 3 and 10 / 4.\n".repeat(10_000);
+        String input = dir.resolve("in.txt.gz.enc").toString();
+        assertTrue(FileEncryption.isEncrypted(input));
+        assertEquals(Compression.GZIP, Compression.forPath(FileEncryption.stripSuffix(input)));
+        try (Writer writer = SimpleFileWriter.openWriter(input, Compression.GZIP, encryption)) {
+            writer.write(text);
+        }
+
+        String output = dir.resolve("out.txt.enc").toString();
+        ExpressionProcessor processor = new ManualExpressionProcessorFactory().createProcessor();
+        try (Reader reader = SimpleFileReader.openReader(input, Compression.GZIP, encryption);
+             Writer writer = SimpleFileWriter.openWriter(output, Compression.NONE, encryption)) {
+            new StreamingExpressionProcessor(processor, 1000, 100_000).process(reader, writer);
+        }
+        assertFalse(Files.readString(Path.of(output), StandardCharsets.ISO_8859_1).contains("Secret"));
+        try (Reader reader = SimpleFileReader.openReader(output, Compression.NONE, encryption)) {
+            StringBuilder result = new StringBuilder();
+            char[] buffer = new char[4096];
+            int n;
+            while ((n = reader.read(buffer)) >= 0) {
+                result.append(buffer, 0, n);
+            }
+            assertEquals(processor.process(text), result.toString());
+        }
+    }
+
+    private static byte[] encrypt(byte[] data, int chunkSize) throws IOException {
+        ByteArrayOutputStream sealed = new ByteArrayOutputStream();
+        try (OutputStream out = new EncryptedOutputStream(sealed, new SecretKeySpec(KEY, "AES"), chunkSize)) {
+            for (int i = 0; i < data.length; ) {
+                int n = Math.min(1 + i % 37, data.length - i);
+                out.write(data, i, n);
+                i += n;
+            }
+        }
+        return sealed.toByteArray();
+    }
+
+    private static byte[] decrypt(FileEncryption encryption, byte[] sealed) throws IOException {
+        try (InputStream in = encryption.decrypt(new ByteArrayInputStream(sealed))) {
+            return in.readAllBytes();
+        }
+    }
+
+    private static byte[] salt(byte[] sealed) {
+        return Arrays.copyOfRange(sealed, 9, 9 + EncryptedOutputStream.SALT_LENGTH);
+    }
+
+    private static byte[] bytes(int length) {
+        byte[] data = new byte[length];
+        new Random(length).nextBytes(data);
+        return data;
+    }
+}
@@ -0,0 +1,75 @@
+package org.example.io;
+
+import io.qameta.allure.*;
+import org.example.expressions.factory.ManualExpressionProcessorFactory;
+import org.example.expressions.processors.ExpressionProcessor;
+import org.example.expressions.processors.StreamingExpressionProcessor;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Unit tests for the memory-mapped reader and the channel writer.
+ */
+@Epic("Expression Processing")
+@Feature("File IO")
+@Story("Zero-copy input and channel output")
+@Owner("Bondarenko Kirill")
+@DisplayName("Mapped file IO Tests")
+class MappedFileIoTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    @DisplayName("ASCII and UTF-8 files round-trip")
+    @Severity(SeverityLevel.CRITICAL)
+    @Description("Checks that mapped views return the file text and the channel writer writes it back unchanged")
+    void testRoundTrip() throws IOException {
+        final String ascii = "Plain ASCII line: 2 + 2.\n".repeat(5_000);
+        final String utf8 = "Цена: (3.5 * 2) €, emoji 😀 and 1 + 1.\n".repeat(5_000);
+
+        for (String text : new String[]{ascii, utf8}) {
+            Path input = dir.resolve("in.txt");
+            Path output = dir.resolve("out.txt");
+            Files.writeString(input, text);
+
+            CharSequence mapped = MappedFileReader.map(input.toString());
+            assertEquals(text.length(), MappedFileReader.decodedLength(ByteBuffer.wrap(Files.readAllBytes(input))));
+            assertEquals(text, mapped.toString());
+            assertEquals(text.substring(10, 40), mapped.subSequence(10, 40).toString());
+
+            try (Writer writer = ChannelFileWriter.open(output.toString())) {
+                for (int i = 0; i < text.length(); i += 777) {
+                    writer.write(text, i, Math.min(777, text.length() - i));
+                }
+            }
+            assertEquals(text, Files.readString(output));
+        }
+    }
+
+    @Test
+    @DisplayName("Mapped input through streaming processor")
+    @Severity(SeverityLevel.NORMAL)
+    @Description("Checks that processing a mapped file chunk by chunk matches processing the string")
+    void testMappedProcessing() throws IOException {
+        final String text = "Row: (1 + 2) * 3, total 10 / 4; note (text) ok.\n".repeat(10_000);
+        Path input = dir.resolve("in.txt");
+        Path output = dir.resolve("out.txt");
+        Files.writeString(input, text);
+
+        ExpressionProcessor processor = new ManualExpressionProcessorFactory().createProcessor();
+        try (Writer writer = ChannelFileWriter.open(output.toString())) {
+            new StreamingExpressionProcessor(processor, 1000, 100_000).process(MappedFileReader.map(input.toString()), writer);
+        }
+
+        assertEquals(processor.process(text), Files.readString(output));
+    }
+}
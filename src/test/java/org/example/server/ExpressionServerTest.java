@@ -0,0 +1,90 @@
+package org.example.server;
+
+import io.qameta.allure.*;
+import org.example.expressions.factory.ManualExpressionProcessorFactory;
+import org.example.expressions.factory.RegexExpressionProcessorFactory;
+import org.example.expressions.processors.ExpressionProcessor;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnixDomainSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the resident server and its length-prefixed socket protocol.
+ */
+@Epic("Expression Processing")
+@Feature("Server Mode")
+@Story("Answer requests from a resident JVM")
+@Owner("Bondarenko Kirill")
+@DisplayName("ExpressionServer Tests")
+class ExpressionServerTest {
+
+    private static final Map<String, ExpressionProcessor> PROCESSORS = Map.of(
+            "manual", new ManualExpressionProcessorFactory().createConcurrentProcessor(),
+            "regex", new RegexExpressionProcessorFactory().createConcurrentProcessor());
+
+    @TempDir
+    Path dir;
+
+    @Test
+    @DisplayName("TCP requests from concurrent clients")
+    @Severity(SeverityLevel.CRITICAL)
+    @Description("Sends several requests per connection from 16 clients and compares with local processing")
+    void testConcurrentTcpClients() throws Exception {
+        try (ExpressionServer server = ExpressionServer.start(
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), PROCESSORS);
+             ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int c = 0; c < 16; c++) {
+                final int id = c;
+                futures.add(clients.submit(() -> {
+                    try (ExpressionClient client = ExpressionClient.connect(server.localAddress())) {
+                        for (int i = 0; i < 20; i++) {
+                            String mode = i % 2 == 0 ? "manual" : "regex";
+                            String text = "Client " + id + ": (" + i + " + 1) * 2 and ünïcödé 10 / 4.";
+                            assertEquals(PROCESSORS.get(mode).process(text), client.process(mode, text));
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            assertEquals(320, server.requestCount());
+        }
+    }
+
+    @Test
+    @DisplayName("Unix-domain socket and errors")
+    @Severity(SeverityLevel.NORMAL)
+    @Description("Checks the Unix socket transport, empty texts, unknown modes and removal of the socket file")
+    void testUnixSocketAndErrors() throws IOException {
+        Path socket = dir.resolve("server.sock");
+        ExpressionServer server = ExpressionServer.start(UnixDomainSocketAddress.of(socket), PROCESSORS);
+        try (ExpressionClient client = ExpressionClient.connect(ServerProtocol.parseAddress("unix:" + socket))) {
+            assertEquals("Sum: 4.", client.process("manual", "Sum: 2 + 2."));
+            assertEquals("", client.process("regex", ""));
+
+            IOException error = assertThrows(IOException.class, () -> client.process("fancy", "1 + 1"));
+            assertEquals("Server error: Unknown mode: fancy", error.getMessage());
+            assertEquals("9", client.process("MANUAL", "(1 + 2) * 3"));
+        } finally {
+            server.close();
+        }
+        assertFalse(Files.exists(socket));
+    }
+}